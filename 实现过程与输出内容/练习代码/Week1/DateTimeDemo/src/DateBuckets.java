@@ -0,0 +1,310 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 基于纪元日（1970-01-01 为 0）数组的日期分桶与间隔计算
+ * 所有计算都在 int/long 上完成，不为每个元素创建 LocalDate；超过 {@value #PARALLEL_THRESHOLD} 个元素时
+ * 在 ForkJoin 公共线程池中分块并行，每块独立计数后再合并。
+ * 年月换算查 1900-2099 年的 yyyyMMdd 预计算表，表外退回 {@link DateUtils#civilDate}，支持的年份范围为 0000-9999
+ */
+public class DateBuckets {
+    /** 元素数不少于该值时并行处理 */
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    /** CIVIL_DATES[i] 是纪元日 CIVIL_FIRST_DAY + i 的 yyyyMMdd */
+    private static final int CIVIL_FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int[] CIVIL_DATES = new int[(int) (LocalDate.of(2100, 1, 1).toEpochDay() - CIVIL_FIRST_DAY)];
+
+    static {
+        for (int i = 0; i < CIVIL_DATES.length; i++) {
+            CIVIL_DATES[i] = DateUtils.civilDate(CIVIL_FIRST_DAY + i);
+        }
+    }
+
+    public enum Unit {DAY, WEEK, MONTH}
+
+    /**
+     * 纪元秒转换为 zone 时区下的纪元日
+     */
+    public static int[] epochDays(long[] epochSeconds, ZoneId zone) {
+        ZoneOffsetConverter converter = ZoneOffsetConverter.of(zone);
+        int[] days = new int[epochSeconds.length];
+        reduce(epochSeconds.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long localMillis = converter.toLocalMillis(epochSeconds[i] * 1000);
+                days[i] = Math.toIntExact(Math.floorDiv(localMillis, MILLIS_PER_DAY));
+            }
+            return null;
+        }, (a, b) -> null);
+        return days;
+    }
+
+    /**
+     * 按天、按周（周一开始）或按月统计事件数
+     */
+    public static Histogram histogram(int[] epochDays, Unit unit) {
+        return histogram(epochDays, unit, DayOfWeek.MONDAY);
+    }
+
+    /**
+     * @param firstDayOfWeek 按周统计时每周的第一天
+     */
+    public static Histogram histogram(int[] epochDays, Unit unit, DayOfWeek firstDayOfWeek) {
+        int shift = firstDayOfWeek.getValue() - 1;
+        if (epochDays.length == 0) {
+            return new Histogram(unit, shift, 0, new long[0]);
+        }
+        // 桶号随纪元日单调不减，最小和最大的桶由最早和最晚的日期决定
+        int[] range = reduce(epochDays.length, (from, to) -> {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, epochDays[i]);
+                max = Math.max(max, epochDays[i]);
+            }
+            return new int[]{min, max};
+        }, (a, b) -> new int[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+        int first = bucketOf(range[0], unit, shift);
+        int size = bucketOf(range[1], unit, shift) - first + 1;
+        long[] counts = reduce(epochDays.length, (from, to) -> {
+            long[] local = new long[size];
+            for (int i = from; i < to; i++) {
+                local[bucketOf(epochDays[i], unit, shift) - first]++;
+            }
+            return local;
+        }, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        });
+        return new Histogram(unit, shift, first, counts);
+    }
+
+    /**
+     * 纪元日所在的桶：DAY 为纪元日本身，WEEK 为周序号，MONTH 为 年 * 12 + 月 - 1
+     * @param weekShift 每周第一天相对周一的天数
+     */
+    static int bucketOf(int epochDay, Unit unit, int weekShift) {
+        switch (unit) {
+            case DAY:
+                return epochDay;
+            case WEEK:
+                // 1970-01-01 是周四，+3 后以周一为一周的开始
+                return Math.floorDiv(epochDay + 3 - weekShift, 7);
+            default:
+                int date = civilDate(epochDay);
+                return date / 10000 * 12 + date / 100 % 100 - 1;
+        }
+    }
+
+    /**
+     * 与 Period.between(start, end) 相同的结果，打包为 long：高 32 位为总月数，低 32 位为天数
+     * 用 {@link #years}、{@link #months}、{@link #days} 拆开，或用 {@link #toPeriod} 还原
+     */
+    public static long periodBetween(int startDay, int endDay) {
+        int start = civilDate(startDay);
+        int end = civilDate(endDay);
+        int startYear = start / 10000;
+        int startMonth = start / 100 % 100;
+        int startDayOfMonth = start % 100;
+        int endYear = end / 10000;
+        int endMonth = end / 100 % 100;
+        int totalMonths = (endYear * 12 + endMonth) - (startYear * 12 + startMonth);
+        int days = end % 100 - startDayOfMonth;
+        if (totalMonths > 0 && days < 0) {
+            totalMonths--;
+            // start.plusMonths(totalMonths)，日期超过月末时取月末
+            int month = startYear * 12 + startMonth - 1 + totalMonths;
+            int year = month / 12;
+            month = month % 12 + 1;
+            int day = Math.min(startDayOfMonth, DateUtils.daysInMonth(year, month));
+            days = (int) (endDay - DateUtils.epochDay(year, month, day));
+        } else if (totalMonths < 0 && days > 0) {
+            totalMonths++;
+            days -= DateUtils.daysInMonth(endYear, endMonth);
+        }
+        return (long) totalMonths << 32 | (days & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 纪元日换算为 yyyyMMdd，常用年份直接查表
+     */
+    static int civilDate(int epochDay) {
+        int i = epochDay - CIVIL_FIRST_DAY;
+        return i >= 0 && i < CIVIL_DATES.length ? CIVIL_DATES[i] : DateUtils.civilDate(epochDay);
+    }
+
+    /**
+     * 批量计算 start[i] 到 end[i] 的间隔，结果格式同 {@link #periodBetween}
+     */
+    public static long[] periodsBetween(int[] startDays, int[] endDays) {
+        if (startDays.length != endDays.length) {
+            throw new IllegalArgumentException("length mismatch: " + startDays.length + " != " + endDays.length);
+        }
+        long[] periods = new long[startDays.length];
+        reduce(periods.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                periods[i] = periodBetween(startDays[i], endDays[i]);
+            }
+            return null;
+        }, (a, b) -> null);
+        return periods;
+    }
+
+    /**
+     * 相邻两个元素相差的天数，gaps[i] = epochDays[i + 1] - epochDays[i]
+     */
+    public static int[] gaps(int[] epochDays) {
+        int[] gaps = new int[Math.max(0, epochDays.length - 1)];
+        reduce(gaps.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                gaps[i] = epochDays[i + 1] - epochDays[i];
+            }
+            return null;
+        }, (a, b) -> null);
+        return gaps;
+    }
+
+    public static int years(long period) {
+        return (int) (period >> 32) / 12;
+    }
+
+    public static int months(long period) {
+        return (int) (period >> 32) % 12;
+    }
+
+    public static int days(long period) {
+        return (int) period;
+    }
+
+    public static Period toPeriod(long period) {
+        return Period.of(years(period), months(period), days(period));
+    }
+
+    /**
+     * 对 [0, n) 分块计算后合并；元素较少时直接在当前线程计算
+     */
+    private static <R> R reduce(int n, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+        if (n < PARALLEL_THRESHOLD) {
+            return leaf.apply(0, n);
+        }
+        // 块数约为并行度的 4 倍，方便工作窃取均衡负载，又不至于让每块的局部数组太多
+        int chunk = Math.max(PARALLEL_THRESHOLD / 4, n / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+        return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, n, chunk, leaf, combine));
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    @SuppressWarnings("serial")
+    private static class RangeTask<R> extends RecursiveTask<R> {
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combine;
+
+        RangeTask(int from, int to, int chunk, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= chunk) {
+                return leaf.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask<R> left = new RangeTask<>(from, mid, chunk, leaf, combine);
+            left.fork();
+            R right = new RangeTask<>(mid, to, chunk, leaf, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * 连续桶的计数，第 i 个元素对应从 {@link #bucketStart(int)} 开始的一天、一周或一个月
+     */
+    public static class Histogram {
+        private final Unit unit;
+        private final int weekShift;
+        private final int firstBucket;
+        private final long[] counts;
+
+        Histogram(Unit unit, int weekShift, int firstBucket, long[] counts) {
+            this.unit = unit;
+            this.weekShift = weekShift;
+            this.firstBucket = firstBucket;
+            this.counts = counts;
+        }
+
+        public Unit unit() {
+            return unit;
+        }
+
+        public int size() {
+            return counts.length;
+        }
+
+        public long count(int i) {
+            return counts[i];
+        }
+
+        /**
+         * 指定日期所在桶的计数，超出范围时为 0
+         */
+        public long countOn(LocalDate date) {
+            int i = bucketOf(Math.toIntExact(date.toEpochDay()), unit, weekShift) - firstBucket;
+            return i >= 0 && i < counts.length ? counts[i] : 0;
+        }
+
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * 第 i 个桶的第一天
+         */
+        public LocalDate bucketStart(int i) {
+            int bucket = firstBucket + i;
+            switch (unit) {
+                case DAY:
+                    return LocalDate.ofEpochDay(bucket);
+                case WEEK:
+                    return LocalDate.ofEpochDay(bucket * 7L - 3 + weekShift);
+                default:
+                    return LocalDate.of(bucket / 12, bucket % 12 + 1, 1);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(unit.name()).append('{');
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                if (sb.charAt(sb.length() - 1) != '{') {
+                    sb.append(", ");
+                }
+                sb.append(bucketStart(i)).append('=').append(counts[i]);
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * DateBuckets 与逐个创建 LocalDate / Period 的结果对比和耗时对比
+ * 用法：DateBucketsBenchmark [事件数，默认 20000000]
+ */
+public class DateBucketsBenchmark {
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        checkPeriods();
+        SplittableRandom random = new SplittableRandom(17);
+        long[] seconds = new long[n];
+        long base = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < n; i++) {
+            seconds[i] = base + random.nextLong(5L * 365 * 86400);
+        }
+
+        long start = System.nanoTime();
+        Map<LocalDate, Long> perMonth = new HashMap<>();
+        Map<LocalDate, Long> perWeek = new HashMap<>();
+        for (long second : seconds) {
+            LocalDate date = Instant.ofEpochSecond(second).atZone(ZONE).toLocalDate();
+            perMonth.merge(date.withDayOfMonth(1), 1L, Long::sum);
+            perWeek.merge(date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), 1L, Long::sum);
+        }
+        long objects = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] days = DateBuckets.epochDays(seconds, ZONE);
+        DateBuckets.Histogram months = DateBuckets.histogram(days, DateBuckets.Unit.MONTH);
+        DateBuckets.Histogram weeks = DateBuckets.histogram(days, DateBuckets.Unit.WEEK);
+        long primitive = System.nanoTime() - start;
+
+        check(perMonth, months);
+        check(perWeek, weeks);
+        DateBuckets.Histogram daily = DateBuckets.histogram(days, DateBuckets.Unit.DAY);
+        if (daily.total() != n || months.total() != n) {
+            throw new AssertionError("total mismatch");
+        }
+        System.out.printf("按月 + 按周统计 %d 个事件：LocalDate %.0f ms，DateBuckets %.0f ms%n", n, objects / 1e6, primitive / 1e6);
+
+        int[] ends = new int[n];
+        for (int i = 0; i < n; i++) {
+            ends[i] = days[i] + random.nextInt(-800, 800);
+        }
+        start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < n; i++) {
+            Period period = Period.between(LocalDate.ofEpochDay(days[i]), LocalDate.ofEpochDay(ends[i]));
+            checksum += period.getYears() * 400L + period.getMonths() * 31L + period.getDays();
+        }
+        long objectPeriods = System.nanoTime() - start;
+        start = System.nanoTime();
+        long[] periods = DateBuckets.periodsBetween(days, ends);
+        long primitiveChecksum = 0;
+        for (long period : periods) {
+            primitiveChecksum += DateBuckets.years(period) * 400L + DateBuckets.months(period) * 31L + DateBuckets.days(period);
+        }
+        long primitivePeriods = System.nanoTime() - start;
+        if (checksum != primitiveChecksum) {
+            throw new AssertionError("period checksum mismatch");
+        }
+        System.out.printf("间隔计算 %d 次：Period.between %.0f ms，DateBuckets %.0f ms%n", n, objectPeriods / 1e6, primitivePeriods / 1e6);
+    }
+
+    /**
+     * 月末、闰年和反向区间的 Period 对比
+     */
+    private static void checkPeriods() {
+        LocalDate from = LocalDate.of(1999, 12, 1);
+        LocalDate to = LocalDate.of(2005, 3, 31);
+        int checked = 0;
+        for (LocalDate a = from; a.isBefore(to); a = a.plusDays(3)) {
+            for (LocalDate b = from; b.isBefore(to); b = b.plusDays(7)) {
+                Period expected = Period.between(a, b);
+                Period actual = DateBuckets.toPeriod(DateBuckets.periodBetween((int) a.toEpochDay(), (int) b.toEpochDay()));
+                if (!expected.equals(actual)) {
+                    throw new AssertionError(a + " -> " + b + ": expected " + expected + " but was " + actual);
+                }
+                checked++;
+            }
+        }
+        System.out.println("Period 结果一致，检查了 " + checked + " 对日期");
+    }
+
+    private static void check(Map<LocalDate, Long> expected, DateBuckets.Histogram histogram) {
+        for (int i = 0; i < histogram.size(); i++) {
+            long count = expected.getOrDefault(histogram.bucketStart(i), 0L);
+            if (count != histogram.count(i)) {
+                throw new AssertionError(histogram.unit() + " " + histogram.bucketStart(i) + ": expected " + count
+                        + " but was " + histogram.count(i));
+            }
+        }
+        if (histogram.total() != expected.values().stream().mapToLong(Long::longValue).sum()) {
+            throw new AssertionError(histogram.unit() + " total mismatch");
+        }
+    }
+}
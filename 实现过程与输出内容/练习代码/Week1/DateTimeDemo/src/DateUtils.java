@@ -1,10 +1,222 @@
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 public class DateUtils {
     private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    /** 缓存今天往前多少天的日期字符串 */
+    static final int CACHED_DAYS = 64;
+    /** "yyyy-MM-dd" 的长度 */
+    public static final int DATE_LENGTH = 10;
     
+    /** 0001-01-01 与 9999-12-31 的纪元日，范围内的日期手工格式化（yyyy 是纪元年，公元前的年份交给 DateTimeFormatter） */
+    private static final long MIN_FAST_EPOCH_DAY = -719162;
+    private static final long MAX_FAST_EPOCH_DAY = 2932896;
+    
+    /** 使用系统时钟时，至多每隔这么久重新读取一次默认时区 */
+    static final long ZONE_CHECK_MILLIS = 1000;
+    
+    /** null 表示系统时钟和当前默认时区 */
+    private static volatile Clock clock;
+    private static volatile DayCache cache;
+    
+    /**
+     * 替换时钟，主要用于测试，传入 null 恢复为系统时钟和当前默认时区；缓存随之失效
+     * 修改默认时区后调用 setClock(null) 可以让新时区立即生效，否则至多 {@value #ZONE_CHECK_MILLIS} 毫秒后生效
+     */
+    public static void setClock(Clock newClock) {
+        clock = newClock;
+        cache = null;
+    }
+    
+    /**
+     * 今天往前 days 天的日期，格式 yyyy-MM-dd
+     * 0 到 {@value #CACHED_DAYS} - 1 天直接返回当天缓存的字符串，不分配对象；过了零点或默认时区改变后缓存自动重建。
+     * 年份超出 0001-9999 时与原来一样交给 DateTimeFormatter
+     */
     public static String getDateBeforeDays(int days) {
-        return LocalDate.now().minusDays(days).format(DEFAULT_FORMATTER);
+        DayCache current = currentCache();
+        if (days >= 0 && days < CACHED_DAYS) {
+            return current.dates[days];
+        }
+        return format(current.epochDay - days);
+    }
+    
+    /**
+     * 把今天往前 days 天的日期追加到 sb，不创建字符串
+     */
+    public static StringBuilder appendDateBeforeDays(int days, StringBuilder sb) {
+        DayCache current = currentCache();
+        if (days >= 0 && days < CACHED_DAYS) {
+            return sb.append(current.dates[days]);
+        }
+        return appendDate(current.epochDay - days, sb);
+    }
+    
+    /**
+     * 把纪元日（1970-01-01 为 0）格式化为 yyyy-MM-dd 写入 buffer[offset, offset + 10)
+     * 年份超出 0000-9999 时抛出 IllegalArgumentException
+     */
+    public static void formatDate(long epochDay, char[] buffer, int offset) {
+        int date = civilDate(epochDay);
+        int y = date / 10000;
+        int month = date / 100 % 100;
+        int day = date % 100;
+        buffer[offset] = (char) ('0' + y / 1000);
+        buffer[offset + 1] = (char) ('0' + y / 100 % 10);
+        buffer[offset + 2] = (char) ('0' + y / 10 % 10);
+        buffer[offset + 3] = (char) ('0' + y % 10);
+        buffer[offset + 4] = '-';
+        buffer[offset + 5] = (char) ('0' + month / 10);
+        buffer[offset + 6] = (char) ('0' + month % 10);
+        buffer[offset + 7] = '-';
+        buffer[offset + 8] = (char) ('0' + day / 10);
+        buffer[offset + 9] = (char) ('0' + day % 10);
+    }
+    
+    /**
+     * 把纪元日格式化后追加到 sb；年份超出 0001-9999 时交给 DateTimeFormatter
+     */
+    public static StringBuilder appendDate(long epochDay, StringBuilder sb) {
+        if (epochDay < MIN_FAST_EPOCH_DAY || epochDay > MAX_FAST_EPOCH_DAY) {
+            DEFAULT_FORMATTER.formatTo(LocalDate.ofEpochDay(epochDay), sb);
+            return sb;
+        }
+        int date = civilDate(epochDay);
+        int y = date / 10000;
+        int month = date / 100 % 100;
+        int day = date % 100;
+        return sb.append((char) ('0' + y / 1000))
+                .append((char) ('0' + y / 100 % 10))
+                .append((char) ('0' + y / 10 % 10))
+                .append((char) ('0' + y % 10))
+                .append('-')
+                .append((char) ('0' + month / 10))
+                .append((char) ('0' + month % 10))
+                .append('-')
+                .append((char) ('0' + day / 10))
+                .append((char) ('0' + day % 10));
+    }
+    
+    private static String format(long epochDay) {
+        if (epochDay < MIN_FAST_EPOCH_DAY || epochDay > MAX_FAST_EPOCH_DAY) {
+            return LocalDate.ofEpochDay(epochDay).format(DEFAULT_FORMATTER);
+        }
+        char[] buffer = new char[DATE_LENGTH];
+        formatDate(epochDay, buffer, 0);
+        return new String(buffer);
+    }
+    
+    /**
+     * 纪元日换算为 yyyyMMdd 形式的整数，参考 Howard Hinnant 的 civil_from_days 算法
+     */
+    static int civilDate(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("year out of range: " + year);
+        }
+        return (int) year * 10000 + month * 100 + day;
+    }
+    
+    /**
+     * 公历日期换算为纪元日，参考 Howard Hinnant 的 days_from_civil 算法
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+    
+    /**
+     * 修改前的实现，保留用于对照
+     */
+    static String getDateBeforeDaysWithFormatter(int days) {
+        Clock currentClock = clock;
+        LocalDate today = currentClock == null ? LocalDate.now() : LocalDate.now(currentClock);
+        return today.minusDays(days).format(DEFAULT_FORMATTER);
+    }
+    
+    /**
+     * 热路径上只比较毫秒数；跨过零点（或时钟回拨到前一天）、换了时钟或默认时区改变才重建缓存
+     * ZoneId.systemDefault() 每次都复制默认的 TimeZone，所以只在缓存过期或距上次检查超过 {@value #ZONE_CHECK_MILLIS} 毫秒时调用
+     */
+    private static DayCache currentCache() {
+        Clock currentClock = clock;
+        DayCache current = cache;
+        if (currentClock != null) {
+            long now = currentClock.millis();
+            if (current == null || current.clock != currentClock || now < current.startMillis || now >= current.endMillis) {
+                current = new DayCache(currentClock, currentClock.getZone(), now);
+                cache = current;
+            }
+            return current;
+        }
+        long now = System.currentTimeMillis();
+        boolean today = current != null && current.clock == null && now >= current.startMillis && now < current.endMillis;
+        if (today && now < current.nextZoneCheck) {
+            return current;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        if (today && current.zone.equals(zone)) {
+            current.nextZoneCheck = now + ZONE_CHECK_MILLIS;
+            return current;
+        }
+        current = new DayCache(null, zone, now);
+        cache = current;
+        return current;
+    }
+    
+    /**
+     * 某一天的缓存：当天的起止时间和往前若干天的日期字符串
+     */
+    private static final class DayCache {
+        final Clock clock;
+        final ZoneId zone;
+        final long epochDay;
+        final long startMillis;
+        final long endMillis;
+        final String[] dates = new String[CACHED_DAYS];
+        /** 系统时钟下下次检查默认时区的时间；多个线程同时改写也只是多检查一次 */
+        long nextZoneCheck;
+        
+        DayCache(Clock clock, ZoneId zone, long now) {
+            this.clock = clock;
+            this.zone = zone;
+            LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+            epochDay = today.toEpochDay();
+            startMillis = today.atStartOfDay(zone).toInstant().toEpochMilli();
+            endMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            nextZoneCheck = now + ZONE_CHECK_MILLIS;
+            for (int i = 0; i < CACHED_DAYS; i++) {
+                dates[i] = format(epochDay - i);
+            }
+        }
     }
 }
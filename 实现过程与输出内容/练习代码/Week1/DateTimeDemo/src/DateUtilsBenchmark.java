@@ -0,0 +1,164 @@
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.TimeZone;
+import java.util.function.IntSupplier;
+
+/**
+ * DateUtils.getDateBeforeDays 新旧实现的一致性检查和耗时对比
+ * 每次调用分配的字节数取自 com.sun.management.ThreadMXBean（不可用时显示 -1）
+ */
+public class DateUtilsBenchmark {
+    private static final int CALLS = 20_000_000;
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws InterruptedException {
+        check();
+        
+        DateUtils.setClock(null);
+        time("LocalDate + formatter", () -> {
+            int sum = 0;
+            for (int i = 0; i < CALLS; i++) {
+                sum += DateUtils.getDateBeforeDaysWithFormatter(i & 31).length();
+            }
+            return sum;
+        });
+        time("cached string", () -> {
+            int sum = 0;
+            for (int i = 0; i < CALLS; i++) {
+                sum += DateUtils.getDateBeforeDays(i & 31).length();
+            }
+            return sum;
+        });
+        StringBuilder sb = new StringBuilder(64);
+        time("append to builder", () -> {
+            int sum = 0;
+            for (int i = 0; i < CALLS; i++) {
+                sb.setLength(0);
+                sum += DateUtils.appendDateBeforeDays(i & 1023, sb).length();
+            }
+            return sum;
+        });
+    }
+    
+    /**
+     * 跨零点、跨年、跨夏令时、超出缓存窗口的天数以及超出 0001-9999 的年份都与 DateTimeFormatter 结果一致，
+     * 默认时区改变后调用 setClock(null) 立即生效，不调用时至多 {@link DateUtils#ZONE_CHECK_MILLIS} 毫秒后生效
+     */
+    private static void check() throws InterruptedException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        String[] zones = {"Asia/Shanghai", "America/New_York", "Europe/London", "Australia/Lord_Howe"};
+        String[] instants = {"2024-12-31T23:59:59.999Z", "2025-03-09T06:59:59Z", "2025-03-30T00:30:00Z", "2000-02-29T12:00:00Z"};
+        StringBuilder sb = new StringBuilder();
+        for (String zone : zones) {
+            for (String instant : instants) {
+                Clock fixed = Clock.fixed(Instant.parse(instant), ZoneId.of(zone));
+                DateUtils.setClock(fixed);
+                LocalDate today = LocalDate.now(fixed);
+                for (int days = -5; days < 1000; days++) {
+                    String expected = today.minusDays(days).format(formatter);
+                    sb.setLength(0);
+                    if (!expected.equals(DateUtils.getDateBeforeDays(days))
+                            || !expected.equals(DateUtils.appendDateBeforeDays(days, sb).toString())) {
+                        throw new AssertionError(zone + " " + instant + " days=" + days);
+                    }
+                }
+            }
+        }
+        // 时钟走过零点后缓存失效
+        MutableClock clock = new MutableClock(Instant.parse("2025-10-25T15:59:59Z"), ZoneId.of("Asia/Shanghai"));
+        DateUtils.setClock(clock);
+        String before = DateUtils.getDateBeforeDays(0);
+        clock.instant = Instant.parse("2025-10-25T16:00:00Z");
+        String after = DateUtils.getDateBeforeDays(0);
+        if (!"2025-10-25".equals(before) || !"2025-10-26".equals(after)) {
+            throw new AssertionError(before + " " + after);
+        }
+        // 超出 0001-9999 的年份与 DateTimeFormatter 的格式相同
+        for (String instant : new String[] {"9999-12-31T12:00:00Z", "0000-01-01T12:00:00Z"}) {
+            Clock fixed = Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+            DateUtils.setClock(fixed);
+            for (int days = -400; days <= 400; days += 7) {
+                String expected = LocalDate.now(fixed).minusDays(days).format(formatter);
+                sb.setLength(0);
+                if (!expected.equals(DateUtils.getDateBeforeDays(days))
+                        || !expected.equals(DateUtils.appendDateBeforeDays(days, sb).toString())) {
+                    throw new AssertionError(instant + " days=" + days + " " + expected);
+                }
+            }
+        }
+        // 使用系统时钟时修改默认时区（+14 与 -11 两个时区的日期总是不同）
+        DateUtils.setClock(null);
+        TimeZone original = TimeZone.getDefault();
+        try {
+            for (String zone : new String[] {"Pacific/Kiritimati", "Pacific/Pago_Pago", "Pacific/Kiritimati"}) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zone));
+                DateUtils.setClock(null);
+                String expected = LocalDate.now().format(formatter);
+                if (!expected.equals(DateUtils.getDateBeforeDays(0))) {
+                    throw new AssertionError(zone + " " + DateUtils.getDateBeforeDays(0) + " vs " + expected);
+                }
+            }
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Pago_Pago"));
+            Thread.sleep(DateUtils.ZONE_CHECK_MILLIS + 50);
+            String expected = LocalDate.now().format(formatter);
+            if (!expected.equals(DateUtils.getDateBeforeDays(0))) {
+                throw new AssertionError("zone change not picked up: " + DateUtils.getDateBeforeDays(0) + " vs " + expected);
+            }
+        } finally {
+            TimeZone.setDefault(original);
+        }
+        System.out.println("结果与 DateTimeFormatter 一致");
+    }
+    
+    private static void time(String name, IntSupplier body) {
+        long best = Long.MAX_VALUE;
+        long bytes = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            body.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = Math.min(bytes, allocatedBytes() - allocated);
+        }
+        System.out.printf("%-22s %6.1f ns/次 %8.1f B/次%n", name, (double) best / CALLS,
+                allocatedBytes() < 0 ? -1.0 : (double) bytes / CALLS);
+    }
+    
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+    
+    private static class MutableClock extends Clock {
+        private volatile Instant instant;
+        private final ZoneId zone;
+        
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
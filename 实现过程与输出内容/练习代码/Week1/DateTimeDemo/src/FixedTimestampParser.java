@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 定长时间戳解析器，例如 "yyyy/MM/dd HH:mm:ss"
+ * 构造时根据模式算出每个字段的位置，解析时直接从 byte[] / ByteBuffer 读 ASCII 数字，
+ * 逐位校验并换算为纪元秒，不创建任何中间对象。格式或取值非法时返回 {@link #INVALID}
+ * 年份按前推公历解释，相当于 DateTimeFormatter 的 uuuu
+ */
+public class FixedTimestampParser {
+    /** 解析失败的返回值 */
+    public static final long INVALID = Long.MIN_VALUE;
+    /** 批量解析时每次映射的最大字节数 */
+    private static final long MAP_WINDOW = 256L << 20;
+    
+    private final byte[] literals;
+    /** 为 true 的位置是分隔符，其余位置必须是数字 */
+    private final boolean[] isLiteral;
+    private final int yearAt;
+    private final int monthAt;
+    private final int dayAt;
+    private final int hourAt;
+    private final int minuteAt;
+    private final int secondAt;
+    private final int length;
+    private final long offsetSeconds;
+    
+    public FixedTimestampParser(String pattern) {
+        this(pattern, ZoneOffset.UTC);
+    }
+    
+    /**
+     * @param pattern 只能包含 yyyy、MM、dd、HH、mm、ss（各出现一次）和 ASCII 分隔符
+     * @param offset  时间戳所在的时区偏移，用于换算纪元秒
+     */
+    public FixedTimestampParser(String pattern, ZoneOffset offset) {
+        length = pattern.length();
+        literals = new byte[length];
+        isLiteral = new boolean[length];
+        yearAt = fieldAt(pattern, "yyyy");
+        monthAt = fieldAt(pattern, "MM");
+        dayAt = fieldAt(pattern, "dd");
+        hourAt = fieldAt(pattern, "HH");
+        minuteAt = fieldAt(pattern, "mm");
+        secondAt = fieldAt(pattern, "ss");
+        boolean[] digit = new boolean[length];
+        mark(digit, yearAt, 4);
+        mark(digit, monthAt, 2);
+        mark(digit, dayAt, 2);
+        mark(digit, hourAt, 2);
+        mark(digit, minuteAt, 2);
+        mark(digit, secondAt, 2);
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (!digit[i]) {
+                if (c > 0x7F || Character.isLetter(c)) {
+                    throw new IllegalArgumentException("unsupported pattern character '" + c + "' in " + pattern);
+                }
+                isLiteral[i] = true;
+                literals[i] = (byte) c;
+            }
+        }
+        this.offsetSeconds = offset.getTotalSeconds();
+    }
+    
+    /**
+     * 模式的字节长度
+     */
+    public int length() {
+        return length;
+    }
+    
+    /**
+     * 解析 bytes[offset, offset + length())，返回纪元秒
+     */
+    public long parse(byte[] bytes, int offset) {
+        if (offset < 0 || offset + length > bytes.length) {
+            return INVALID;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[offset + i];
+            if (isLiteral[i] ? b != literals[i] : (b < '0' || b > '9')) {
+                return INVALID;
+            }
+        }
+        return toEpochSecond(
+                digits4(bytes[offset + yearAt], bytes[offset + yearAt + 1], bytes[offset + yearAt + 2], bytes[offset + yearAt + 3]),
+                digits2(bytes[offset + monthAt], bytes[offset + monthAt + 1]),
+                digits2(bytes[offset + dayAt], bytes[offset + dayAt + 1]),
+                digits2(bytes[offset + hourAt], bytes[offset + hourAt + 1]),
+                digits2(bytes[offset + minuteAt], bytes[offset + minuteAt + 1]),
+                digits2(bytes[offset + secondAt], bytes[offset + secondAt + 1]));
+    }
+    
+    /**
+     * 解析 buffer 中从绝对位置 index 开始的时间戳，不改变 buffer 的 position
+     */
+    public long parse(ByteBuffer buffer, int index) {
+        if (index < 0 || index + length > buffer.limit()) {
+            return INVALID;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(index + i);
+            if (isLiteral[i] ? b != literals[i] : (b < '0' || b > '9')) {
+                return INVALID;
+            }
+        }
+        return toEpochSecond(
+                digits4(buffer.get(index + yearAt), buffer.get(index + yearAt + 1),
+                        buffer.get(index + yearAt + 2), buffer.get(index + yearAt + 3)),
+                digits2(buffer.get(index + monthAt), buffer.get(index + monthAt + 1)),
+                digits2(buffer.get(index + dayAt), buffer.get(index + dayAt + 1)),
+                digits2(buffer.get(index + hourAt), buffer.get(index + hourAt + 1)),
+                digits2(buffer.get(index + minuteAt), buffer.get(index + minuteAt + 1)),
+                digits2(buffer.get(index + secondAt), buffer.get(index + secondAt + 1)));
+    }
+    
+    /**
+     * 批量解析文件中每一行的时间戳列：时间戳位于行首之后 column 个字节处
+     * 返回每行一个纪元秒，无法解析的行为 {@link #INVALID}；文件按窗口内存映射，不需要整体读入
+     */
+    public long[] parseColumn(Path file, int column) throws IOException {
+        long[] result = new long[1024];
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long windowSize = Math.min(MAP_WINDOW, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                boolean last = position + windowSize == size;
+                int limit = (int) windowSize;
+                int lineStart = 0;
+                while (lineStart < limit) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < limit && window.get(lineEnd) != '\n') {
+                        lineEnd++;
+                    }
+                    if (lineEnd == limit && !last) {
+                        // 行跨越了窗口，从行首重新映射
+                        break;
+                    }
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    int start = lineStart + column;
+                    result[count++] = start + length <= lineEnd ? parse(window, start) : INVALID;
+                    lineStart = lineEnd + 1;
+                }
+                if (lineStart == 0 && !last) {
+                    throw new IOException("line longer than " + MAP_WINDOW + " bytes at offset " + position);
+                }
+                position += Math.min(lineStart, limit);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    /**
+     * 校验各字段的取值范围（包括闰年的 2 月 29 日）并换算为纪元秒
+     * 与 ResolverStyle.STRICT 一致：2 月 30 日之类的日期判为非法，而不是像默认的 SMART 那样调整到月末
+     */
+    private long toEpochSecond(int year, int month, int day, int hour, int minute, int second) {
+        if (month < 1 || month > 12 || day < 1 || day > DateUtils.daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        return DateUtils.epochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+    }
+    
+    private static int digits2(byte tens, byte ones) {
+        return (tens - '0') * 10 + (ones - '0');
+    }
+    
+    private static int digits4(byte a, byte b, byte c, byte d) {
+        return (a - '0') * 1000 + (b - '0') * 100 + (c - '0') * 10 + (d - '0');
+    }
+    
+    private static int fieldAt(String pattern, String field) {
+        int at = pattern.indexOf(field);
+        if (at < 0 || pattern.indexOf(field, at + 1) >= 0) {
+            throw new IllegalArgumentException("pattern must contain " + field + " exactly once: " + pattern);
+        }
+        return at;
+    }
+    
+    private static void mark(boolean[] digit, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            if (digit[i]) {
+                throw new IllegalArgumentException("overlapping fields at " + i);
+            }
+            digit[i] = true;
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjuster;
@@ -12,6 +13,7 @@ public class Main {
         compareDateTime();
         formatDateTime();
         periodAndDurationCalc();
+        convert();
     }
     
     /**
@@ -71,6 +73,10 @@ public class Main {
         DateTimeFormatter parser = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
         LocalDateTime localDateTime = LocalDateTime.parse(dateStr,parser);
         System.out.println("date time:" + localDateTime);
+        //定长格式直接从字节解析为纪元秒，不创建中间对象
+        FixedTimestampParser fastParser = new FixedTimestampParser("yyyy/MM/dd HH:mm:ss");
+        long epochSecond = fastParser.parse(dateStr.getBytes(StandardCharsets.US_ASCII), 0);
+        System.out.println("epoch second:" + epochSecond + " -> " + LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
     }
     
     /**
@@ -88,7 +94,12 @@ public class Main {
         LocalTime endTime = LocalTime.of(12, 30);
         Duration duration = Duration.between(startTime, endTime);
         System.out.println(duration.toMinutes() + "分钟"); // 输出：150分钟
-    
+        
+        //大批量日期直接用纪元日计算，不逐个创建 LocalDate
+        long period2 = DateBuckets.periodBetween((int) startDate.toEpochDay(), (int) endDate.toEpochDay());
+        System.out.println(DateBuckets.months(period2) + "个月" + DateBuckets.days(period2) + "天");
+        int[] days = {(int) startDate.toEpochDay(), (int) startDate.plusDays(40).toEpochDay(), (int) endDate.toEpochDay()};
+        System.out.println(DateBuckets.histogram(days, DateBuckets.Unit.MONTH));
     }
     /**
      * 新旧日期时间API相互转换
@@ -101,7 +112,11 @@ public class Main {
     // LocalDateTime 转 Date
         LocalDateTime localDateTime = LocalDateTime.now();
         Date date = Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
-    
+        
+        // 大量转换时使用缓存了偏移切换点的转换器，结果与上面相同
+        ZoneOffsetConverter converter = ZoneOffsetConverter.systemDefault();
+        System.out.println(newDateTime.equals(converter.toLocalDateTime(oldDate)));
+        System.out.println(date.equals(converter.toDate(localDateTime)));
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.SplittableRandom;
+
+/**
+ * FixedTimestampParser 与 LocalDateTime.parse 的一致性检查和吞吐对比，以及按列批量解析日志文件
+ * 用法：TimestampParserBenchmark [日志行数，默认 5000000]
+ */
+public class TimestampParserBenchmark {
+    private static final String PATTERN = "yyyy/MM/dd HH:mm:ss";
+    private static final int ROUNDS = 3;
+    
+    public static void main(String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(PATTERN);
+        FixedTimestampParser parser = new FixedTimestampParser(PATTERN);
+        check(DateTimeFormatter.ofPattern("uuuu/MM/dd HH:mm:ss").withResolverStyle(ResolverStyle.STRICT), parser);
+        
+        SplittableRandom random = new SplittableRandom(11);
+        String[] samples = new String[lines];
+        byte[] bytes = new byte[lines * parser.length()];
+        for (int i = 0; i < lines; i++) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(random.nextLong(0, 4_000_000_000L), 0, ZoneOffset.UTC);
+            samples[i] = time.format(formatter);
+            byte[] sample = samples[i].getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(sample, 0, bytes, i * parser.length(), sample.length);
+        }
+        
+        long best = Long.MAX_VALUE;
+        long sum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sum = 0;
+            for (String sample : samples) {
+                sum += LocalDateTime.parse(sample, formatter).toEpochSecond(ZoneOffset.UTC);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report("LocalDateTime.parse", lines, best, sum);
+        best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < lines; i++) {
+                sum += parser.parse(bytes, i * parser.length());
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report("FixedTimestampParser", lines, best, sum);
+        
+        // 模拟日志文件：时间戳在行首，后面是日志内容
+        Path log = Files.createTempFile("timestamps-", ".log");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.US_ASCII)) {
+                for (int i = 0; i < lines; i++) {
+                    writer.write(samples[i]);
+                    writer.write(" INFO request handled id=");
+                    writer.write(Integer.toString(i));
+                    writer.newLine();
+                }
+            }
+            long start = System.nanoTime();
+            long[] column = parser.parseColumn(log, 0);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("parseColumn          %d 行，%.1f ms，%.1f MB/s%n", column.length, elapsed / 1e6,
+                    Files.size(log) / 1048576.0 / (elapsed / 1e9));
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+    
+    /**
+     * 合法与非法输入的结果都要与严格模式的 LocalDateTime.parse 一致
+     */
+    private static void check(DateTimeFormatter formatter, FixedTimestampParser parser) {
+        String[] inputs = {"2025/10/10 10:10:10", "2024/02/29 23:59:59", "2023/02/29 00:00:00", "1970/01/01 00:00:00",
+                "1969/12/31 23:59:59", "2025/13/01 00:00:00", "2025/04/31 00:00:00", "2025/10/10 24:00:00",
+                "2025/10/10 10:60:10", "2025-10-10 10:10:10", "2025/1a/10 10:10:10", "0000/01/01 00:00:00",
+                "9999/12/31 23:59:59", "2025/00/10 10:10:10"};
+        for (String input : inputs) {
+            long expected;
+            try {
+                expected = LocalDateTime.parse(input, formatter).toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                expected = FixedTimestampParser.INVALID;
+            }
+            long actual = parser.parse(input.getBytes(StandardCharsets.US_ASCII), 0);
+            if (expected != actual) {
+                throw new AssertionError(input + ": expected " + expected + " but was " + actual);
+            }
+        }
+        System.out.println("结果与严格模式的 LocalDateTime.parse 一致");
+    }
+    
+    private static void report(String name, int lines, long nanos, long checksum) {
+        System.out.printf("%-20s %6.1f ns/个  校验和：%d%n", name, (double) nanos / lines, checksum);
+    }
+}
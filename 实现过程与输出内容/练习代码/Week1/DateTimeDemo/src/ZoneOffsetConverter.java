@@ -0,0 +1,172 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存时区偏移的 Date（纪元毫秒）与 LocalDateTime 互转
+ * 构造时把 {@value #FIRST_YEAR} 到 {@value #LAST_YEAR} 年之间的偏移切换点展开成数组，
+ * 转换时用上次命中的区间或二分查找得到偏移量，不再每次查询 ZoneRules、创建 ZonedDateTime。
+ * 本地时间落在夏令时切换造成的空隙或重叠中，或超出缓存的年份范围时，退回 atZone() 的慢路径，
+ * 结果与 atZone(zone) 完全一致
+ */
+public class ZoneOffsetConverter {
+    static final int FIRST_YEAR = 1900;
+    static final int LAST_YEAR = 2100;
+    private static final ConcurrentHashMap<ZoneId, ZoneOffsetConverter> CONVERTERS = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    /** 缓存覆盖的纪元秒范围 [minSecond, maxSecond) */
+    private final long minSecond;
+    private final long maxSecond;
+    /** 偏移切换的纪元秒，升序 */
+    private final long[] transitions;
+    /** offsets[i] 是第 i 个切换点之前的偏移秒数，最后一个元素是最后一个切换点之后的偏移 */
+    private final int[] offsets;
+    /** 第 i 个切换点附近有歧义的本地秒范围 [localStart[i], localEnd[i])：空隙或重叠 */
+    private final long[] localStart;
+    private final long[] localEnd;
+    /** 上次命中的区间，多线程下读到旧值只会多一次二分查找 */
+    private int hint;
+
+    private ZoneOffsetConverter(ZoneId zone) {
+        this.zone = zone;
+        ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            minSecond = Long.MIN_VALUE;
+            maxSecond = Long.MAX_VALUE;
+            transitions = new long[0];
+            offsets = new int[]{rules.getOffset(Instant.EPOCH).getTotalSeconds()};
+            localStart = new long[0];
+            localEnd = new long[0];
+            return;
+        }
+        minSecond = LocalDateTime.of(FIRST_YEAR, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        maxSecond = LocalDateTime.of(LAST_YEAR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long[] seconds = new long[64];
+        int[] before = new int[64];
+        int count = 0;
+        Instant cursor = Instant.ofEpochSecond(minSecond);
+        int first = rules.getOffset(cursor).getTotalSeconds();
+        ZoneOffsetTransition transition;
+        while ((transition = rules.nextTransition(cursor)) != null && transition.toEpochSecond() < maxSecond) {
+            if (count == seconds.length) {
+                seconds = Arrays.copyOf(seconds, count * 2);
+                before = Arrays.copyOf(before, count * 2);
+            }
+            seconds[count] = transition.toEpochSecond();
+            before[count] = transition.getOffsetBefore().getTotalSeconds();
+            count++;
+            cursor = transition.getInstant();
+        }
+        transitions = Arrays.copyOf(seconds, count);
+        offsets = new int[count + 1];
+        localStart = new long[count];
+        localEnd = new long[count];
+        offsets[0] = count > 0 ? before[0] : first;
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = rules.getOffset(Instant.ofEpochSecond(transitions[i])).getTotalSeconds();
+            localStart[i] = transitions[i] + Math.min(offsets[i], offsets[i + 1]);
+            localEnd[i] = transitions[i] + Math.max(offsets[i], offsets[i + 1]);
+        }
+    }
+
+    /**
+     * 指定时区的转换器，同一时区共用一个实例
+     */
+    public static ZoneOffsetConverter of(ZoneId zone) {
+        return CONVERTERS.computeIfAbsent(zone, ZoneOffsetConverter::new);
+    }
+
+    /**
+     * 当前默认时区的转换器；默认时区修改后再次调用即可得到新时区的实例
+     */
+    public static ZoneOffsetConverter systemDefault() {
+        return of(ZoneId.systemDefault());
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * 纪元毫秒对应的本地时间，等价于 Instant.ofEpochMilli(epochMilli).atZone(zone).toLocalDateTime()
+     */
+    public LocalDateTime toLocalDateTime(long epochMilli) {
+        long second = Math.floorDiv(epochMilli, 1000);
+        int nanos = Math.floorMod(epochMilli, 1000) * 1_000_000;
+        if (second < minSecond || second >= maxSecond) {
+            return Instant.ofEpochMilli(epochMilli).atZone(zone).toLocalDateTime();
+        }
+        return LocalDateTime.ofEpochSecond(second + offsets[segmentOf(second)], nanos, ZoneOffset.UTC);
+    }
+
+    public LocalDateTime toLocalDateTime(Date date) {
+        return toLocalDateTime(date.getTime());
+    }
+
+    /**
+     * 纪元毫秒换算为“本地毫秒”（本地时间按 UTC 解释的纪元毫秒），不创建任何对象
+     */
+    public long toLocalMillis(long epochMilli) {
+        long second = Math.floorDiv(epochMilli, 1000);
+        if (second < minSecond || second >= maxSecond) {
+            return epochMilli + zone.getRules().getOffset(Instant.ofEpochMilli(epochMilli)).getTotalSeconds() * 1000L;
+        }
+        return epochMilli + offsets[segmentOf(second)] * 1000L;
+    }
+
+    /**
+     * 本地时间对应的纪元毫秒，等价于 localDateTime.atZone(zone).toInstant().toEpochMilli()
+     * 空隙中的时间顺延一个空隙长度，重叠中的时间取切换前的偏移
+     */
+    public long toEpochMilli(LocalDateTime localDateTime) {
+        long local = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        int offset = localOffset(local);
+        if (offset == Integer.MIN_VALUE) {
+            return localDateTime.atZone(zone).toInstant().toEpochMilli();
+        }
+        return (local - offset) * 1000 + localDateTime.getNano() / 1_000_000;
+    }
+
+    public Date toDate(LocalDateTime localDateTime) {
+        return new Date(toEpochMilli(localDateTime));
+    }
+
+    /**
+     * 本地秒唯一对应的偏移；落在空隙、重叠或缓存范围之外时返回 Integer.MIN_VALUE
+     */
+    private int localOffset(long local) {
+        // 本地秒与纪元秒最多相差 18 小时，留出余量
+        if (local < minSecond + 86400 || local >= maxSecond - 86400) {
+            return transitions.length == 0 ? offsets[0] : Integer.MIN_VALUE;
+        }
+        // 第一个 localEnd > local 的切换点
+        int i = Arrays.binarySearch(localEnd, local);
+        i = i >= 0 ? i + 1 : -i - 1;
+        if (i < localStart.length && local >= localStart[i]) {
+            return Integer.MIN_VALUE;
+        }
+        return offsets[i];
+    }
+
+    /**
+     * 纪元秒所在的区间下标 i：transitions[i - 1] <= second < transitions[i]
+     */
+    private int segmentOf(long second) {
+        long[] t = transitions;
+        int i = hint;
+        if ((i == 0 || t[i - 1] <= second) && (i == t.length || second < t[i])) {
+            return i;
+        }
+        i = Arrays.binarySearch(t, second);
+        i = i >= 0 ? i + 1 : -i - 1;
+        hint = i;
+        return i;
+    }
+}
@@ -0,0 +1,128 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * ZoneOffsetConverter 与 atZone() 的一致性检查（覆盖各时区的全部夏令时切换点）和吞吐对比
+ * 用法：ZoneOffsetConverterBenchmark [转换次数，默认 10000000]
+ */
+public class ZoneOffsetConverterBenchmark {
+    private static final String[] ZONES = {"America/New_York", "Europe/London", "Asia/Shanghai",
+            "Australia/Lord_Howe", "Pacific/Apia", "Europe/Moscow", "America/Sao_Paulo", "UTC", "+05:30"};
+    /** 切换点前后检查的偏移（秒） */
+    private static final long[] PROBES = {-7201, -3601, -3600, -1801, -1, 0, 1, 1799, 1800, 3599, 3600, 7200};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        long checked = 0;
+        for (String id : ZONES) {
+            checked += check(ZoneId.of(id));
+        }
+        checked += check(ZoneId.systemDefault());
+        System.out.println("与 atZone() 一致，检查了 " + checked + " 个时间点");
+
+        ZoneId zone = ZoneId.of("America/New_York");
+        ZoneOffsetConverter converter = ZoneOffsetConverter.of(zone);
+        SplittableRandom random = new SplittableRandom(13);
+        long[] millis = new long[n];
+        LocalDateTime[] locals = new LocalDateTime[n];
+        // 模拟日志：时间大致有序，集中在最近几年
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            millis[i] = now - 3L * 365 * 86400_000 + (long) i * 3 * 365 * 86400_000 / n + random.nextInt(60_000);
+            locals[i] = Instant.ofEpochMilli(millis[i]).atZone(zone).toLocalDateTime();
+        }
+        time("Date -> LocalDateTime  atZone", n, () -> {
+            long sum = 0;
+            for (long m : millis) {
+                sum += new Date(m).toInstant().atZone(zone).toLocalDateTime().getMinute();
+            }
+            return sum;
+        });
+        time("Date -> LocalDateTime  缓存偏移", n, () -> {
+            long sum = 0;
+            for (long m : millis) {
+                sum += converter.toLocalDateTime(new Date(m)).getMinute();
+            }
+            return sum;
+        });
+        time("LocalDateTime -> Date  atZone", n, () -> {
+            long sum = 0;
+            for (LocalDateTime local : locals) {
+                sum += Date.from(local.atZone(zone).toInstant()).getTime();
+            }
+            return sum;
+        });
+        time("LocalDateTime -> Date  缓存偏移", n, () -> {
+            long sum = 0;
+            for (LocalDateTime local : locals) {
+                sum += converter.toDate(local).getTime();
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * 在每个切换点附近检查双向转换，包括空隙和重叠中的本地时间，再随机抽查
+     */
+    private static long check(ZoneId zone) {
+        ZoneOffsetConverter converter = ZoneOffsetConverter.of(zone);
+        long count = 0;
+        Instant cursor = LocalDateTime.of(ZoneOffsetConverter.FIRST_YEAR - 1, 6, 1, 0, 0).toInstant(ZoneOffset.UTC);
+        Instant end = LocalDateTime.of(ZoneOffsetConverter.LAST_YEAR + 2, 1, 1, 0, 0).toInstant(ZoneOffset.UTC);
+        ZoneOffsetTransition transition;
+        while ((transition = zone.getRules().nextTransition(cursor)) != null && transition.getInstant().isBefore(end)) {
+            long second = transition.toEpochSecond();
+            LocalDateTime before = transition.getDateTimeBefore();
+            for (long probe : PROBES) {
+                count += checkInstant(zone, converter, (second + probe) * 1000 + 999);
+                count += checkInstant(zone, converter, (second + probe) * 1000);
+                count += checkLocal(zone, converter, before.plusSeconds(probe).plusNanos(123_000_000));
+            }
+            cursor = transition.getInstant();
+        }
+        SplittableRandom random = new SplittableRandom(zone.getId().hashCode());
+        for (int i = 0; i < 100_000; i++) {
+            long m = random.nextLong(-5_000_000_000_000L, 5_000_000_000_000L);
+            count += checkInstant(zone, converter, m);
+            count += checkLocal(zone, converter, LocalDateTime.ofEpochSecond(Math.floorDiv(m, 1000), 0, ZoneOffset.UTC));
+        }
+        return count;
+    }
+
+    private static int checkInstant(ZoneId zone, ZoneOffsetConverter converter, long millis) {
+        LocalDateTime expected = Instant.ofEpochMilli(millis).atZone(zone).toLocalDateTime();
+        if (!expected.equals(converter.toLocalDateTime(millis))
+                || converter.toLocalMillis(millis) != expected.toInstant(ZoneOffset.UTC).toEpochMilli()) {
+            throw new AssertionError(zone + " " + millis + ": expected " + expected
+                    + " but was " + converter.toLocalDateTime(millis));
+        }
+        return 1;
+    }
+
+    private static int checkLocal(ZoneId zone, ZoneOffsetConverter converter, LocalDateTime local) {
+        long expected = local.atZone(zone).toInstant().toEpochMilli();
+        if (expected != converter.toEpochMilli(local)) {
+            throw new AssertionError(zone + " " + local + ": expected " + expected
+                    + " but was " + converter.toEpochMilli(local));
+        }
+        return 1;
+    }
+
+    private static void time(String name, int n, LongSupplier body) {
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum = body.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-30s %6.1f ns/次  校验和：%d%n", name, (double) best / n, checksum);
+    }
+}
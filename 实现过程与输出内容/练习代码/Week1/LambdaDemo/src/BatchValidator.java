@@ -0,0 +1,133 @@
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量验证，结果是通过掩码：第 i 个元素通过时 mask[i >>> 6] 的第 (i & 63) 位为 1
+ * 大批量时按 64 的整数倍切块交给 ForkJoin 线程池，每块写自己的 long，互不干扰。
+ * 对 {@link CompiledValidator} 按规则逐列执行：第一条规则跑完整块，下一条只跑仍然存活的元素，
+ * 既保留了每个元素的短路，内层循环里又只有一条规则
+ */
+public class BatchValidator {
+    /** 少于该数量时不并行 */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    /** 并行时每块的最小元素数，是 64 的整数倍 */
+    private static final int MIN_CHUNK = 4096;
+    
+    private BatchValidator() {
+    }
+    
+    /**
+     * 单线程验证
+     */
+    public static <T> long[] validate(Validator<T> validator, T[] values) {
+        long[] mask = new long[words(values.length)];
+        evaluate(validator, values, 0, values.length, mask);
+        return mask;
+    }
+    
+    /**
+     * 在公共线程池中并行验证，数量较少时直接单线程执行
+     */
+    public static <T> long[] validateParallel(Validator<T> validator, T[] values) {
+        return validateParallel(validator, values, ForkJoinPool.commonPool());
+    }
+    
+    public static <T> long[] validateParallel(Validator<T> validator, T[] values, ForkJoinPool pool) {
+        long[] mask = new long[words(values.length)];
+        if (values.length < PARALLEL_THRESHOLD) {
+            evaluate(validator, values, 0, values.length, mask);
+            return mask;
+        }
+        int chunk = Math.max(MIN_CHUNK, values.length / (pool.getParallelism() * 8)) & ~63;
+        pool.invoke(new ValidateTask<>(validator, values, 0, values.length, chunk, mask));
+        return mask;
+    }
+    
+    /**
+     * 验证列表，返回通过的下标集合
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BitSet validateAll(Validator<T> validator, List<? extends T> values) {
+        T[] array = (T[]) values.toArray();
+        return BitSet.valueOf(validateParallel(validator, array));
+    }
+    
+    /**
+     * 未通过验证的下标，升序
+     */
+    public static int[] failingRows(long[] mask, int size) {
+        int failures = size;
+        for (long word : mask) {
+            failures -= Long.bitCount(word);
+        }
+        int[] rows = new int[failures];
+        int count = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long failed = ~mask[w];
+            if (w == mask.length - 1 && (size & 63) != 0) {
+                failed &= (1L << (size & 63)) - 1;
+            }
+            while (failed != 0) {
+                rows[count++] = (w << 6) + Long.numberOfTrailingZeros(failed);
+                failed &= failed - 1;
+            }
+        }
+        return rows;
+    }
+    
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+    
+    /**
+     * 验证 values[from, to)，把结果写入 mask 对应的位；调用前这些位必须为 0
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void evaluate(Validator<T> validator, Object[] values, int from, int to, long[] mask) {
+        if (validator instanceof CompiledValidator) {
+            ((CompiledValidator<T>) validator).validateRange(values, from, to, mask);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (validator.validate((T) values[i])) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    private static class ValidateTask<T> extends RecursiveAction {
+        private final Validator<T> validator;
+        private final Object[] values;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final long[] mask;
+        
+        ValidateTask(Validator<T> validator, Object[] values, int from, int to, int chunk, long[] mask) {
+            this.validator = validator;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.mask = mask;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                evaluate(validator, values, from, to, mask);
+                return;
+            }
+            // 切分点对齐到 64，两半不会写同一个 long
+            int mid = (from + (to - from) / 2) & ~63;
+            if (mid <= from) {
+                mid = from + chunk;
+            }
+            invokeAll(new ValidateTask<>(validator, values, from, mid, chunk, mask),
+                    new ValidateTask<>(validator, values, mid, to, chunk, mask));
+        }
+    }
+}
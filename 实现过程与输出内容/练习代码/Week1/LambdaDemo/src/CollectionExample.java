@@ -11,5 +11,14 @@ public class CollectionExample {
                 .map(String::toUpperCase)
                 .sorted()
                 .forEach(System.out::println);
+        
+        // 只要前 K 个时，Pipeline 用大小为 K 的堆代替全量排序，filter 和 map 合并成一步
+        Pipeline<String> top2 = Pipeline.from(names)
+                .filter(name -> name.length() > 3)
+                .map(String::toUpperCase)
+                .sorted()
+                .limit(2);
+        System.out.println(top2.explain());
+        top2.forEach(System.out::println);
     }
 }
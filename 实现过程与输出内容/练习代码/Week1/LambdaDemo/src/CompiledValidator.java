@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 把 and / or 组合树编译成扁平数组，在一个循环里依次验证，避免层层嵌套的 lambda 调用
+ * 开启自适应后，每次调用以 1 / {@value #SAMPLE_INTERVAL} 的概率抽样（各线程用自己的随机数，不争用共享计数），记录每条规则的通过率和耗时，
+ * 每积累 {@value #REORDER_SAMPLES} 个样本重新排序：AND 把便宜、拒绝率高的规则放前面，OR 把便宜、通过率高的放前面。
+ * 重排要求规则没有副作用；{@link Validator#guard} 标记的前置条件是分隔点，规则不会被移到它前面
+ */
+public class CompiledValidator<T> implements Validator<T> {
+    static final int SAMPLE_INTERVAL = 64;
+    static final int REORDER_SAMPLES = 1024;
+    /** 计算得分时拒绝率（通过率）的下限，避免除以 0 */
+    private static final double MIN_RATE = 1e-3;
+
+    private final CompositeValidator.Kind kind;
+    private final boolean adaptive;
+    private volatile Plan<T> plan;
+    /** 样本数只用于决定何时重排，只在抽样时更新，多线程下不加锁，丢失计数无妨 */
+    private int samples;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CompiledValidator(CompositeValidator.Kind kind, List<Rule<T>> rules, boolean adaptive) {
+        this.kind = kind;
+        this.adaptive = adaptive;
+        this.plan = new Plan<>(rules.toArray(new Rule[0]));
+    }
+
+    public static <T> CompiledValidator<T> compile(Validator<T> validator) {
+        return compile(validator, false);
+    }
+
+    /**
+     * @param adaptive 是否根据运行时统计调整规则顺序
+     */
+    public static <T> CompiledValidator<T> compile(Validator<T> validator, boolean adaptive) {
+        CompositeValidator.Kind kind = CompositeValidator.Kind.AND;
+        List<Validator<T>> children;
+        if (validator instanceof CompositeValidator) {
+            CompositeValidator<T> composite = (CompositeValidator<T>) validator;
+            kind = composite.kind();
+            children = composite.rules();
+        } else {
+            children = List.of(validator);
+        }
+        List<Rule<T>> rules = new ArrayList<>();
+        for (Validator<T> child : children) {
+            boolean guard = child instanceof CompositeValidator.Guard;
+            Validator<T> inner = guard ? ((CompositeValidator.Guard<T>) child).delegate() : child;
+            if (inner instanceof CompositeValidator) {
+                inner = compile(inner, adaptive);
+            }
+            rules.add(new Rule<>(rules.size(), inner, guard));
+        }
+        return new CompiledValidator<>(kind, rules, adaptive);
+    }
+
+    @Override
+    public boolean validate(T value) {
+        Plan<T> current = plan;
+        if (adaptive && (ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0) {
+            return sampledValidate(value, current);
+        }
+        Validator<T>[] validators = current.validators;
+        if (kind == CompositeValidator.Kind.AND) {
+            for (Validator<T> validator : validators) {
+                if (!validator.validate(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Validator<T> validator : validators) {
+            if (validator.validate(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 批量验证 values[from, to)，通过的元素在 mask 中置位（调用前这些位必须为 0）
+     * 按规则逐列执行：AND 先全部置位，每条规则只检查仍为 1 的元素；OR 每条规则只检查仍为 0 的元素
+     */
+    @SuppressWarnings("unchecked")
+    void validateRange(Object[] values, int from, int to, long[] mask) {
+        if (to <= from) {
+            return;
+        }
+        Validator<T>[] validators = plan.validators;
+        boolean and = kind == CompositeValidator.Kind.AND;
+        if (and) {
+            setRange(mask, from, to);
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        for (Validator<T> validator : validators) {
+            boolean any = false;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long range = rangeBits(w, from, to);
+                long bits = (and ? mask[w] : ~mask[w]) & range;
+                while (bits != 0) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int i = (w << 6) + bit;
+                    if (validator.validate((T) values[i]) != and) {
+                        mask[w] ^= 1L << bit;
+                    }
+                }
+                any |= ((and ? mask[w] : ~mask[w]) & range) != 0;
+            }
+            // 全部已经确定，后面的规则不用再跑
+            if (!any) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 第 w 个 long 中落在 [from, to) 内的位
+     */
+    private static long rangeBits(int w, int from, int to) {
+        long bits = -1L;
+        int start = w << 6;
+        if (from > start) {
+            bits &= -1L << (from - start);
+        }
+        if (to < start + 64) {
+            bits &= (1L << (to - start)) - 1;
+        }
+        return bits;
+    }
+
+    private static void setRange(long[] mask, int from, int to) {
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            mask[w] |= rangeBits(w, from, to);
+        }
+    }
+
+    /**
+     * 抽样调用：结果确定后仍继续执行同一段内剩余的规则以获得无偏的通过率，但不越过下一个前置条件，
+     * 这些额外执行的规则抛出的异常被忽略
+     */
+    private boolean sampledValidate(T value, Plan<T> current) {
+        boolean and = kind == CompositeValidator.Kind.AND;
+        boolean decided = false;
+        boolean result = and;
+        for (Rule<T> rule : current.rules) {
+            if (decided && rule.guard) {
+                break;
+            }
+            long start = System.nanoTime();
+            boolean pass;
+            try {
+                pass = rule.validator.validate(value);
+            } catch (RuntimeException e) {
+                if (!decided) {
+                    throw e;
+                }
+                break;
+            }
+            rule.record(pass, System.nanoTime() - start);
+            if (!decided && pass != and) {
+                decided = true;
+                result = pass;
+                if (rule.guard) {
+                    break;
+                }
+            }
+        }
+        if (++samples % REORDER_SAMPLES == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    /**
+     * 在相邻两个前置条件之间按得分重排，得分 = 平均耗时 / 能决定结果的概率
+     * 其他线程在排序期间仍在更新统计，先把得分取成快照再排序，比较结果在整个排序过程中保持一致
+     */
+    private synchronized void reorder() {
+        Rule<T>[] current = plan.rules;
+        boolean and = kind == CompositeValidator.Kind.AND;
+        double[] scores = new double[current.length];
+        Integer[] order = new Integer[current.length];
+        for (int i = 0; i < current.length; i++) {
+            scores[i] = current[i].score(and);
+            order[i] = i;
+        }
+        Comparator<Integer> byScore = Comparator.comparingDouble(i -> scores[i]);
+        int start = 0;
+        for (int i = 0; i <= current.length; i++) {
+            if (i == current.length || current[i].guard) {
+                Arrays.sort(order, start, i, byScore);
+                start = i + 1;
+            }
+        }
+        Rule<T>[] rules = current.clone();
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = current[order[i]];
+        }
+        for (Rule<T> rule : rules) {
+            rule.decay();
+        }
+        plan = new Plan<>(rules);
+    }
+
+    /**
+     * 当前规则顺序和统计，规则以编译时的位置编号
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder(kind.name()).append('[');
+        Rule<T>[] rules = plan.rules;
+        for (int i = 0; i < rules.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Rule<T> rule = rules[i];
+            sb.append(rule.guard ? "guard#" : "rule#").append(rule.id);
+            if (rule.validator instanceof CompiledValidator) {
+                sb.append(((CompiledValidator<T>) rule.validator).describe());
+            }
+            long evaluated = rule.evaluated.sum();
+            if (evaluated > 0) {
+                sb.append(String.format("(pass %.0f%%, %dns)",
+                        100.0 * rule.passed.sum() / evaluated, rule.nanos.sum() / evaluated));
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 规则顺序的快照，整体替换以保证验证时看到一致的数组
+     */
+    private static class Plan<T> {
+        final Rule<T>[] rules;
+        final Validator<T>[] validators;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Plan(Rule<T>[] rules) {
+            this.rules = rules;
+            this.validators = new Validator[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                validators[i] = rules[i].validator;
+            }
+        }
+    }
+
+    /**
+     * 统计用 LongAdder，多个线程同时抽样时互不争用；衰减与并发的记录之间不加锁，统计只是近似值
+     */
+    private static class Rule<T> {
+        final int id;
+        final Validator<T> validator;
+        final boolean guard;
+        final LongAdder evaluated = new LongAdder();
+        final LongAdder passed = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Rule(int id, Validator<T> validator, boolean guard) {
+            this.id = id;
+            this.validator = validator;
+            this.guard = guard;
+        }
+
+        void record(boolean pass, long elapsed) {
+            evaluated.increment();
+            if (pass) {
+                passed.increment();
+            }
+            nanos.add(elapsed);
+        }
+
+        /**
+         * 还没有样本的规则得分为 0，排到前面以便尽快获得统计
+         */
+        double score(boolean and) {
+            long count = evaluated.sum();
+            if (count == 0) {
+                return 0;
+            }
+            double passRate = Math.min(1, (double) passed.sum() / count);
+            double decisive = and ? 1 - passRate : passRate;
+            return (double) nanos.sum() / count / Math.max(decisive, MIN_RATE);
+        }
+
+        /**
+         * 统计减半，让排序能跟上输入分布的变化
+         */
+        void decay() {
+            halve(evaluated);
+            halve(passed);
+            halve(nanos);
+        }
+
+        private static void halve(LongAdder adder) {
+            adder.add(-(adder.sum() >> 1));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * and / or 组合出的验证器，保存规则列表而不是嵌套的 lambda
+ * 同一种组合连续使用时合并为一层，a.and(b).and(c) 得到 AND[a, b, c]
+ */
+class CompositeValidator<T> implements Validator<T> {
+    enum Kind {
+        AND,
+        OR
+    }
+    
+    private final Kind kind;
+    private final List<Validator<T>> rules;
+    
+    private CompositeValidator(Kind kind, List<Validator<T>> rules) {
+        this.kind = kind;
+        this.rules = Collections.unmodifiableList(rules);
+    }
+    
+    static <T> Validator<T> and(Validator<T> left, Validator<T> right) {
+        return combine(Kind.AND, left, right);
+    }
+    
+    static <T> Validator<T> or(Validator<T> left, Validator<T> right) {
+        return combine(Kind.OR, left, right);
+    }
+    
+    private static <T> Validator<T> combine(Kind kind, Validator<T> left, Validator<T> right) {
+        List<Validator<T>> rules = new ArrayList<>();
+        flatten(kind, left, rules);
+        flatten(kind, right, rules);
+        return new CompositeValidator<>(kind, rules);
+    }
+    
+    private static <T> void flatten(Kind kind, Validator<T> validator, List<Validator<T>> rules) {
+        if (validator instanceof CompositeValidator && ((CompositeValidator<T>) validator).kind == kind) {
+            rules.addAll(((CompositeValidator<T>) validator).rules);
+        } else {
+            rules.add(validator);
+        }
+    }
+    
+    Kind kind() {
+        return kind;
+    }
+    
+    List<Validator<T>> rules() {
+        return rules;
+    }
+    
+    @Override
+    public boolean validate(T value) {
+        if (kind == Kind.AND) {
+            for (Validator<T> rule : rules) {
+                if (!rule.validate(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Validator<T> rule : rules) {
+            if (rule.validate(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 前置条件规则，见 {@link Validator#guard}
+     */
+    static class Guard<T> implements Validator<T> {
+        private final Validator<T> delegate;
+        
+        Guard(Validator<T> delegate) {
+            this.delegate = delegate;
+        }
+        
+        Validator<T> delegate() {
+            return delegate;
+        }
+        
+        @Override
+        public boolean validate(T value) {
+            return delegate.validate(value);
+        }
+    }
+}
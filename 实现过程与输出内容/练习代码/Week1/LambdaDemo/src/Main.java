@@ -27,7 +27,8 @@ public class Main {
                 new Person("Jerry", 10)
         );
         //sort by age
-        personList.sort((o1, o2) -> o1.getAge() - o2.getAge());
+        //用减法比较在年龄相差很大时会溢出，使用 Integer.compare
+        personList.sort((o1, o2) -> Integer.compare(o1.getAge(), o2.getAge()));
         System.out.println("sort by age：" + personList);
         //sort by name
         personList.sort((o1, o2) -> o1.getName().compareTo(o2.getName()));
@@ -38,6 +39,9 @@ public class Main {
             return age == 0 ? p1.getName().compareTo(p2.getName()) : age;
         });
         System.out.println("sort by name and age：" + personList);
+        //基于原始类型键的基数排序，结果与上面相同
+        PersonSorter.sortByAgeThenName(personList);
+        System.out.println("radix sort by age and name：" + personList);
     }
 }
 
@@ -0,0 +1,518 @@
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 有容量上限的记忆化缓存，用于包装没有副作用、但计算昂贵的 Function / BiFunction
+ * <ul>
+ *     <li>按键的哈希分为多个段，每段一把锁，调用方不会都排在同一把锁后面；未命中时在锁外计算，
+ *     同一个键并发未命中可能重复计算，对纯函数没有影响</li>
+ *     <li>每段采用 W-TinyLFU 的简化版：新条目先进小的 LRU 窗口（约 1%），被挤出窗口时与主区（分段 LRU：试用区 + 保护区）
+ *     试用区队尾的条目比较访问频率（Count-Min 草图估计，定期减半以适应热点变化），频率更高的留下</li>
+ *     <li>可选写入后过期，过期条目在访问时惰性删除</li>
+ *     <li>命中、未命中、淘汰、过期次数在各段的锁内计数，不额外引入原子操作，读取统计时汇总</li>
+ * </ul>
+ * 函数返回 null 时不缓存
+ */
+public class MemoCache<K, V> {
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    private final long expireAfterWriteNanos;
+    /** 不设置过期时为 null，省去每次访问读时钟的开销 */
+    private final LongSupplier ticker;
+
+    public MemoCache(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param expireAfterWrite 写入后多久过期，null 表示不过期
+     */
+    public MemoCache(int maximumSize, Duration expireAfterWrite) {
+        this(maximumSize, expireAfterWrite, System::nanoTime);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MemoCache(int maximumSize, Duration expireAfterWrite, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        this.ticker = expireAfterWrite == null ? null : ticker;
+        // 段数约为 CPU 数的 4 倍，但每段至少 64 个条目，否则频率统计和分区都没有意义
+        int bySize = Integer.highestOneBit(Math.max(1, maximumSize / 64));
+        int byCores = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        int count = Math.min(bySize, byCores);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // 余数分给前面几段，总容量恰好等于 maximumSize
+            segments[i] = new Segment<>(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * 把 function 包装为带缓存的版本
+     */
+    public Function<K, V> memoize(Function<? super K, ? extends V> function) {
+        Objects.requireNonNull(function);
+        return key -> get(key, function);
+    }
+
+    /**
+     * 把两个参数的函数包装为带缓存的版本，两个参数组合成 {@link Args} 作为键
+     */
+    public static <A, B, R> BiFunction<A, B, R> memoize(BiFunction<? super A, ? super B, ? extends R> function,
+                                                       MemoCache<Args, R> cache) {
+        Objects.requireNonNull(function);
+        return (a, b) -> cache.get(new Args(a, b), args -> function.apply(a, b));
+    }
+
+    /**
+     * 取缓存的值，没有时用 loader 计算并放入
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        int hash = spread(key.hashCode());
+        Segment<K, V> segment = segmentFor(hash);
+        V value = segment.get(key, hash, this);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            segment.put(key, hash, value, this);
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).get(key, hash, this);
+    }
+
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).put(key, hash, Objects.requireNonNull(value), this);
+    }
+
+    public void invalidate(K key) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).remove(key, hash);
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public Stats stats() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long expirations = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+                misses += segment.misses;
+                evictions += segment.evictions;
+                expirations += segment.expirations;
+            }
+        }
+        return new Stats(hits, misses, evictions, expirations);
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * BiFunction 的两个参数组成的键
+     */
+    public static final class Args {
+        private final Object first;
+        private final Object second;
+
+        Args(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Args)) {
+                return false;
+            }
+            Args other = (Args) o;
+            return Objects.equals(first, other.first) && Objects.equals(second, other.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(first) + Objects.hashCode(second);
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(long hits, long misses, long evictions, long expirations) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public long evictions() {
+            return evictions;
+        }
+
+        public long expirations() {
+            return expirations;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 1.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d",
+                    hits, misses, hitRate() * 100, evictions, expirations);
+        }
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        V value;
+        long writeTime;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+        /** 同一个哈希桶中的下一个节点 */
+        Node<K, V> chain;
+
+        Node(K key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * 带哨兵的双向链表，头部最新，尾部最旧
+     */
+    private static final class Queue<K, V> {
+        final Node<K, V> head = new Node<>(null, 0);
+        int size;
+
+        Queue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.next = head.next;
+            node.prev = head;
+            head.next.prev = node;
+            head.next = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToFirst(Node<K, V> node) {
+            remove(node);
+            addFirst(node);
+        }
+
+        Node<K, V> last() {
+            return head.prev == head ? null : head.prev;
+        }
+    }
+
+    /**
+     * 一段缓存：节点本身就是哈希表的链表节点，查找时不必再经过一层 HashMap.Node；
+     * 容量固定，表长取容量两倍以上的 2 的幂，不需要扩容
+     */
+    private static final class Segment<K, V> {
+        private final Node<K, V>[] table;
+        private int size;
+        private final Queue<K, V> window = new Queue<>();
+        private final Queue<K, V> probation = new Queue<>();
+        private final Queue<K, V> protectedQueue = new Queue<>();
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final int protectedCapacity;
+        private final FrequencySketch sketch;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment(int capacity) {
+            table = new Node[Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1];
+            windowCapacity = Math.max(1, capacity / 100);
+            mainCapacity = Math.max(0, capacity - windowCapacity);
+            protectedCapacity = mainCapacity * 4 / 5;
+            sketch = new FrequencySketch(capacity);
+        }
+
+        synchronized V get(K key, int hash, MemoCache<K, V> cache) {
+            sketch.increment(hash);
+            Node<K, V> node = find(key, hash);
+            if (node == null) {
+                misses++;
+                return null;
+            }
+            if (cache.ticker != null && cache.ticker.getAsLong() - node.writeTime >= cache.expireAfterWriteNanos) {
+                delete(node);
+                expirations++;
+                misses++;
+                return null;
+            }
+            hits++;
+            onHit(node);
+            return node.value;
+        }
+
+        synchronized void put(K key, int hash, V value, MemoCache<K, V> cache) {
+            long now = cache.ticker == null ? 0 : cache.ticker.getAsLong();
+            Node<K, V> node = find(key, hash);
+            if (node != null) {
+                node.value = value;
+                node.writeTime = now;
+                onHit(node);
+                return;
+            }
+            node = new Node<>(key, hash);
+            node.value = value;
+            node.writeTime = now;
+            node.queue = WINDOW;
+            int index = hash & (table.length - 1);
+            node.chain = table[index];
+            table[index] = node;
+            size++;
+            window.addFirst(node);
+            if (window.size > windowCapacity) {
+                admit(window.last());
+            }
+        }
+
+        synchronized void remove(K key, int hash) {
+            Node<K, V> node = find(key, hash);
+            if (node != null) {
+                delete(node);
+            }
+        }
+
+        synchronized void clear() {
+            for (Queue<K, V> queue : Arrays.asList(window, probation, protectedQueue)) {
+                for (Node<K, V> node = queue.last(); node != null; node = queue.last()) {
+                    queue.remove(node);
+                }
+            }
+            Arrays.fill(table, null);
+            size = 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private Node<K, V> find(Object key, int hash) {
+            for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.chain) {
+                if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 从哈希表和所在队列中同时删除
+         */
+        private void delete(Node<K, V> node) {
+            removeFromTable(node);
+            unlink(node);
+        }
+
+        private void removeFromTable(Node<K, V> node) {
+            int index = node.hash & (table.length - 1);
+            if (table[index] == node) {
+                table[index] = node.chain;
+            } else {
+                Node<K, V> previous = table[index];
+                while (previous.chain != node) {
+                    previous = previous.chain;
+                }
+                previous.chain = node.chain;
+            }
+            node.chain = null;
+            size--;
+        }
+
+        private void onHit(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW:
+                    window.moveToFirst(node);
+                    break;
+                case PROBATION:
+                    // 试用区再次命中，晋升到保护区；保护区满了就把最旧的降回试用区
+                    probation.remove(node);
+                    node.queue = PROTECTED;
+                    protectedQueue.addFirst(node);
+                    if (protectedQueue.size > protectedCapacity) {
+                        Node<K, V> demoted = protectedQueue.last();
+                        protectedQueue.remove(demoted);
+                        demoted.queue = PROBATION;
+                        probation.addFirst(demoted);
+                    }
+                    break;
+                default:
+                    protectedQueue.moveToFirst(node);
+                    break;
+            }
+        }
+
+        /**
+         * 窗口溢出的候选者进入主区：主区有空位直接进入试用区，否则与试用区队尾比较频率
+         */
+        private void admit(Node<K, V> candidate) {
+            window.remove(candidate);
+            if (probation.size + protectedQueue.size < mainCapacity) {
+                candidate.queue = PROBATION;
+                probation.addFirst(candidate);
+                return;
+            }
+            Node<K, V> victim = probation.last();
+            if (victim == null) {
+                victim = protectedQueue.last();
+            }
+            if (victim != null && sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                delete(victim);
+                candidate.queue = PROBATION;
+                probation.addFirst(candidate);
+            } else {
+                // 候选者已经离开窗口，只需从哈希表中删除
+                removeFromTable(candidate);
+            }
+            evictions++;
+        }
+
+        private void unlink(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW:
+                    window.remove(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    break;
+                default:
+                    protectedQueue.remove(node);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 4 行的 Count-Min 草图，计数器为 4 位（上限 15），记录数达到容量的 10 倍时全部减半
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            // 每个 long 存 16 个计数器
+            int counters = Integer.highestOneBit(Math.max(64, capacity * 4 - 1)) << 1;
+            table = new long[counters / 16];
+            mask = counters - 1;
+            sampleSize = Math.max(10 * capacity, 100);
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                int shift = (index & 15) << 2;
+                long slot = table[index >>> 4];
+                if (((slot >>> shift) & 0xF) < 15) {
+                    table[index >>> 4] = slot + (1L << shift);
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                min = Math.min(min, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xF));
+            }
+            return min;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        /**
+         * 所有计数器减半，旧的热点逐渐冷却
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+    }
+}
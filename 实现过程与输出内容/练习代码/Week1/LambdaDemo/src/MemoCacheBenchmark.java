@@ -0,0 +1,190 @@
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * MemoCache 在倾斜（Zipf 分布）负载下的命中率与吞吐，对比不缓存、全局锁 LRU（LinkedHashMap）和不限容量的 ConcurrentHashMap
+ * 用法：MemoCacheBenchmark [线程数，默认 4] [缓存容量，默认 10000] [键空间，默认 1000000] [Zipf 指数，默认 0.9]
+ */
+public class MemoCacheBenchmark {
+    private static final int OPERATIONS_PER_THREAD = 500_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int keySpace = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 0.9;
+        check();
+
+        String[] keys = new String[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            keys[i] = Integer.toString(i * 7 + 3);
+        }
+        int[][] workloads = zipf(threads, OPERATIONS_PER_THREAD, keySpace, exponent);
+        System.out.printf("%d 线程 × %d 次调用，键空间 %d，Zipf 指数 %.2f，缓存容量 %d%n",
+                threads, OPERATIONS_PER_THREAD, keySpace, exponent, capacity);
+
+        run("不缓存", threads, keys, workloads, () -> MemoCacheBenchmark::expensive, null);
+
+        LongAdder lruMisses = new LongAdder();
+        run("LRU（全局锁）", threads, keys, workloads, () -> {
+            lruMisses.reset();
+            Map<String, Integer> lru = new LinkedHashMap<String, Integer>(capacity * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > capacity;
+                }
+            };
+            return key -> {
+                synchronized (lru) {
+                    Integer value = lru.get(key);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                lruMisses.increment();
+                Integer value = expensive(key);
+                synchronized (lru) {
+                    lru.put(key, value);
+                }
+                return value;
+            };
+        }, () -> String.format("hitRate=%.2f%%", 100 - 100.0 * lruMisses.sum() / ((long) threads * OPERATIONS_PER_THREAD)));
+
+        AtomicReference<ConcurrentHashMap<String, Integer>> unbounded = new AtomicReference<>();
+        run("ConcurrentHashMap（不限容量）", threads, keys, workloads, () -> {
+            ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
+            unbounded.set(map);
+            return key -> map.computeIfAbsent(key, MemoCacheBenchmark::expensive);
+        }, () -> "size=" + unbounded.get().size());
+        unbounded.set(null);
+
+        AtomicReference<MemoCache<String, Integer>> cache = new AtomicReference<>();
+        run("MemoCache（W-TinyLFU）", threads, keys, workloads, () -> {
+            cache.set(new MemoCache<>(capacity));
+            return cache.get().memoize(MemoCacheBenchmark::expensive);
+        }, () -> cache.get().stats() + ", size=" + cache.get().size());
+    }
+
+    /**
+     * 与直接调用结果一致；容量不超限；热点在大量一次性键的冲刷下仍留在缓存中；过期生效
+     */
+    private static void check() {
+        MemoCache<String, Integer> cache = new MemoCache<>(1000);
+        Function<String, Integer> memo = cache.memoize(MemoCacheBenchmark::expensive);
+        for (int i = 0; i < 100_000; i++) {
+            String key = Integer.toString(i % 50 == 0 ? i % 500 : i);
+            if (!memo.apply(key).equals(expensive(key))) {
+                throw new AssertionError(key);
+            }
+        }
+        if (cache.size() > 1000) {
+            throw new AssertionError("size " + cache.size());
+        }
+        int hot = 0;
+        for (int i = 0; i < 500; i += 50) {
+            if (cache.getIfPresent(Integer.toString(i)) != null) {
+                hot++;
+            }
+        }
+        if (hot != 10) {
+            throw new AssertionError("hot keys retained: " + hot);
+        }
+
+        AtomicLong now = new AtomicLong();
+        MemoCache<String, Integer> expiring = new MemoCache<>(100, Duration.ofSeconds(10), now::get);
+        expiring.put("a", 1);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        if (expiring.getIfPresent("a") == null) {
+            throw new AssertionError("expired too early");
+        }
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        if (expiring.getIfPresent("a") != null || expiring.stats().expirations() != 1) {
+            throw new AssertionError("not expired");
+        }
+        System.out.println("结果一致，容量受限，热点保留，过期生效");
+    }
+
+    /**
+     * 每轮用 factory 新建一个函数（各自从空缓存开始），取 3 轮中最快的一轮，统计信息为最后一轮的
+     */
+    private static void run(String name, int threads, String[] keys, int[][] workloads,
+                            Supplier<Function<String, Integer>> factory, Supplier<String> stats)
+            throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < 3; round++) {
+            Function<String, Integer> function = factory.get();
+            long[] checksums = new long[threads];
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                workers[t] = new Thread(() -> {
+                    long sum = 0;
+                    for (int index : workloads[id]) {
+                        sum += function.apply(keys[index]);
+                    }
+                    checksums[id] = sum;
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            checksum = Arrays.stream(checksums).sum();
+        }
+        double seconds = best / 1e9;
+        System.out.printf("%-28s %7.2f s  %,12.0f 次/s  checksum=%d  %s%n", name, seconds,
+                threads * (double) OPERATIONS_PER_THREAD / seconds, checksum, stats == null ? "" : stats.get());
+    }
+
+    /**
+     * 模拟昂贵的纯函数：解析后做若干轮整数混合，约 5 微秒
+     */
+    static Integer expensive(String s) {
+        int h = Integer.parseInt(s);
+        for (int i = 0; i < 1500; i++) {
+            h = h * 0x9E3779B1 + i;
+            h ^= h >>> 15;
+        }
+        return h & 0xFFFF;
+    }
+
+    /**
+     * 每个线程一份预先生成的 Zipf 分布下标序列；排名打散到键空间中，避免热点集中在相邻的键上
+     */
+    private static int[][] zipf(int threads, int operations, int keySpace, double exponent) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int rank = 0; rank < keySpace; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        int[] permutation = new int[keySpace];
+        SplittableRandom shuffle = new SplittableRandom(41);
+        for (int i = 0; i < keySpace; i++) {
+            int j = shuffle.nextInt(i + 1);
+            permutation[i] = permutation[j];
+            permutation[j] = i;
+        }
+        int[][] workloads = new int[threads][operations];
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(43 + t);
+            for (int i = 0; i < operations; i++) {
+                int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                workloads[t][i] = permutation[Math.min(keySpace - 1, rank < 0 ? -rank - 1 : rank)];
+            }
+        }
+        return workloads;
+    }
+}
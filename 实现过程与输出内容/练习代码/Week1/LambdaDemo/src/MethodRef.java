@@ -1,3 +1,4 @@
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -85,5 +86,21 @@ public class MethodRef {
         BiFunction<String, Integer, Person> pc2 = Person::new;
         Person p = pc2.apply("Tom", 25);
         
+        // 5. 记忆化：给昂贵的纯函数加一层有容量上限的缓存，重复输入直接取结果
+        MemoCache<String, Integer> parseCache = new MemoCache<>(1000);
+        Function<String, Integer> memoParse = parseCache.memoize(Integer::parseInt);
+        for (String s : Arrays.asList("1", "2", "1", "1", "3", "2")) {
+            memoParse.apply(s);
+        }
+        System.out.println(parseCache.stats());//hits=3, misses=3, ...
+        
+        MemoCache<String, String> prefixCache = new MemoCache<>(1000, Duration.ofMinutes(10));
+        Function<String, String> memoPrefix = prefixCache.memoize(prefix::concat);
+        System.out.println(memoPrefix.apply("Smith") == memoPrefix.apply("Smith"));//true，第二次取的是缓存
+        
+        MemoCache<MemoCache.Args, Person> personCache = new MemoCache<>(1000);
+        BiFunction<String, Integer, Person> memoPerson = MemoCache.memoize(Person::new, personCache);
+        System.out.println(memoPerson.apply("Tom", 25) == memoPerson.apply("Tom", 25));//true
+
     }
 }
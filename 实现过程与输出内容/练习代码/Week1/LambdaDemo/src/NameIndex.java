@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 姓名索引：按字典序排好的下标数组，前缀条件通过二分查找定位区间，不需要全表扫描
+ * filterNames 与 {@link PredicateDemo#filterNames} 约定相同（结果保持原列表顺序），
+ * 只有条件由 {@link #startsWith} 创建、且传入的正是建立索引的列表时才走索引，其余情况交给 {@link ParallelFilter}。
+ * 索引建立后列表不应再修改
+ */
+public class NameIndex {
+    private final List<String> names;
+    /** 按姓名排序的原始下标 */
+    private final int[] order;
+    /** 与 order 对应的姓名，便于二分查找 */
+    private final String[] sorted;
+    
+    public NameIndex(List<String> names) {
+        this.names = names;
+        Integer[] boxed = new Integer[names.size()];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, Comparator.comparing(names::get));
+        order = new int[boxed.length];
+        sorted = new String[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            order[i] = boxed[i];
+            sorted[i] = names.get(boxed[i]);
+        }
+    }
+    
+    /**
+     * 可以被索引识别的前缀条件，用 and 组合其他条件时仍然保留前缀
+     */
+    public static PrefixPredicate startsWith(String prefix) {
+        return new PrefixPredicate(prefix, null);
+    }
+    
+    public List<String> filterNames(List<String> names, Predicate<String> predicate) {
+        if (names != this.names || names.size() != order.length || !(predicate instanceof PrefixPredicate)) {
+            return ParallelFilter.filterNames(names, predicate);
+        }
+        PrefixPredicate prefix = (PrefixPredicate) predicate;
+        int from = lowerBound(prefix.prefix);
+        int to = from;
+        while (to < sorted.length && sorted[to].startsWith(prefix.prefix)) {
+            to++;
+        }
+        // 还原为原列表顺序
+        int[] rows = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (prefix.residual == null || prefix.residual.test(sorted[i])) {
+                rows[count++] = order[i];
+            }
+        }
+        Arrays.sort(rows, 0, count);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(names.get(rows[i]));
+        }
+        return result;
+    }
+    
+    /**
+     * 第一个不小于 key 的位置，以 key 为前缀的姓名从这里开始连续排列
+     */
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    public static class PrefixPredicate implements Predicate<String> {
+        private final String prefix;
+        /** 与前缀同时满足的其他条件，可以为 null */
+        private final Predicate<String> residual;
+        
+        private PrefixPredicate(String prefix, Predicate<String> residual) {
+            this.prefix = prefix;
+            this.residual = residual;
+        }
+        
+        public String prefix() {
+            return prefix;
+        }
+        
+        @Override
+        public boolean test(String name) {
+            return name.startsWith(prefix) && (residual == null || residual.test(name));
+        }
+        
+        @Override
+        public PrefixPredicate and(Predicate<? super String> other) {
+            Predicate<String> next = residual == null ? other::test : residual.and(other);
+            return new PrefixPredicate(prefix, next);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * 任意条件的并行分块过滤，与 {@link PredicateDemo#filterNames} 的约定相同：结果保持原列表顺序
+ * 每块先把判断结果记在位图里并计数，最后按总数一次性分配结果列表，判断只执行一次，结果列表也不需要扩容
+ */
+public class ParallelFilter {
+    /** 少于该数量时不并行 */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+    private static final int MIN_CHUNK = 2048;
+    
+    private ParallelFilter() {
+    }
+    
+    public static List<String> filterNames(List<String> names, Predicate<String> predicate) {
+        return filter(names, predicate, ForkJoinPool.commonPool());
+    }
+    
+    public static <T> List<T> filter(List<T> values, Predicate<? super T> predicate, ForkJoinPool pool) {
+        // 非随机访问的列表先拷贝成数组，避免按下标访问链表
+        List<T> source = values instanceof RandomAccess ? values : new ArrayList<>(values);
+        int size = source.size();
+        long[] mask = new long[(size + 63) >>> 6];
+        int count;
+        if (size < PARALLEL_THRESHOLD) {
+            count = mark(source, predicate, 0, size, mask);
+        } else {
+            int chunk = Math.max(MIN_CHUNK, size / (pool.getParallelism() * 8)) & ~63;
+            count = pool.invoke(new MarkTask<>(source, predicate, 0, size, chunk, mask));
+        }
+        List<T> result = new ArrayList<>(count);
+        for (int w = 0; w < mask.length; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                result.add(source.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+    
+    private static <T> int mark(List<T> values, Predicate<? super T> predicate, int from, int to, long[] mask) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(values.get(i))) {
+                mask[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @SuppressWarnings("serial")
+    private static class MarkTask<T> extends RecursiveTask<Integer> {
+        private final List<T> values;
+        private final Predicate<? super T> predicate;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final long[] mask;
+        
+        MarkTask(List<T> values, Predicate<? super T> predicate, int from, int to, int chunk, long[] mask) {
+            this.values = values;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.mask = mask;
+        }
+        
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunk) {
+                return mark(values, predicate, from, to, mask);
+            }
+            // 切分点对齐到 64，两半不会写同一个 long
+            int mid = (from + (to - from) / 2) & ~63;
+            if (mid <= from) {
+                mid = from + chunk;
+            }
+            MarkTask<T> left = new MarkTask<>(values, predicate, from, mid, chunk, mask);
+            left.fork();
+            int right = new MarkTask<>(values, predicate, mid, to, chunk, mask).compute();
+            return left.join() + right;
+        }
+    }
+}
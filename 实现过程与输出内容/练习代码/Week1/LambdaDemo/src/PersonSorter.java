@@ -0,0 +1,151 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于原始类型键的 Person 排序，排序过程中不调用 Comparator
+ * 按年龄：年龄跨度小时计数排序，否则按 32 位键做基数排序；
+ * 按年龄再按姓名：先给每个不同的姓名按字典序编号，把 (年龄, 姓名编号) 拼成一个 long 键后做 LSD 基数排序。
+ * 两种排序都是稳定的，结果与 List.sort 加对应比较器相同
+ */
+public class PersonSorter {
+    /** 年龄跨度不超过该值时使用计数排序 */
+    private static final int COUNTING_SORT_RANGE = 1 << 16;
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    
+    private PersonSorter() {
+    }
+    
+    /**
+     * 等价于 list.sort((o1, o2) -> Integer.compare(o1.getAge(), o2.getAge()))
+     */
+    public static void sortByAge(List<Person> people) {
+        int size = people.size();
+        if (size < 2) {
+            return;
+        }
+        Person[] source = people.toArray(new Person[0]);
+        int[] ages = new int[size];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int age = source[i].getAge();
+            ages[i] = age;
+            min = Math.min(min, age);
+            max = Math.max(max, age);
+        }
+        if ((long) max - min < COUNTING_SORT_RANGE) {
+            int[] counts = new int[max - min + 2];
+            for (int age : ages) {
+                counts[age - min + 1]++;
+            }
+            for (int i = 1; i < counts.length; i++) {
+                counts[i] += counts[i - 1];
+            }
+            Person[] target = new Person[size];
+            for (int i = 0; i < size; i++) {
+                target[counts[ages[i] - min]++] = source[i];
+            }
+            writeBack(people, target);
+            return;
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long) ages[i] - min;
+        }
+        writeBack(people, permute(source, radixSort(keys)));
+    }
+    
+    /**
+     * 等价于先按年龄、年龄相同再按姓名排序的比较器
+     */
+    public static void sortByAgeThenName(List<Person> people) {
+        int size = people.size();
+        if (size < 2) {
+            return;
+        }
+        Person[] source = people.toArray(new Person[0]);
+        // 只对不同的姓名排序一次，得到每个姓名的名次
+        Map<String, Integer> ranks = new HashMap<>();
+        for (Person person : source) {
+            ranks.putIfAbsent(person.getName(), 0);
+        }
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(distinct);
+        for (int i = 0; i < distinct.length; i++) {
+            ranks.put(distinct[i], i);
+        }
+        int min = Integer.MAX_VALUE;
+        for (Person person : source) {
+            min = Math.min(min, person.getAge());
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            // 高位为年龄偏移量，低 32 位为姓名名次
+            keys[i] = (((long) source[i].getAge() - min) << 32) | ranks.get(source[i].getName());
+        }
+        writeBack(people, permute(source, radixSort(keys)));
+    }
+    
+    /**
+     * 对非负 long 键做稳定的 LSD 基数排序，返回排序后的原始下标
+     * 所有键在某一位段上都相同时跳过这一趟
+     */
+    static int[] radixSort(long[] keys) {
+        int size = keys.length;
+        long or = 0;
+        for (long key : keys) {
+            or |= key;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(or);
+        long[] keyBuffer = keys.clone();
+        long[] keyTemp = new long[size];
+        int[] index = new int[size];
+        int[] indexTemp = new int[size];
+        for (int i = 0; i < size; i++) {
+            index[i] = i;
+        }
+        int[] counts = new int[RADIX + 1];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (long key : keyBuffer) {
+                counts[(int) ((key >>> shift) & (RADIX - 1)) + 1]++;
+            }
+            if (counts[(int) ((keyBuffer[0] >>> shift) & (RADIX - 1)) + 1] == size) {
+                continue;
+            }
+            for (int i = 1; i <= RADIX; i++) {
+                counts[i] += counts[i - 1];
+            }
+            for (int i = 0; i < size; i++) {
+                int digit = (int) ((keyBuffer[i] >>> shift) & (RADIX - 1));
+                int slot = counts[digit]++;
+                keyTemp[slot] = keyBuffer[i];
+                indexTemp[slot] = index[i];
+            }
+            long[] swapKeys = keyBuffer;
+            keyBuffer = keyTemp;
+            keyTemp = swapKeys;
+            int[] swapIndex = index;
+            index = indexTemp;
+            indexTemp = swapIndex;
+        }
+        return index;
+    }
+    
+    private static Person[] permute(Person[] source, int[] order) {
+        Person[] target = new Person[source.length];
+        for (int i = 0; i < order.length; i++) {
+            target[i] = source[order[i]];
+        }
+        return target;
+    }
+    
+    private static void writeBack(List<Person> people, Person[] sorted) {
+        for (int i = 0; i < sorted.length; i++) {
+            people.set(i, sorted[i]);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * PersonSorter 与 List.sort 的正确性对比和耗时对比
+ * 用法：PersonSorterBenchmark [人数，默认 2000000]
+ */
+public class PersonSorterBenchmark {
+    private static final int ROUNDS = 3;
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<Person> people = generate(count, 100);
+        
+        // 正确性：与比较器版本逐个比较（同一个对象，稳定排序的结果必须完全一致）
+        check("age", people, true);
+        check("age+name", people, false);
+        check("age wide", generate(100_000, Integer.MAX_VALUE), true);
+        
+        time("List.sort age", people, list -> list.sort((o1, o2) -> Integer.compare(o1.getAge(), o2.getAge())));
+        time("radix age", people, PersonSorter::sortByAge);
+        time("List.sort age+name", people, list -> list.sort((p1, p2) -> {
+            int age = Integer.compare(p1.getAge(), p2.getAge());
+            return age == 0 ? p1.getName().compareTo(p2.getName()) : age;
+        }));
+        time("radix age+name", people, PersonSorter::sortByAgeThenName);
+    }
+    
+    private static List<Person> generate(int count, int ageBound) {
+        SplittableRandom random = new SplittableRandom(3);
+        List<Person> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int age = ageBound == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(ageBound);
+            people.add(new Person("P" + random.nextInt(50_000), age));
+        }
+        return people;
+    }
+    
+    private static void check(String name, List<Person> people, boolean ageOnly) {
+        List<Person> expected = new ArrayList<>(people);
+        List<Person> actual = new ArrayList<>(people);
+        if (ageOnly) {
+            expected.sort((o1, o2) -> Integer.compare(o1.getAge(), o2.getAge()));
+            PersonSorter.sortByAge(actual);
+        } else {
+            expected.sort((p1, p2) -> {
+                int age = Integer.compare(p1.getAge(), p2.getAge());
+                return age == 0 ? p1.getName().compareTo(p2.getName()) : age;
+            });
+            PersonSorter.sortByAgeThenName(actual);
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) {
+                throw new AssertionError(name + " 排序结果在第 " + i + " 个元素处不同");
+            }
+        }
+        System.out.println(name + " 排序结果一致");
+    }
+    
+    private static void time(String name, List<Person> people, Consumer<List<Person>> sorter) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            List<Person> copy = new ArrayList<>(people);
+            long start = System.nanoTime();
+            sorter.accept(copy);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %8.1f ms%n", name, best / 1e6);
+    }
+}
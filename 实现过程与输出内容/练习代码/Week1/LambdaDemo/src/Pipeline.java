@@ -0,0 +1,461 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 简单的流水线构建器，支持 filter / map / sorted / limit，结果与同样写法的 Stream 相同（包括 sorted 的稳定性），
+ * 执行前先按以下规则改写：
+ * <ul>
+ *     <li>相邻的 filter 和 map 合并为一步，每个元素一次走完，中间不产生集合</li>
+ *     <li>sorted 后面（中间只隔着 map）紧跟 limit(k) 时改为大小为 k 的堆，O(n log k) 时间、O(k) 内存，map 推迟到选出的 k 个元素上</li>
+ *     <li>数据已经按同一比较器有序时（{@link #fromSorted} 声明的来源、或前面已经排过序且之后只有 filter）去掉 sorted</li>
+ *     <li>没有排序挡在前面的 limit 达到数量后立即停止读取来源</li>
+ * </ul>
+ * 比较器按 equals 判断是否相同，自然顺序用 null 或 Comparator.naturalOrder() 表示均可
+ */
+public class Pipeline<T> {
+    private final Iterable<?> source;
+    private final Comparator<?> sourceOrder;
+    private final boolean sourceOrdered;
+    private final List<Stage> stages;
+
+    private Pipeline(Iterable<?> source, boolean sourceOrdered, Comparator<?> sourceOrder, List<Stage> stages) {
+        this.source = source;
+        this.sourceOrdered = sourceOrdered;
+        this.sourceOrder = sourceOrder;
+        this.stages = stages;
+    }
+
+    public static <T> Pipeline<T> from(Iterable<T> source) {
+        return new Pipeline<>(source, false, null, new ArrayList<>());
+    }
+
+    /**
+     * 来源已经按 order 排好序（null 表示自然顺序），其后同一顺序的 sorted 会被省略
+     */
+    public static <T> Pipeline<T> fromSorted(Iterable<T> source, Comparator<? super T> order) {
+        return new Pipeline<>(source, true, order, new ArrayList<>());
+    }
+
+    public Pipeline<T> filter(Predicate<? super T> predicate) {
+        return then(new Stage(Kind.FILTER, Objects.requireNonNull(predicate), null, null, 0));
+    }
+
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> mapper) {
+        return then(new Stage(Kind.MAP, null, Objects.requireNonNull(mapper), null, 0));
+    }
+
+    /**
+     * 按自然顺序排序，元素必须实现 Comparable
+     */
+    public Pipeline<T> sorted() {
+        return then(new Stage(Kind.SORTED, null, null, null, 0));
+    }
+
+    public Pipeline<T> sorted(Comparator<? super T> comparator) {
+        return then(new Stage(Kind.SORTED, null, null, comparator, 0));
+    }
+
+    public Pipeline<T> limit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        }
+        return then(new Stage(Kind.LIMIT, null, null, null, maxSize));
+    }
+
+    public List<T> toList() {
+        List<T> result = new ArrayList<>();
+        forEach(result::add);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Sink sink = new Sink() {
+            @Override
+            public boolean accept(Object value) {
+                action.accept((T) value);
+                return true;
+            }
+        };
+        List<Step> steps = plan();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            sink = steps.get(i).sink(sink);
+        }
+        for (Object element : source) {
+            if (!sink.accept(element)) {
+                break;
+            }
+        }
+        sink.end();
+    }
+
+    /**
+     * 改写后的执行计划，例如 source -> fused[filter, map] -> topK(10)
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder(sourceOrdered ? "source(sorted)" : "source");
+        for (Step step : plan()) {
+            sb.append(" -> ").append(step);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 每次追加阶段都复制一份，已经构建的流水线可以安全复用
+     */
+    @SuppressWarnings("unchecked")
+    private <R> Pipeline<R> then(Stage stage) {
+        List<Stage> next = new ArrayList<>(stages);
+        next.add(stage);
+        return (Pipeline<R>) new Pipeline<>(source, sourceOrdered, sourceOrder, next);
+    }
+
+    private List<Step> plan() {
+        // 1. 去掉多余的排序；连续的 limit 取最小值
+        List<Stage> rewritten = new ArrayList<>();
+        boolean ordered = sourceOrdered;
+        Comparator<?> order = sourceOrder;
+        for (Stage stage : stages) {
+            switch (stage.kind) {
+                case MAP:
+                    ordered = false;
+                    break;
+                case SORTED:
+                    if (ordered && sameOrder(order, stage.comparator)) {
+                        continue;
+                    }
+                    ordered = true;
+                    order = stage.comparator;
+                    break;
+                case LIMIT:
+                    Stage last = rewritten.isEmpty() ? null : rewritten.get(rewritten.size() - 1);
+                    if (last != null && last.kind == Kind.LIMIT) {
+                        rewritten.set(rewritten.size() - 1,
+                                new Stage(Kind.LIMIT, null, null, null, Math.min(last.limit, stage.limit)));
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            rewritten.add(stage);
+        }
+        // 2. sorted, map*, limit(k) 改为 topK(k), map*；3. 合并相邻的 filter/map
+        List<Step> steps = new ArrayList<>();
+        List<Stage> fused = new ArrayList<>();
+        for (int i = 0; i < rewritten.size(); i++) {
+            Stage stage = rewritten.get(i);
+            if (stage.kind == Kind.FILTER || stage.kind == Kind.MAP) {
+                fused.add(stage);
+                continue;
+            }
+            flush(fused, steps);
+            if (stage.kind == Kind.SORTED) {
+                int j = i + 1;
+                while (j < rewritten.size() && rewritten.get(j).kind == Kind.MAP) {
+                    j++;
+                }
+                if (j < rewritten.size() && rewritten.get(j).kind == Kind.LIMIT) {
+                    steps.add(new TopKStep(stage.comparator, rewritten.get(j).limit));
+                    fused.addAll(rewritten.subList(i + 1, j));
+                    i = j;
+                    continue;
+                }
+                steps.add(new SortStep(stage.comparator));
+            } else {
+                steps.add(new LimitStep(stage.limit));
+            }
+        }
+        flush(fused, steps);
+        return steps;
+    }
+
+    private static void flush(List<Stage> fused, List<Step> steps) {
+        if (!fused.isEmpty()) {
+            steps.add(new FusedStep(fused.toArray(new Stage[0])));
+            fused.clear();
+        }
+    }
+
+    private static boolean sameOrder(Comparator<?> a, Comparator<?> b) {
+        Comparator<?> natural = Comparator.naturalOrder();
+        return Objects.equals(a == null ? natural : a, b == null ? natural : b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparator(Comparator<?> comparator) {
+        return comparator == null ? (Comparator<Object>) (Comparator<?>) Comparator.naturalOrder()
+                : (Comparator<Object>) comparator;
+    }
+
+    private enum Kind {FILTER, MAP, SORTED, LIMIT}
+
+    private static final class Stage {
+        final Kind kind;
+        final Predicate<Object> predicate;
+        final Function<Object, Object> mapper;
+        final Comparator<?> comparator;
+        final long limit;
+
+        @SuppressWarnings("unchecked")
+        Stage(Kind kind, Predicate<?> predicate, Function<?, ?> mapper, Comparator<?> comparator, long limit) {
+            this.kind = kind;
+            this.predicate = (Predicate<Object>) predicate;
+            this.mapper = (Function<Object, Object>) mapper;
+            this.comparator = comparator;
+            this.limit = limit;
+        }
+    }
+
+    /**
+     * 推送式的下游，accept 返回 false 表示不再需要更多元素
+     */
+    private abstract static class Sink {
+        abstract boolean accept(Object value);
+
+        void end() {
+        }
+    }
+
+    private interface Step {
+        Sink sink(Sink downstream);
+    }
+
+    private static final class FusedStep implements Step {
+        private final Stage[] stages;
+
+        FusedStep(Stage[] stages) {
+            this.stages = stages;
+        }
+
+        @Override
+        public Sink sink(Sink downstream) {
+            return new Sink() {
+                @Override
+                boolean accept(Object value) {
+                    Object v = value;
+                    for (Stage stage : stages) {
+                        if (stage.kind == Kind.FILTER) {
+                            if (!stage.predicate.test(v)) {
+                                return true;
+                            }
+                        } else {
+                            v = stage.mapper.apply(v);
+                        }
+                    }
+                    return downstream.accept(v);
+                }
+
+                @Override
+                void end() {
+                    downstream.end();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("fused[");
+            for (int i = 0; i < stages.length; i++) {
+                sb.append(i > 0 ? ", " : "").append(stages[i].kind.name().toLowerCase());
+            }
+            return sb.append(']').toString();
+        }
+    }
+
+    private static final class LimitStep implements Step {
+        private final long limit;
+
+        LimitStep(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public Sink sink(Sink downstream) {
+            return new Sink() {
+                private long count;
+
+                @Override
+                boolean accept(Object value) {
+                    if (count >= limit) {
+                        return false;
+                    }
+                    count++;
+                    return downstream.accept(value) && count < limit;
+                }
+
+                @Override
+                void end() {
+                    downstream.end();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "limit(" + limit + ")";
+        }
+    }
+
+    /**
+     * 全量排序，Arrays.sort 对对象是稳定的
+     */
+    private static final class SortStep implements Step {
+        private final Comparator<?> comparator;
+
+        SortStep(Comparator<?> comparator) {
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Sink sink(Sink downstream) {
+            return new Sink() {
+                private final List<Object> buffer = new ArrayList<>();
+
+                @Override
+                boolean accept(Object value) {
+                    buffer.add(value);
+                    return true;
+                }
+
+                @Override
+                void end() {
+                    Object[] values = buffer.toArray();
+                    Arrays.sort(values, comparator(comparator));
+                    for (Object value : values) {
+                        if (!downstream.accept(value)) {
+                            break;
+                        }
+                    }
+                    downstream.end();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "sorted";
+        }
+    }
+
+    /**
+     * 用大小为 k 的最大堆保留最小的 k 个元素
+     * 比较结果相同时按到达顺序，先到的算小，因此与稳定排序后取前 k 个的结果完全一致
+     */
+    private static final class TopKStep implements Step {
+        private final Comparator<?> comparator;
+        private final int k;
+
+        TopKStep(Comparator<?> comparator, long k) {
+            this.comparator = comparator;
+            this.k = (int) Math.min(k, Integer.MAX_VALUE - 8);
+        }
+
+        @Override
+        public Sink sink(Sink downstream) {
+            Comparator<Object> order = comparator(comparator);
+            return new Sink() {
+                private Object[] heap = new Object[Math.min(k, 16)];
+                private long[] seqs = new long[heap.length];
+                private int size;
+                private long seq;
+
+                @Override
+                boolean accept(Object value) {
+                    long s = seq++;
+                    if (k == 0) {
+                        return false;
+                    }
+                    if (size < k) {
+                        if (size == heap.length) {
+                            int capacity = (int) Math.min(k, heap.length * 2L);
+                            heap = Arrays.copyOf(heap, capacity);
+                            seqs = Arrays.copyOf(seqs, capacity);
+                        }
+                        heap[size] = value;
+                        seqs[size] = s;
+                        siftUp(size++);
+                    } else if (order.compare(value, heap[0]) < 0) {
+                        // 只有严格更小才替换堆顶；相等时新元素到达更晚，排在后面
+                        heap[0] = value;
+                        seqs[0] = s;
+                        siftDown(0);
+                    }
+                    return true;
+                }
+
+                @Override
+                void end() {
+                    // 依次取出堆顶得到从大到小的顺序，倒序写入
+                    Object[] result = new Object[size];
+                    for (int i = size - 1; i >= 0; i--) {
+                        result[i] = heap[0];
+                        size--;
+                        heap[0] = heap[size];
+                        seqs[0] = seqs[size];
+                        heap[size] = null;
+                        siftDown(0);
+                    }
+                    for (Object value : result) {
+                        if (!downstream.accept(value)) {
+                            break;
+                        }
+                    }
+                    downstream.end();
+                }
+
+                /** a 是否排在 b 之后 */
+                private boolean after(int a, int b) {
+                    int c = order.compare(heap[a], heap[b]);
+                    return c > 0 || (c == 0 && seqs[a] > seqs[b]);
+                }
+
+                private void siftUp(int i) {
+                    while (i > 0) {
+                        int parent = (i - 1) >>> 1;
+                        if (!after(i, parent)) {
+                            break;
+                        }
+                        swap(i, parent);
+                        i = parent;
+                    }
+                }
+
+                private void siftDown(int i) {
+                    while (true) {
+                        int left = 2 * i + 1;
+                        if (left >= size) {
+                            break;
+                        }
+                        int largest = left + 1 < size && after(left + 1, left) ? left + 1 : left;
+                        if (!after(largest, i)) {
+                            break;
+                        }
+                        swap(i, largest);
+                        i = largest;
+                    }
+                }
+
+                private void swap(int a, int b) {
+                    Object value = heap[a];
+                    heap[a] = heap[b];
+                    heap[b] = value;
+                    long s = seqs[a];
+                    seqs[a] = seqs[b];
+                    seqs[b] = s;
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "topK(" + k + ")";
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline 与 Stream 的结果对比（含大量相等元素，检查排序稳定性），以及 Top-K 的耗时和内存对比
+ * 用法：PipelineBenchmark [元素数，默认 10000000] [k，默认 10]
+ */
+public class PipelineBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        check();
+
+        List<String> names = names(n, 23);
+        time("Stream  filter→map→sorted→limit", () -> names.stream()
+                .filter(name -> name.length() > 3)
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .sorted()
+                .limit(k)
+                .collect(Collectors.toList()));
+        time("Pipeline filter→map→sorted→limit", () -> Pipeline.from(names)
+                .filter(name -> name.length() > 3)
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .sorted()
+                .limit(k)
+                .toList());
+        System.out.println(Pipeline.from(names).filter(name -> name.length() > 3)
+                .map(name -> name.toUpperCase(Locale.ROOT)).sorted().limit(k).explain());
+
+        // 来源按需生成，不落地：Top-K 只占用 O(k) 内存
+        int huge = n * 10;
+        long before = usedMemory();
+        long start = System.nanoTime();
+        List<Long> top = Pipeline.from(() -> randomLongs(huge, 29))
+                .filter(v -> (v & 1) == 0)
+                .sorted(Comparator.reverseOrder())
+                .limit(k)
+                .toList();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Pipeline Top-%d / %d 个生成的元素：%d ms，GC 后堆占用变化 %d KB，最大值 %d%n", k, huge,
+                elapsed / 1_000_000, Math.max(0, usedMemory() - before) >> 10, top.get(0));
+    }
+
+    /**
+     * 与同样写法的 Stream 结果完全一致
+     */
+    private static void check() {
+        List<String> names = names(200_000, 31);
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        for (int k : new int[]{0, 1, 7, 1000, 300_000}) {
+            same(names.stream().filter(s -> s.length() > 3).map(s -> s.toUpperCase(Locale.ROOT)).sorted().limit(k)
+                            .collect(Collectors.toList()),
+                    Pipeline.from(names).filter(s -> s.length() > 3).map(s -> s.toUpperCase(Locale.ROOT)).sorted().limit(k).toList());
+            // 只按长度比较，大量相等元素，检验稳定性
+            same(names.stream().sorted(byLength).map(s -> s + "!").limit(k).collect(Collectors.toList()),
+                    Pipeline.from(names).sorted(byLength).map(s -> s + "!").limit(k).toList());
+            same(names.stream().sorted(byLength).filter(s -> s.charAt(0) < 'M').limit(k).collect(Collectors.toList()),
+                    Pipeline.from(names).sorted(byLength).filter(s -> s.charAt(0) < 'M').limit(k).toList());
+            same(names.stream().limit(k).filter(s -> s.length() > 5).sorted(byLength).collect(Collectors.toList()),
+                    Pipeline.from(names).limit(k).filter(s -> s.length() > 5).sorted(byLength).toList());
+        }
+        List<String> sorted = names.stream().sorted().collect(Collectors.toList());
+        Pipeline<String> presorted = Pipeline.fromSorted(sorted, null).filter(s -> s.length() > 3).sorted().limit(5);
+        same(sorted.stream().filter(s -> s.length() > 3).limit(5).collect(Collectors.toList()), presorted.toList());
+        if (!presorted.explain().equals("source(sorted) -> fused[filter] -> limit(5)")) {
+            throw new AssertionError(presorted.explain());
+        }
+        System.out.println("结果与 Stream 一致");
+    }
+
+    private static <T> void same(List<T> expected, List<T> actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError("expected " + head(expected) + " but was " + head(actual));
+        }
+    }
+
+    private static <T> List<T> head(List<T> list) {
+        return list.subList(0, Math.min(10, list.size()));
+    }
+
+    private static List<String> names(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> names = new ArrayList<>(n);
+        char[] chars = new char[8];
+        for (int i = 0; i < n; i++) {
+            int length = 2 + random.nextInt(7);
+            chars[0] = (char) ('A' + random.nextInt(26));
+            for (int j = 1; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            names.add(new String(chars, 0, length));
+        }
+        return names;
+    }
+
+    private static Iterator<Long> randomLongs(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return new Iterator<Long>() {
+            private int remaining = n;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Long next() {
+                remaining--;
+                return random.nextLong();
+            }
+        };
+    }
+
+    private static void time(String name, Supplier<List<String>> body) {
+        long best = Long.MAX_VALUE;
+        List<String> result = null;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            result = body.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-34s %6d ms  %s%n", name, best / 1_000_000, result);
+    }
+
+    /**
+     * GC 后仍在使用的堆内存
+     */
+    private static long usedMemory() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
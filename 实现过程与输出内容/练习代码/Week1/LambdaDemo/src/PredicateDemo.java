@@ -25,6 +25,11 @@ public class PredicateDemo {
         List<String> result4 = filterNames(names, startWithA.and(lengthGreaterThan3));
         System.out.println(result4);
         
+        //前缀条件走索引，其他条件并行过滤
+        NameIndex index = new NameIndex(names);
+        System.out.println(index.filterNames(names, NameIndex.startsWith("A")));
+        System.out.println(index.filterNames(names, NameIndex.startsWith("A").and(lengthGreaterThan3)));
+        System.out.println(index.filterNames(names, lengthGreaterThan3));
     }
     public static List<String> filterNames(List<String> names, Predicate<String> predicate) {
         List<String> result = new ArrayList<>();
@@ -0,0 +1,84 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 作用域中的一个任务，可以 get() 取结果、cancel() 取消，并记录排队和运行耗时
+ */
+public class Task<T> extends FutureTask<T> {
+    private final TaskScope scope;
+    private final TaskMetrics metrics;
+    private final long submittedAt = System.nanoTime();
+    private volatile Thread worker;
+    private volatile long waitNanos;
+    private volatile long runNanos;
+    
+    Task(Callable<T> callable, TaskScope scope, TaskMetrics metrics) {
+        super(callable);
+        this.scope = scope;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public void run() {
+        worker = Thread.currentThread();
+        boolean acquired = false;
+        try {
+            if (!isDone()) {
+                scope.permits().acquire();
+                acquired = true;
+            }
+            long start = System.nanoTime();
+            waitNanos = start - submittedAt;
+            super.run();
+            runNanos = System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            // 等待许可时被取消
+            cancel(false);
+        } finally {
+            if (acquired) {
+                scope.permits().release();
+            }
+            worker = null;
+            // 清除取消时可能迟到的中断，避免影响线程池中的下一个任务
+            Thread.interrupted();
+            metrics.record(this);
+            scope.finished(this);
+        }
+    }
+    
+    /**
+     * 取消时也中断还在等待许可的线程
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Thread thread = worker;
+        if (cancelled && mayInterruptIfRunning && thread != null) {
+            thread.interrupt();
+        }
+        return cancelled;
+    }
+    
+    /**
+     * 从提交到开始运行的时间，包括等待并发许可
+     */
+    public long waitNanos() {
+        return waitNanos;
+    }
+    
+    public long runNanos() {
+        return runNanos;
+    }
+    
+    boolean failed() {
+        if (!isDone() || isCancelled()) {
+            return false;
+        }
+        try {
+            get();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
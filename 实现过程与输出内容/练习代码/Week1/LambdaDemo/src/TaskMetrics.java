@@ -0,0 +1,60 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务统计，各计数器使用 LongAdder，大量任务同时结束时也不会互相争用
+ */
+public class TaskMetrics {
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+    
+    void recordSubmitted() {
+        submitted.increment();
+    }
+    
+    void record(Task<?> task) {
+        if (task.isCancelled()) {
+            cancelled.increment();
+            return;
+        }
+        if (task.failed()) {
+            failed.increment();
+        } else {
+            completed.increment();
+        }
+        totalWaitNanos.add(task.waitNanos());
+        totalRunNanos.add(task.runNanos());
+        maxRunNanos.accumulate(task.runNanos());
+    }
+    
+    public long submitted() {
+        return submitted.sum();
+    }
+    
+    public long completed() {
+        return completed.sum();
+    }
+    
+    public long failed() {
+        return failed.sum();
+    }
+    
+    public long cancelled() {
+        return cancelled.sum();
+    }
+    
+    @Override
+    public String toString() {
+        long finished = completed.sum() + failed.sum();
+        return String.format("提交 %d，完成 %d，失败 %d，取消 %d，平均等待 %.2f ms，平均运行 %.2f ms，最长运行 %.2f ms",
+                submitted.sum(), completed.sum(), failed.sum(), cancelled.sum(),
+                finished == 0 ? 0 : totalWaitNanos.sum() / 1e6 / finished,
+                finished == 0 ? 0 : totalRunNanos.sum() / 1e6 / finished,
+                maxRunNanos.get() / 1e6);
+    }
+}
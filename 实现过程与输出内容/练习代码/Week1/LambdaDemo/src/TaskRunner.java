@@ -0,0 +1,94 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务运行器：每个任务一个虚拟线程，阻塞（sleep、IO）时不占用平台线程
+ * 通过 {@link #openScope()} 打开结构化的作用域提交任务，作用域关闭前所有任务都已结束；
+ * 同时运行的任务数由信号量限制，耗时统计见 {@link TaskMetrics}。
+ * 虚拟线程需要 JDK 21，这里通过反射获取，在更低版本上退回到固定大小的平台线程池
+ */
+public class TaskRunner implements AutoCloseable {
+    /** 没有虚拟线程时平台线程池的上限 */
+    private static final int MAX_PLATFORM_THREADS = 256;
+    private static final ThreadFactory VIRTUAL_FACTORY = virtualThreadFactory();
+    
+    private final Semaphore permits;
+    private final TaskMetrics metrics = new TaskMetrics();
+    /** 没有虚拟线程时使用，否则为 null */
+    private final ExecutorService platformPool;
+    
+    /**
+     * @param maxConcurrency 同时运行的最大任务数
+     */
+    public TaskRunner(int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.platformPool = VIRTUAL_FACTORY == null
+                ? Executors.newFixedThreadPool(Math.min(maxConcurrency, MAX_PLATFORM_THREADS))
+                : null;
+    }
+    
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_FACTORY != null;
+    }
+    
+    public TaskScope openScope() {
+        return new TaskScope(this);
+    }
+    
+    public TaskMetrics metrics() {
+        return metrics;
+    }
+    
+    Semaphore permits() {
+        return permits;
+    }
+    
+    void start(Runnable task) {
+        if (platformPool != null) {
+            platformPool.execute(task);
+        } else {
+            VIRTUAL_FACTORY.newThread(task).start();
+        }
+    }
+    
+    /**
+     * 等待平台线程池中的任务结束；等待期间被中断也继续等完，返回前恢复中断标志
+     */
+    @Override
+    public void close() {
+        if (platformPool != null) {
+            platformPool.shutdown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    platformPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * 相当于 Thread.ofVirtual().name("task-", 0).factory()，JDK 21 以下返回 null
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = ofVirtual.getReturnType();
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "task-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测：大量同时阻塞 1 秒的任务
+ * 用法：TaskRunnerLoadTest [任务数，默认 100000]
+ * 在 JDK 21 以上运行时使用虚拟线程，10 万个任务约 1 秒完成；低版本退回平台线程池，仅供对比
+ */
+public class TaskRunnerLoadTest {
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        boolean virtual = TaskRunner.virtualThreadsAvailable();
+        System.out.println("虚拟线程：" + (virtual ? "可用" : "不可用，使用平台线程池"));
+        
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long peakUsed = usedBefore;
+        long start = System.nanoTime();
+        try (TaskRunner runner = new TaskRunner(count);
+             TaskScope scope = runner.openScope()) {
+            for (int i = 0; i < count; i++) {
+                scope.fork(() -> {
+                    Thread.sleep(1000);
+                    return null;
+                });
+            }
+            // 等待期间采样内存占用
+            while (!scope.join(100, TimeUnit.MILLISECONDS)) {
+                peakUsed = Math.max(peakUsed, runtime.totalMemory() - runtime.freeMemory());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d 个任务耗时 %.2f s，吞吐 %.0f 任务/s，堆占用峰值约增加 %d MB%n",
+                    count, seconds, count / seconds, (peakUsed - usedBefore) >> 20);
+            System.out.println(runner.metrics());
+        }
+    }
+}
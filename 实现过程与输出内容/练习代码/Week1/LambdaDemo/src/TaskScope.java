@@ -0,0 +1,125 @@
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 结构化的任务作用域：fork 出的任务属于这个作用域，close 时取消未完成的任务并等待它们全部退出，
+ * 任务不会比作用域活得更久。配合 try-with-resources 使用：
+ * <pre>
+ * try (TaskScope scope = runner.openScope()) {
+ *     Task&lt;String&gt; a = scope.fork(() -&gt; ...);
+ *     scope.join();
+ * }
+ * </pre>
+ */
+public class TaskScope implements AutoCloseable {
+    private final TaskRunner runner;
+    private final Set<Task<?>> tasks = ConcurrentHashMap.newKeySet();
+    /** 还没有退出 run() 的任务数 */
+    private final AtomicInteger running = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile boolean closed;
+    
+    TaskScope(TaskRunner runner) {
+        this.runner = runner;
+    }
+    
+    public <T> Task<T> fork(Callable<T> callable) {
+        if (closed) {
+            throw new IllegalStateException("scope is closed");
+        }
+        Task<T> task = new Task<>(callable, this, runner.metrics());
+        tasks.add(task);
+        running.incrementAndGet();
+        runner.metrics().recordSubmitted();
+        runner.start(task);
+        return task;
+    }
+    
+    public Task<Void> fork(Runnable runnable) {
+        return fork(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+    
+    /**
+     * 等待所有任务结束（完成、失败或取消）
+     */
+    public void join() throws InterruptedException {
+        synchronized (lock) {
+            while (running.get() > 0) {
+                lock.wait();
+            }
+        }
+    }
+    
+    /**
+     * 最多等待指定时间，全部结束返回 true
+     */
+    public boolean join(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (running.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 取消所有未完成的任务，正在运行的任务会被中断
+     */
+    public void cancel() {
+        for (Task<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+    
+    public int runningCount() {
+        return running.get();
+    }
+    
+    /**
+     * 取消未完成的任务并等待它们退出；等待期间被中断也继续等完（任务已被取消，很快会退出），
+     * 返回前恢复中断标志，保证作用域关闭后没有任务还在运行
+     */
+    @Override
+    public void close() {
+        closed = true;
+        cancel();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        tasks.clear();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    Semaphore permits() {
+        return runner.permits();
+    }
+    
+    void finished(Task<?> task) {
+        tasks.remove(task);
+        if (running.decrementAndGet() == 0) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
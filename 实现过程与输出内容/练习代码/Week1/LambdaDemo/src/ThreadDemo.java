@@ -32,6 +32,23 @@ public class ThreadDemo {
                 System.out.println("线程" + threadNumber + "执行完毕！");
             }).start();
         }
-    
+        
+        // 使用虚拟线程的任务运行器：结构化作用域，作用域结束时所有任务都已完成
+        try (TaskRunner runner = new TaskRunner(1000);
+             TaskScope scope = runner.openScope()) {
+            for (int i = 0; i < 5; i++) {
+                final int taskNumber = i;
+                scope.fork(() -> {
+                    System.out.println("任务" + taskNumber + "开始执行！");
+                    Thread.sleep(1000);
+                    System.out.println("任务" + taskNumber + "执行完毕！");
+                    return taskNumber;
+                });
+            }
+            scope.join();
+            System.out.println(runner.metrics());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
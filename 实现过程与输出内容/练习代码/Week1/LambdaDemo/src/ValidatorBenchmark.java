@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * 20 条规则的验证链：嵌套 lambda vs 编译后的扁平数组 vs 自适应重排 vs 批量验证
+ * 规则按"开销大、几乎都通过"到"开销小、经常拒绝"的顺序书写，模拟写得不理想的链
+ */
+public class ValidatorBenchmark {
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<String> inputs = new ArrayList<>(count);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < count; i++) {
+            int length = random.nextInt(30);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            inputs.add(random.nextInt(20) == 0 ? null : sb.toString());
+        }
+        
+        Validator<String> chain = buildChain();
+        CompiledValidator<String> compiled = CompiledValidator.compile(buildChain(), false);
+        CompiledValidator<String> adaptive = CompiledValidator.compile(buildChain(), true);
+        
+        // 先用原始写法的嵌套 lambda 作为基准
+        Validator<String> nested = buildNestedChain();
+        run("nested lambda", nested, inputs);
+        run("composite", chain, inputs);
+        run("compiled", compiled, inputs);
+        run("compiled adaptive", adaptive, inputs);
+        System.out.println(adaptive.describe());
+        
+        // 批量接口：逐列执行 + 并行
+        String[] array = inputs.toArray(new String[0]);
+        long best = Long.MAX_VALUE;
+        long[] mask = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            mask = BatchValidator.validateParallel(adaptive, array);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-18s %8.1f ms  通过：%d%n", "batch parallel", best / 1e6,
+                count - BatchValidator.failingRows(mask, count).length);
+    }
+    
+    private static void run(String name, Validator<String> validator, List<String> inputs) {
+        long best = Long.MAX_VALUE;
+        int passed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            passed = 0;
+            for (String input : inputs) {
+                if (validator.validate(input)) {
+                    passed++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-18s %8.1f ms  通过：%d%n", name, best / 1e6, passed);
+    }
+    
+    private static List<Validator<String>> rules() {
+        Pattern lettersOnly = Pattern.compile("[a-z]*");
+        List<Validator<String>> rules = new ArrayList<>();
+        rules.add(value -> lettersOnly.matcher(value).matches());
+        for (int i = 0; i < 15; i++) {
+            final char banned = (char) ('0' + i % 10);
+            rules.add(value -> value.indexOf(banned) < 0);
+        }
+        rules.add(value -> !value.contains("zzz"));
+        rules.add(value -> value.chars().distinct().count() > 2);
+        rules.add(value -> !value.isEmpty());
+        rules.add(value -> value.length() >= 25);
+        return rules;
+    }
+    
+    private static Validator<String> buildChain() {
+        Validator<String> chain = Validator.notNull();
+        for (Validator<String> rule : rules()) {
+            chain = chain.and(rule);
+        }
+        return chain;
+    }
+    
+    /**
+     * 与修改前 Validator.and 的实现相同：每次组合包一层 lambda
+     */
+    private static Validator<String> buildNestedChain() {
+        Validator<String> chain = value -> value != null;
+        for (Validator<String> rule : rules()) {
+            Validator<String> left = chain;
+            chain = value -> left.validate(value) && rule.validate(value);
+        }
+        return chain;
+    }
+}
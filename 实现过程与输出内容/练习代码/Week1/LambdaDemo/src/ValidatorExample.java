@@ -1,3 +1,7 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
 /**
  * 自定义函数式接口
  */
@@ -14,6 +18,17 @@ public class ValidatorExample {
         
         System.out.println(combined.validate("Hello"));  // true
         System.out.println(combined.validate("Hi"));     // false
+        
+        // 编译为扁平数组，并根据运行时统计调整规则顺序
+        CompiledValidator<String> compiled = CompiledValidator.compile(combined, true);
+        System.out.println(compiled.validate("Hello"));  // true
+        System.out.println(compiled.validate(null));     // false
+        System.out.println(compiled.describe());
+        
+        // 批量验证，返回通过的下标
+        List<String> values = Arrays.asList("Hello", "Hi", null, "World!", "");
+        BitSet passed = combined.validateAll(values);
+        System.out.println(passed);  // {0, 3}
     }
 }
 
@@ -21,15 +36,32 @@ public class ValidatorExample {
 interface Validator<T> {
     boolean validate(T value);
     
+    /**
+     * 组合结果保留了规则列表，连续的 and 会合并为同一层，可以交给 {@link CompiledValidator#compile} 展开
+     */
     default Validator<T> and(Validator<T> other) {
-        return value -> this.validate(value) && other.validate(value);
+        return CompositeValidator.and(this, other);
     }
     
     default Validator<T> or(Validator<T> other) {
-        return value -> this.validate(value) || other.validate(value);
+        return CompositeValidator.or(this, other);
+    }
+    
+    /**
+     * 批量验证，返回通过验证的下标集合，数量大时并行执行
+     */
+    default BitSet validateAll(List<? extends T> values) {
+        return BatchValidator.validateAll(this, values);
     }
     
     static <T> Validator<T> notNull() {
-        return value -> value != null;
+        return guard(value -> value != null);
+    }
+    
+    /**
+     * 标记为前置条件：后面的规则依赖它先通过（例如非空检查），重排规则时不会越过它
+     */
+    static <T> Validator<T> guard(Validator<T> validator) {
+        return new CompositeValidator.Guard<>(validator);
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行基准测试，参数与 JMH 命令行相同，例如：
+ * <pre>
+ * mvn -B package
+ * java -jar target/benchmarks.jar                       # 全部
+ * java -jar target/benchmarks.jar Filter -p size=1000   # 只跑 FilterBenchmark 的一种规模
+ * </pre>
+ * 未指定 -rf / -rff 时结果以 JSON 写入 {@value #DEFAULT_RESULT}，可以与上次的结果比较发现性能回退
+ */
+public class BenchmarkMain {
+    static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+                || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CollectionExample 的 filter → map → sorted 流水线
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionPipelineBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        names = DataGenerator.names(size);
+    }
+
+    @Benchmark
+    public List<String> loop() {
+        return Pipelines.upperSortedLoop(names);
+    }
+
+    @Benchmark
+    public List<String> stream() {
+        return Pipelines.upperSortedStream(names);
+    }
+
+    @Benchmark
+    public List<String> parallelStream() {
+        return Pipelines.upperSortedParallel(names);
+    }
+}
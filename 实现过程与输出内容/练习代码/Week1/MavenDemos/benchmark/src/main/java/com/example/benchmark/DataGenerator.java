@@ -0,0 +1,74 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 生成固定种子的测试数据，同一规模每次运行得到相同的输入，结果之间可以直接比较
+ */
+public final class DataGenerator {
+    static final String[] CITIES = {"New York", "London", "Paris", "Tokyo", "Beijing", "Shanghai", "Berlin", "Sydney"};
+    private static final String[] WORDS = {"stream", "lambda", "collector", "benchmark", "Java", "API", "parallel",
+            "filter", "map", "sorted", "partition", "grouping", "函数式", "编程", "并行流", "基准测试"};
+    private static final long SEED = 42;
+
+    private DataGenerator() {
+    }
+
+    /**
+     * 长度 3 到 10 的名字，首字母大写，约 1/26 以 "A" 开头
+     */
+    public static List<String> names(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> names = new ArrayList<>(size);
+        char[] chars = new char[10];
+        for (int i = 0; i < size; i++) {
+            int length = 3 + random.nextInt(8);
+            chars[0] = (char) ('A' + random.nextInt(26));
+            for (int j = 1; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            names.add(new String(chars, 0, length));
+        }
+        return names;
+    }
+
+    public static List<Person> people(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> names = names(size);
+        List<Person> people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person(names.get(i), 18 + random.nextInt(60), CITIES[random.nextInt(CITIES.length)]));
+        }
+        return people;
+    }
+
+    /**
+     * 空格分隔的文本行，每行 5 到 20 个词，词后面偶尔带一个数字使词表足够大
+     */
+    public static List<String> lines(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> lines = new ArrayList<>(size);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.setLength(0);
+            int words = 5 + random.nextInt(16);
+            for (int j = 0; j < words; j++) {
+                if (j > 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+                if (random.nextInt(4) == 0) {
+                    sb.append(random.nextInt(1000));
+                }
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    public static int[] ints(int size) {
+        return new SplittableRandom(SEED).ints(size, 0, 1_000_000).toArray();
+    }
+}
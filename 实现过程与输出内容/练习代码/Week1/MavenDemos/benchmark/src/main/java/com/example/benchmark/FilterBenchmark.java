@@ -0,0 +1,50 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PredicateDemo.filterNames 的 for 循环与 stream().filter 对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<String> names;
+    private final Predicate<String> predicate = ((Predicate<String>) name -> name.startsWith("A"))
+            .and(name -> name.length() > 3);
+
+    @Setup
+    public void setUp() {
+        names = DataGenerator.names(size);
+    }
+
+    @Benchmark
+    public List<String> loop() {
+        return Pipelines.filterNamesLoop(names, predicate);
+    }
+
+    @Benchmark
+    public List<String> stream() {
+        return Pipelines.filterNamesStream(names, predicate);
+    }
+}
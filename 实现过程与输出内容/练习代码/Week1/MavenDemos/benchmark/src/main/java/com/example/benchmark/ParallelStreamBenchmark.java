@@ -0,0 +1,51 @@
+package com.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 顺序流与并行流在不同数据量下的差别：数据量小时并行的拆分和合并开销占主导
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelStreamBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private int[] values;
+
+    @Setup
+    public void setUp() {
+        values = DataGenerator.ints(size);
+    }
+
+    @Benchmark
+    public long loop() {
+        return Pipelines.sumOfEvenSquaresLoop(values);
+    }
+
+    @Benchmark
+    public long sequentialStream() {
+        return Pipelines.sumOfEvenSquaresStream(values);
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return Pipelines.sumOfEvenSquaresParallel(values);
+    }
+}
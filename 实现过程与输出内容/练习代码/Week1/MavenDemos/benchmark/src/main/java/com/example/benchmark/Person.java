@@ -0,0 +1,28 @@
+package com.example.benchmark;
+
+/**
+ * 与 StreamAPIDemo 中的 Person 相同的字段，基准测试只读不写
+ */
+public final class Person {
+    private final String name;
+    private final int age;
+    private final String city;
+
+    public Person(String name, int age, String city) {
+        this.name = name;
+        this.age = age;
+        this.city = city;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public String getCity() {
+        return city;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PersonDemo 的分组平均和过滤排序
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonGroupingBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Person> people;
+
+    @Setup
+    public void setUp() {
+        people = DataGenerator.people(size);
+    }
+
+    @Benchmark
+    public Map<String, Double> averageAgeLoop() {
+        return Pipelines.averageAgeByCityLoop(people);
+    }
+
+    @Benchmark
+    public Map<String, Double> averageAgeStream() {
+        return Pipelines.averageAgeByCityStream(people);
+    }
+
+    @Benchmark
+    public Map<String, Double> averageAgeParallel() {
+        return Pipelines.averageAgeByCityParallel(people);
+    }
+
+    @Benchmark
+    public List<String> namesInCityLoop() {
+        return Pipelines.namesInCityLoop(people, "New York", 25);
+    }
+
+    @Benchmark
+    public List<String> namesInCityStream() {
+        return Pipelines.namesInCityStream(people, "New York", 25);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 示例代码中各条流水线的命令式写法和 Stream 写法
+ * 示例代码在默认包中，无法从这里引用（JMH 也不支持默认包中的基准类），所以按原样重写一份；
+ * 每对方法的结果相同，由 PipelinesTest 保证
+ */
+public final class Pipelines {
+    private Pipelines() {
+    }
+
+    /**
+     * LambdaDemo PredicateDemo.filterNames：for 循环过滤
+     */
+    public static List<String> filterNamesLoop(List<String> names, Predicate<String> predicate) {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            if (predicate.test(name)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    public static List<String> filterNamesStream(List<String> names, Predicate<String> predicate) {
+        return names.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    /**
+     * LambdaDemo CollectionExample：filter(length > 3) → toUpperCase → sorted
+     */
+    public static List<String> upperSortedLoop(List<String> names) {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            if (name.length() > 3) {
+                result.add(name.toUpperCase(Locale.ROOT));
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public static List<String> upperSortedStream(List<String> names) {
+        return names.stream()
+                .filter(name -> name.length() > 3)
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public static List<String> upperSortedParallel(List<String> names) {
+        return names.parallelStream()
+                .filter(name -> name.length() > 3)
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * StreamAPIDemo PersonDemo：按城市分组统计平均年龄
+     */
+    public static Map<String, Double> averageAgeByCityLoop(List<Person> people) {
+        Map<String, long[]> sums = new HashMap<>();
+        for (Person person : people) {
+            long[] sum = sums.computeIfAbsent(person.getCity(), city -> new long[2]);
+            sum[0] += person.getAge();
+            sum[1]++;
+        }
+        Map<String, Double> result = new HashMap<>();
+        sums.forEach((city, sum) -> result.put(city, (double) sum[0] / sum[1]));
+        return result;
+    }
+
+    public static Map<String, Double> averageAgeByCityStream(List<Person> people) {
+        return people.stream()
+                .collect(Collectors.groupingBy(Person::getCity, Collectors.averagingInt(Person::getAge)));
+    }
+
+    public static Map<String, Double> averageAgeByCityParallel(List<Person> people) {
+        return people.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Person::getCity, Collectors.averagingInt(Person::getAge)));
+    }
+
+    /**
+     * StreamAPIDemo PersonDemo：纽约年龄大于 25 岁的人名，排序
+     */
+    public static List<String> namesInCityLoop(List<Person> people, String city, int minAge) {
+        List<String> result = new ArrayList<>();
+        for (Person person : people) {
+            if (city.equals(person.getCity()) && person.getAge() > minAge) {
+                result.add(person.getName());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public static List<String> namesInCityStream(List<Person> people, String city, int minAge) {
+        return people.stream()
+                .filter(person -> city.equals(person.getCity()))
+                .filter(person -> person.getAge() > minAge)
+                .map(Person::getName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * StreamAPIDemo FileDemo.streamLongWords：按空格切分，长度大于 5 的词去重排序
+     */
+    public static List<String> longWordsLoop(List<String> lines) {
+        Set<String> words = new HashSet<>();
+        for (String line : lines) {
+            int start = 0;
+            int length = line.length();
+            while (start <= length) {
+                int end = line.indexOf(' ', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end - start > 5) {
+                    words.add(line.substring(start, end));
+                }
+                start = end + 1;
+            }
+        }
+        List<String> result = new ArrayList<>(words);
+        Collections.sort(result);
+        return result;
+    }
+
+    public static List<String> longWordsStream(List<String> lines) {
+        return lines.stream()
+                .flatMap(line -> Arrays.stream(line.split(" ")))
+                .filter(word -> word.length() > 5)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public static List<String> longWordsParallel(List<String> lines) {
+        return lines.parallelStream()
+                .flatMap(line -> Arrays.stream(line.split(" ")))
+                .filter(word -> word.length() > 5)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 简单的数值归约：偶数平方和
+     */
+    public static long sumOfEvenSquaresLoop(int[] values) {
+        long sum = 0;
+        for (int value : values) {
+            if ((value & 1) == 0) {
+                sum += (long) value * value;
+            }
+        }
+        return sum;
+    }
+
+    public static long sumOfEvenSquaresStream(int[] values) {
+        return Arrays.stream(values).filter(v -> (v & 1) == 0).mapToLong(v -> (long) v * v).sum();
+    }
+
+    public static long sumOfEvenSquaresParallel(int[] values) {
+        return Arrays.stream(values).parallel().filter(v -> (v & 1) == 0).mapToLong(v -> (long) v * v).sum();
+    }
+}
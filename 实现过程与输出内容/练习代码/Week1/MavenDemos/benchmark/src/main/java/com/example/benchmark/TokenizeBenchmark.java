@@ -0,0 +1,52 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FileDemo 的按空格切分、过滤长词、去重排序，输入为内存中的文本行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizeBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    private List<String> text;
+
+    @Setup
+    public void setUp() {
+        text = DataGenerator.lines(lines);
+    }
+
+    @Benchmark
+    public List<String> loop() {
+        return Pipelines.longWordsLoop(text);
+    }
+
+    @Benchmark
+    public List<String> stream() {
+        return Pipelines.longWordsStream(text);
+    }
+
+    @Benchmark
+    public List<String> parallelStream() {
+        return Pipelines.longWordsParallel(text);
+    }
+}
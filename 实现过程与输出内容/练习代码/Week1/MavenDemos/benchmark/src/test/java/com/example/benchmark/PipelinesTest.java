@@ -0,0 +1,76 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 同一条流水线的各种写法结果必须相同，否则基准测试的对比没有意义
+ */
+public class PipelinesTest
+    extends TestCase
+{
+    private static final int SIZE = 10000;
+
+    public PipelinesTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PipelinesTest.class );
+    }
+
+    public void testFilterNames()
+    {
+        List<String> names = DataGenerator.names( SIZE );
+        Predicate<String> predicate = name -> name.startsWith( "A" ) && name.length() > 3;
+        List<String> expected = Pipelines.filterNamesLoop( names, predicate );
+        assertFalse( expected.isEmpty() );
+        assertEquals( expected, Pipelines.filterNamesStream( names, predicate ) );
+    }
+
+    public void testUpperSorted()
+    {
+        List<String> names = DataGenerator.names( SIZE );
+        List<String> expected = Pipelines.upperSortedLoop( names );
+        assertEquals( expected, Pipelines.upperSortedStream( names ) );
+        assertEquals( expected, Pipelines.upperSortedParallel( names ) );
+    }
+
+    public void testAverageAgeByCity()
+    {
+        List<Person> people = DataGenerator.people( SIZE );
+        Map<String, Double> expected = Pipelines.averageAgeByCityStream( people );
+        assertEquals( DataGenerator.CITIES.length, expected.size() );
+        for ( Map.Entry<String, Double> entry : expected.entrySet() )
+        {
+            assertEquals( entry.getValue(), Pipelines.averageAgeByCityLoop( people ).get( entry.getKey() ), 1e-9 );
+            assertEquals( entry.getValue(), Pipelines.averageAgeByCityParallel( people ).get( entry.getKey() ), 1e-9 );
+        }
+        assertEquals( Pipelines.namesInCityLoop( people, "New York", 25 ),
+                Pipelines.namesInCityStream( people, "New York", 25 ) );
+    }
+
+    public void testLongWords()
+    {
+        List<String> lines = DataGenerator.lines( SIZE );
+        List<String> expected = Pipelines.longWordsStream( lines );
+        assertFalse( expected.isEmpty() );
+        assertEquals( expected, Pipelines.longWordsLoop( lines ) );
+        assertEquals( expected, Pipelines.longWordsParallel( lines ) );
+    }
+
+    public void testSumOfEvenSquares()
+    {
+        int[] values = DataGenerator.ints( SIZE );
+        long expected = Pipelines.sumOfEvenSquaresLoop( values );
+        assertEquals( expected, Pipelines.sumOfEvenSquaresStream( values ) );
+        assertEquals( expected, Pipelines.sumOfEvenSquaresParallel( values ) );
+    }
+}
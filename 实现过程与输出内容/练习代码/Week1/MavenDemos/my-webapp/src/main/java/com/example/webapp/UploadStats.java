@@ -0,0 +1,163 @@
+package com.example.webapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次上传的统计：字节数、行数、词数、词长分布、不同词数（HyperLogLog 估计）、最长的词和出现最多的长词
+ * 所有结构的大小都有上限，与上传的大小无关：
+ * <ul>
+ *     <li>HyperLogLog 4096 个寄存器，相对误差约 1.6%</li>
+ *     <li>长词计数最多保留 2 × maxTracked 个词，满了按 Misra-Gries 的方式把所有计数减去第 maxTracked + 1 大的计数，
+ *     丢掉减到 0 的词；每个词的计数偏小，偏小的量不超过 {@link #undercount()}，没有发生过裁剪时计数精确</li>
+ * </ul>
+ */
+public class UploadStats implements WordTokenizer.WordSink {
+    private static final int HLL_BITS = 12;
+    private static final int MAX_HISTOGRAM_LENGTH = 32;
+
+    private final int minLength;
+    private final int maxTracked;
+    private final byte[] registers = new byte[1 << HLL_BITS];
+    /** 下标为词长，最后一格是更长的词 */
+    private final long[] histogram = new long[MAX_HISTOGRAM_LENGTH + 2];
+    private final Map<String, long[]> longWords = new HashMap<>();
+    private long words;
+    private long longWordCount;
+    private long undercount;
+    private String longest = "";
+    private int longestLength;
+
+    /**
+     * @param minLength  长度大于 minLength 的词为长词（与 FileDemo 相同，默认 5）
+     * @param maxTracked 至少精确跟踪的长词个数
+     */
+    public UploadStats(int minLength, int maxTracked) {
+        this.minLength = minLength;
+        this.maxTracked = maxTracked;
+    }
+
+    @Override
+    public void word(char[] chars, int charCount, int length, boolean truncated) {
+        words++;
+        histogram[Math.min(length, MAX_HISTOGRAM_LENGTH + 1)]++;
+        addToSketch(hash(chars, charCount));
+        if (length > longestLength) {
+            longestLength = length;
+            longest = new String(chars, 0, charCount) + (truncated ? "…" : "");
+        }
+        if (length > minLength) {
+            longWordCount++;
+            longWords.computeIfAbsent(new String(chars, 0, charCount), k -> new long[1])[0]++;
+            if (longWords.size() > 2 * maxTracked) {
+                prune();
+            }
+        }
+    }
+
+    public long words() {
+        return words;
+    }
+
+    public long longWordCount() {
+        return longWordCount;
+    }
+
+    public String longest() {
+        return longest;
+    }
+
+    public int longestLength() {
+        return longestLength;
+    }
+
+    /**
+     * 长度为 length 的词数，length 大于 32 时为所有更长的词
+     */
+    public long histogram(int length) {
+        return histogram[Math.min(length, MAX_HISTOGRAM_LENGTH + 1)];
+    }
+
+    /**
+     * 长词计数可能偏小的上限，0 表示精确
+     */
+    public long undercount() {
+        return undercount;
+    }
+
+    /**
+     * 当前跟踪的长词个数，不超过 2 × maxTracked
+     */
+    public int trackedWords() {
+        return longWords.size();
+    }
+
+    /**
+     * 出现最多的 limit 个长词，按次数降序、同次数按字典序
+     */
+    public List<Map.Entry<String, Long>> topLongWords(int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(longWords.size());
+        longWords.forEach((word, count) -> entries.add(Map.entry(word, count[0])));
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * 不同词数的 HyperLogLog 估计，基数较小时用线性计数修正
+     */
+    public long distinctWords() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private void prune() {
+        long[] counts = new long[longWords.size()];
+        int i = 0;
+        for (long[] count : longWords.values()) {
+            counts[i++] = count[0];
+        }
+        Arrays.sort(counts);
+        long threshold = counts[counts.length - 1 - maxTracked];
+        undercount += threshold;
+        longWords.values().removeIf(count -> (count[0] -= threshold) <= 0);
+    }
+
+    private void addToSketch(long hash) {
+        int index = (int) (hash >>> (64 - HLL_BITS));
+        int rank = Long.numberOfLeadingZeros((hash << HLL_BITS) | (1L << (HLL_BITS - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * FNV-1a 之后再做一次 64 位混合，使高位分布均匀
+     */
+    private static long hash(char[] chars, int count) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < count; i++) {
+            h = (h ^ chars[i]) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.webapp;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 上传文本文件（POST 或 PUT 请求体），返回长词和统计结果
+ * 全程非阻塞：请求体由 ReadListener 在数据到达时读取，读到多少分词多少；结果由 WriteListener 在输出可写时分块写出，
+ * 客户端读得慢时不占用容器线程。每个请求只持有一个读缓冲区、分词器和 UploadStats，内存与上传大小无关
+ * 参数（只从查询字符串读取）：minLength 长词的最小长度（不含），默认 5；top 返回出现最多的长词个数，默认 100，最多 10000
+ * 请求体按原样统计，任何内容类型都可以（curl --data-binary 默认的表单类型也一样）；multipart 上传返回 415
+ */
+public class UploadStatsServlet extends HttpServlet {
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_TOP = 10_000;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    @Override
+    public void init() {
+        String timeout = getInitParameter("timeoutMillis");
+        if (timeout != null) {
+            timeoutMillis = Long.parseLong(timeout);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                    "send the file as the raw request body, not as a multipart form");
+            return;
+        }
+        int minLength;
+        int top;
+        try {
+            minLength = intParameter(request.getQueryString(), "minLength", 5);
+            top = Math.min(intParameter(request.getQueryString(), "top", 100), MAX_TOP);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "minLength and top must be integers");
+            return;
+        }
+        AsyncContext async = request.startAsync();
+        async.setTimeout(timeoutMillis);
+        async.addListener(new TimeoutListener());
+        UploadStats stats = new UploadStats(minLength, Math.max(top, 1000));
+        ServletInputStream input = request.getInputStream();
+        input.setReadListener(new UploadReader(async, input, stats, top));
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        doPost(request, response);
+    }
+
+    private static int intParameter(String query, String name, int defaultValue) {
+        String value = queryParameter(query, name);
+        return value == null ? defaultValue : Math.max(0, Integer.parseInt(value));
+    }
+
+    /**
+     * 查询字符串中第一个名为 name 的参数，没有时返回 null
+     * 不用 request.getParameter：请求体是表单类型时，容器会在它里面同步读完整个请求体去找参数，ReadListener 就读不到内容了
+     */
+    static String queryParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8).equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 数据到达时读取并分词，读完后切换到写结果
+     */
+    private static final class UploadReader implements ReadListener {
+        private final AsyncContext async;
+        private final ServletInputStream input;
+        private final UploadStats stats;
+        private final WordTokenizer tokenizer;
+        private final int top;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        UploadReader(AsyncContext async, ServletInputStream input, UploadStats stats, int top) {
+            this.async = async;
+            this.input = input;
+            this.stats = stats;
+            this.tokenizer = new WordTokenizer(stats);
+            this.top = top;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            // isReady 为 false 时返回，容器在有新数据时再回调
+            while (input.isReady()) {
+                int n = input.read(buffer);
+                if (n < 0) {
+                    return;
+                }
+                tokenizer.feed(buffer, 0, n);
+            }
+        }
+
+        @Override
+        public void onAllDataRead() throws IOException {
+            tokenizer.finish();
+            HttpServletResponse response = (HttpServletResponse) async.getResponse();
+            response.setContentType("text/plain;charset=UTF-8");
+            ServletOutputStream output = response.getOutputStream();
+            output.setWriteListener(new ResultWriter(async, output, report(tokenizer, stats, top)));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // 客户端断开或读取超时，没有可以返回的内容
+            async.complete();
+        }
+    }
+
+    /**
+     * 输出可写时写出下一块结果，写不进去就返回，等容器再次回调
+     */
+    private static final class ResultWriter implements WriteListener {
+        private final AsyncContext async;
+        private final ServletOutputStream output;
+        private final Iterator<String> lines;
+        private final StringBuilder chunk = new StringBuilder();
+
+        ResultWriter(AsyncContext async, ServletOutputStream output, Iterator<String> lines) {
+            this.async = async;
+            this.output = output;
+            this.lines = lines;
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            while (output.isReady()) {
+                if (!lines.hasNext()) {
+                    async.complete();
+                    return;
+                }
+                chunk.setLength(0);
+                while (lines.hasNext() && chunk.length() < BUFFER_SIZE / 4) {
+                    chunk.append(lines.next()).append('\n');
+                }
+                output.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            async.complete();
+        }
+    }
+
+    /**
+     * 超时时直接结束请求，容器关闭连接
+     */
+    private static final class TimeoutListener implements AsyncListener {
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            event.getAsyncContext().complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 结果按行生成：先是统计，再是出现最多的长词（词 TAB 次数）
+     */
+    static Iterator<String> report(WordTokenizer tokenizer, UploadStats stats, int top) {
+        Queue<String> header = new ArrayDeque<>();
+        header.add("bytes: " + tokenizer.bytes());
+        header.add("lines: " + tokenizer.lines());
+        header.add("words: " + stats.words());
+        header.add("distinct words (estimate): " + stats.distinctWords());
+        header.add("long words: " + stats.longWordCount());
+        header.add("longest word: " + stats.longest() + " (" + stats.longestLength() + ")");
+        StringBuilder histogram = new StringBuilder("word length histogram:");
+        for (int length = 1; length <= 33; length++) {
+            if (stats.histogram(length) > 0) {
+                histogram.append(' ').append(length > 32 ? "33+" : length).append('=').append(stats.histogram(length));
+            }
+        }
+        header.add(histogram.toString());
+        header.add("top long words" + (stats.undercount() > 0
+                ? " (counts may be low by at most " + stats.undercount() + ")" : "") + ":");
+        List<Map.Entry<String, Long>> words = stats.topLongWords(top);
+        Iterator<Map.Entry<String, Long>> entries = words.iterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return !header.isEmpty() || entries.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!header.isEmpty()) {
+                    return header.remove();
+                }
+                Map.Entry<String, Long> entry = entries.next();
+                return entry.getKey() + "\t" + entry.getValue();
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.webapp;
+
+/**
+ * 增量分词：字节分批到达，UTF-8 多字节序列可以跨批次，每批处理完不保留输入
+ * 字符分类与 StreamAPIDemo 的 CjkTokenizer 相同：字母数字的连续段为一个词，中日韩文字的连续段为一个词，其余为分隔符；
+ * 非法字节按分隔符处理
+ * 一个词最多保留 {@value #MAX_WORD_CHARS} 个字符，更长的词仍按完整长度计数，内存与输入大小无关
+ */
+public class WordTokenizer {
+    static final int MAX_WORD_CHARS = 256;
+
+    private static final int SEPARATOR = 0;
+    private static final int WORD = 1;
+    private static final int CJK = 2;
+
+    /**
+     * 接收一个词；chars 在回调返回后会被复用
+     */
+    public interface WordSink {
+        /**
+         * @param length    词的完整长度（码点数）
+         * @param truncated 是否超出 {@link #MAX_WORD_CHARS} 只保留了前面一部分
+         */
+        void word(char[] chars, int charCount, int length, boolean truncated);
+    }
+
+    private final WordSink sink;
+    private final char[] word = new char[MAX_WORD_CHARS + 1];
+    private int charCount;
+    private int length;
+    private boolean truncated;
+    private int kind = SEPARATOR;
+    /** 未完成的多字节序列：已累积的码点位、还需要的后续字节数、序列总长度 */
+    private int pending;
+    private int remaining;
+    private int sequenceLength;
+    private long bytes;
+    private long lines;
+    private boolean lineOpen;
+
+    public WordTokenizer(WordSink sink) {
+        this.sink = sink;
+    }
+
+    public void feed(byte[] buffer, int offset, int count) {
+        bytes += count;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int b = buffer[i];
+            if (remaining > 0) {
+                if ((b & 0xC0) == 0x80) {
+                    pending = (pending << 6) | (b & 0x3F);
+                    if (--remaining == 0) {
+                        accept(valid(pending, sequenceLength) ? pending : -1);
+                    }
+                    continue;
+                }
+                // 序列被截断：已累积的部分作废，当前字节重新解析
+                remaining = 0;
+                accept(-1);
+            }
+            if (b >= 0) {
+                accept(b);
+            } else if ((b & 0xE0) == 0xC0) {
+                start(b & 0x1F, 2);
+            } else if ((b & 0xF0) == 0xE0) {
+                start(b & 0x0F, 3);
+            } else if ((b & 0xF8) == 0xF0) {
+                start(b & 0x07, 4);
+            } else {
+                accept(-1);
+            }
+        }
+    }
+
+    /**
+     * 输入结束：输出最后一个词
+     */
+    public void finish() {
+        if (remaining > 0) {
+            remaining = 0;
+            accept(-1);
+        }
+        emit();
+        kind = SEPARATOR;
+        if (lineOpen) {
+            lines++;
+            lineOpen = false;
+        }
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * 行数；最后一行没有换行符时也算一行
+     */
+    public long lines() {
+        return lines;
+    }
+
+    private void start(int bits, int sequence) {
+        pending = bits;
+        remaining = sequence - 1;
+        sequenceLength = sequence;
+    }
+
+    private static boolean valid(int cp, int sequence) {
+        return sequence == 2 ? cp >= 0x80
+                : sequence == 3 ? cp >= 0x800 && (cp < 0xD800 || cp > 0xDFFF)
+                : cp >= 0x10000 && cp <= 0x10FFFF;
+    }
+
+    /**
+     * 处理一个码点，-1 表示非法字节
+     */
+    private void accept(int cp) {
+        if (cp == '\n') {
+            lines++;
+            lineOpen = false;
+        } else {
+            lineOpen = true;
+        }
+        int next = kindOf(cp);
+        if (next != kind) {
+            emit();
+            kind = next;
+        }
+        if (kind != SEPARATOR) {
+            length++;
+            if (charCount < MAX_WORD_CHARS) {
+                charCount += Character.toChars(cp, word, charCount);
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    private void emit() {
+        if (kind != SEPARATOR && length > 0) {
+            sink.word(word, charCount, length, truncated);
+        }
+        charCount = 0;
+        length = 0;
+        truncated = false;
+    }
+
+    private static int kindOf(int cp) {
+        if (cp < 0) {
+            return SEPARATOR;
+        }
+        if (cp < 0x80) {
+            return (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || (cp >= '0' && cp <= '9') ? WORD : SEPARATOR;
+        }
+        if ((cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF)) {
+            return CJK;
+        }
+        return Character.isLetterOrDigit(cp) ? WORD : SEPARATOR;
+    }
+}
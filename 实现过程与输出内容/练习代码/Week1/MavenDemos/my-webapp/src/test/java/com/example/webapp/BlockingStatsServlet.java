@@ -0,0 +1,37 @@
+package com.example.webapp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.Iterator;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 压测对照：同样的统计，但用阻塞读，上传期间一直占着一个容器线程
+ */
+public class BlockingStatsServlet extends HttpServlet
+{
+    @Override
+    protected void doPost( HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        UploadStats stats = new UploadStats( 5, 1000 );
+        WordTokenizer tokenizer = new WordTokenizer( stats );
+        byte[] buffer = new byte[UploadStatsServlet.BUFFER_SIZE];
+        InputStream input = request.getInputStream();
+        int n;
+        while ( ( n = input.read( buffer ) ) != -1 )
+        {
+            tokenizer.feed( buffer, 0, n );
+        }
+        tokenizer.finish();
+        response.setContentType( "text/plain;charset=UTF-8" );
+        PrintWriter writer = response.getWriter();
+        for ( Iterator<String> lines = UploadStatsServlet.report( tokenizer, stats, 100 ); lines.hasNext(); )
+        {
+            writer.println( lines.next() );
+        }
+    }
+}
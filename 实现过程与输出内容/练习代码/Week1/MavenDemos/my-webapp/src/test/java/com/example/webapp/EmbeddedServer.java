@@ -0,0 +1,76 @@
+package com.example.webapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import jakarta.servlet.http.HttpServlet;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+
+/**
+ * 测试和压测用的嵌入式 Tomcat：随机端口，按 web.xml 的方式把 servlet 映射到 /stats
+ */
+public class EmbeddedServer implements AutoCloseable
+{
+    static final int SOCKET_BUFFER_SIZE = 64 * 1024;
+
+    private final Tomcat tomcat = new Tomcat();
+    private final File baseDir;
+
+    public EmbeddedServer( HttpServlet servlet, boolean async, int maxThreads ) throws IOException, LifecycleException
+    {
+        baseDir = Files.createTempDirectory( "tomcat" ).toFile();
+        tomcat.setBaseDir( baseDir.getAbsolutePath() );
+        Connector connector = new Connector();
+        connector.setPort( 0 );
+        connector.setProperty( "maxThreads", String.valueOf( maxThreads ) );
+        connector.setProperty( "maxConnections", "10000" );
+        connector.setProperty( "acceptCount", "1000" );
+        // 限制每个连接的内核接收缓冲区，否则自动调优会把整个慢上传先收进内核，掩盖线程被占住的效果
+        connector.setProperty( "socket.rxBufSize", String.valueOf( SOCKET_BUFFER_SIZE ) );
+        tomcat.setConnector( connector );
+        Context context = tomcat.addContext( "", baseDir.getAbsolutePath() );
+        // exec:java 下系统类加载器里没有 Tomcat 的类，停止时的泄漏检查会找不到 JdbcLeakPrevention
+        context.setParentClassLoader( EmbeddedServer.class.getClassLoader() );
+        Wrapper wrapper = Tomcat.addServlet( context, "uploadStats", servlet );
+        wrapper.setAsyncSupported( async );
+        context.addServletMappingDecoded( "/stats", "uploadStats" );
+        tomcat.start();
+    }
+
+    public int port()
+    {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    public String url()
+    {
+        return "http://localhost:" + port() + "/stats";
+    }
+
+    @Override
+    public void close() throws LifecycleException
+    {
+        tomcat.stop();
+        tomcat.destroy();
+        deleteRecursively( baseDir );
+    }
+
+    private static void deleteRecursively( File file )
+    {
+        File[] children = file.listFiles();
+        if ( children != null )
+        {
+            for ( File child : children )
+            {
+                deleteRecursively( child );
+            }
+        }
+        file.delete();
+    }
+}
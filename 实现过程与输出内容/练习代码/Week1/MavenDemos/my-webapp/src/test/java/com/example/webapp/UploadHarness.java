@@ -0,0 +1,223 @@
+package com.example.webapp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.servlet.http.HttpServlet;
+
+/**
+ * 慢速上传压测：容器只有 8 个线程，1 / 16 / 64 / 256 个客户端同时按限定速率上传，
+ * 对比非阻塞的 UploadStatsServlet 与阻塞读的 BlockingStatsServlet 的完成数、吞吐量、延迟和堆内存峰值
+ * 用法：mvn test-compile exec:java [-Dexec.args="每个上传的大小(KB) 每个上传的速率(KB/s)"]，默认 1024 KB、64 KB/s
+ */
+public class UploadHarness
+{
+    private static final int MAX_THREADS = 8;
+    private static final int[] CONCURRENCY = { 1, 16, 64, 256 };
+    private static final int CHUNK_SIZE = 4 * 1024;
+    private static final int TIMEOUT_MILLIS = 60_000;
+    private static final String[] WORDS = {
+        "stream", "lambda", "collector", "throughput", "latency", "backpressure", "servlet", "listener",
+        "现代化", "数据处理", "流水线", "非阻塞", "java", "map", "filter", "reduce", "api", "io"
+    };
+
+    public static void main( String[] args ) throws Exception
+    {
+        int size = ( args.length > 0 ? Integer.parseInt( args[0] ) : 1024 ) * 1024;
+        int rate = ( args.length > 1 ? Integer.parseInt( args[1] ) : 64 ) * 1024;
+        byte[] text = text();
+        System.out.printf( "每个上传 %d KB，限速 %d KB/s，容器线程 %d%n", size / 1024, rate / 1024, MAX_THREADS );
+        System.out.printf( "%-10s%8s%8s%8s%12s%12s%12s%14s%n",
+                           "servlet", "并发", "完成", "失败", "MB/s", "p50(ms)", "p99(ms)", "堆峰值(MB)" );
+        // 每个客户端一个线程，再加一个线程负责到期关闭连接
+        ScheduledExecutorService clients = Executors.newScheduledThreadPool( CONCURRENCY[CONCURRENCY.length - 1] + 1 );
+        try
+        {
+            run( "async", new UploadStatsServlet(), true, size, rate, text, clients );
+            run( "blocking", new BlockingStatsServlet(), false, size, rate, text, clients );
+        }
+        finally
+        {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void run( String name, HttpServlet servlet, boolean async, int size, int rate, byte[] text,
+                             ScheduledExecutorService clients ) throws Exception
+    {
+        try ( EmbeddedServer server = new EmbeddedServer( servlet, async, MAX_THREADS ) )
+        {
+            for ( int concurrency : CONCURRENCY )
+            {
+                System.gc();
+                HeapSampler heap = new HeapSampler();
+                heap.start();
+                long start = System.nanoTime();
+                List<Future<Long>> uploads = new ArrayList<>();
+                for ( int i = 0; i < concurrency; i++ )
+                {
+                    uploads.add( clients.submit( () -> upload( server.port(), text, size, rate, clients ) ) );
+                }
+                List<Long> latencies = new ArrayList<>();
+                for ( Future<Long> upload : uploads )
+                {
+                    try
+                    {
+                        latencies.add( upload.get() );
+                    }
+                    catch ( ExecutionException e )
+                    {
+                        // 超时、连接被关闭或结果不对，记为失败
+                    }
+                }
+                double seconds = ( System.nanoTime() - start ) / 1e9;
+                heap.stopSampling();
+                long[] sorted = latencies.stream().mapToLong( Long::longValue ).sorted().toArray();
+                System.out.printf( "%-10s%8d%8d%8d%12.2f%12s%12s%14.1f%n", name, concurrency, sorted.length,
+                                   concurrency - sorted.length, sorted.length * (double) size / ( 1 << 20 ) / seconds,
+                                   percentile( sorted, 0.5 ), percentile( sorted, 0.99 ),
+                                   heap.peak() / ( 1024.0 * 1024.0 ) );
+            }
+        }
+    }
+
+    /**
+     * 用原始套接字模拟慢客户端：先发请求头，再按速率一块块写请求体，返回从连接到读完响应的纳秒数
+     * 写请求体时也可能被服务端卡住，所以到期直接关闭套接字，而不只是设置读超时
+     */
+    private static long upload( int port, byte[] text, int size, int rate, ScheduledExecutorService timer )
+        throws IOException
+    {
+        long start = System.nanoTime();
+        try ( Socket socket = new Socket() )
+        {
+            ScheduledFuture<?> deadline = timer.schedule( () -> close( socket ), TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+            socket.setSendBufferSize( EmbeddedServer.SOCKET_BUFFER_SIZE );
+            socket.connect( new InetSocketAddress( "localhost", port ) );
+            OutputStream out = socket.getOutputStream();
+            out.write( ( "POST /stats HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain\r\nContent-Length: " + size
+                + "\r\nConnection: close\r\n\r\n" ).getBytes( StandardCharsets.US_ASCII ) );
+            byte[] chunk = new byte[CHUNK_SIZE];
+            long due = System.nanoTime();
+            for ( long position = 0; position < size; )
+            {
+                // 按块计时：被服务端卡住之后不会突发补发，始终不快于限定速率
+                long now = System.nanoTime();
+                if ( due > now )
+                {
+                    LockSupport.parkNanos( due - now );
+                }
+                int n = (int) Math.min( CHUNK_SIZE, size - position );
+                due = Math.max( due, now ) + n * 1_000_000_000L / rate;
+                for ( int i = 0; i < n; i++ )
+                {
+                    chunk[i] = text[(int) ( ( position + i ) % text.length )];
+                }
+                out.write( chunk, 0, n );
+                position += n;
+            }
+            out.flush();
+            String response = new String( socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8 );
+            if ( !response.startsWith( "HTTP/1.1 200" ) || !response.contains( "bytes: " + size + "\n" ) )
+            {
+                throw new IOException( "unexpected response: " + response.lines().findFirst().orElse( "" ) );
+            }
+            deadline.cancel( false );
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void close( Socket socket )
+    {
+        try
+        {
+            socket.close();
+        }
+        catch ( IOException e )
+        {
+            // 已经关闭
+        }
+    }
+
+    private static String percentile( long[] sorted, double p )
+    {
+        if ( sorted.length == 0 )
+        {
+            return "-";
+        }
+        return String.valueOf( sorted[(int) Math.min( sorted.length - 1, Math.ceil( p * sorted.length ) - 1 )] / 1_000_000 );
+    }
+
+    /**
+     * 约 32 K 个字符的中英混排文本，上传时循环使用
+     */
+    private static byte[] text()
+    {
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while ( text.length() < 32 * 1024 )
+        {
+            text.append( WORDS[( i * 7 + i / WORDS.length ) % WORDS.length] ).append( ++i % 12 == 0 ? '\n' : ' ' );
+        }
+        return text.toString().getBytes( StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * 每 10 ms 采样一次已用堆内存，记录峰值
+     */
+    private static final class HeapSampler extends Thread
+    {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicBoolean running = new AtomicBoolean( true );
+        private final AtomicLong peak = new AtomicLong();
+
+        HeapSampler()
+        {
+            setDaemon( true );
+        }
+
+        @Override
+        public void run()
+        {
+            while ( running.get() )
+            {
+                peak.accumulateAndGet( memory.getHeapMemoryUsage().getUsed(), Math::max );
+                try
+                {
+                    Thread.sleep( 10 );
+                }
+                catch ( InterruptedException e )
+                {
+                    return;
+                }
+            }
+        }
+
+        void stopSampling() throws InterruptedException
+        {
+            running.set( false );
+            join();
+        }
+
+        long peak()
+        {
+            return peak.get();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.webapp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 通过嵌入式 Tomcat 上传文本，检查返回的统计
+ */
+public class UploadStatsServletTest
+    extends TestCase
+{
+    private final HttpClient client = HttpClient.newHttpClient();
+    private EmbeddedServer server;
+
+    public UploadStatsServletTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( UploadStatsServletTest.class );
+    }
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        server = new EmbeddedServer( new UploadStatsServlet(), true, 2 );
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        server.close();
+    }
+
+    public void testStats() throws Exception
+    {
+        String text = "stream lambda stream\ncollector 函数式编程范式 ok\nstream";
+        HttpResponse<String> response = post( "?top=2", HttpRequest.BodyPublishers.ofString( text ) );
+        assertEquals( 200, response.statusCode() );
+        assertTrue( response.headers().firstValue( "Content-Type" ).get().startsWith( "text/plain" ) );
+        List<String> lines = Arrays.asList( response.body().split( "\n" ) );
+        assertEquals( "bytes: " + text.getBytes( StandardCharsets.UTF_8 ).length, lines.get( 0 ) );
+        assertEquals( "lines: 3", lines.get( 1 ) );
+        assertEquals( "words: 7", lines.get( 2 ) );
+        assertEquals( "long words: 6", lines.get( 4 ) );
+        assertEquals( "longest word: collector (9)", lines.get( 5 ) );
+        assertEquals( "top long words:", lines.get( 7 ) );
+        assertEquals( List.of( "stream\t3", "collector\t1" ), lines.subList( 8, lines.size() ) );
+    }
+
+    public void testSlowUploadInSmallChunks() throws Exception
+    {
+        // 每次只给出 3 个字节，多字节字符和词都会被拆到不同的读取里
+        byte[] line = "现代化 throughput latency\n".getBytes( StandardCharsets.UTF_8 );
+        int repeat = 2000;
+        InputStream body = new InputStream()
+        {
+            private int position;
+
+            @Override
+            public int read()
+            {
+                return position < line.length * repeat ? line[position++ % line.length] & 0xFF : -1;
+            }
+
+            @Override
+            public int read( byte[] buffer, int offset, int length ) throws IOException
+            {
+                if ( position >= line.length * repeat )
+                {
+                    return -1;
+                }
+                int n = Math.min( Math.min( 3, length ), line.length * repeat - position );
+                for ( int i = 0; i < n; i++ )
+                {
+                    buffer[offset + i] = (byte) read();
+                }
+                return n;
+            }
+        };
+        HttpResponse<String> response = post( "?minLength=3", HttpRequest.BodyPublishers.ofInputStream( () -> body ) );
+        assertEquals( 200, response.statusCode() );
+        String[] lines = response.body().split( "\n" );
+        assertEquals( "lines: " + repeat, lines[1] );
+        assertEquals( "words: " + 3 * repeat, lines[2] );
+        assertEquals( "latency\t" + repeat, lines[8] );
+        assertEquals( "throughput\t" + repeat, lines[9] );
+        assertEquals( 10, lines.length );
+    }
+
+    public void testFormContentTypeBodyIsCounted() throws Exception
+    {
+        // curl --data-binary 默认的内容类型；参数只从查询字符串读取，容器不会先把请求体当作表单读掉
+        HttpRequest request = HttpRequest.newBuilder( URI.create( server.url() + "?top=1&minLength=5" ) )
+            .header( "Content-Type", "application/x-www-form-urlencoded" )
+            .POST( HttpRequest.BodyPublishers.ofString( "stream=lambda&top=3 stream" ) )
+            .build();
+        HttpResponse<String> response = client.send( request, HttpResponse.BodyHandlers.ofString( StandardCharsets.UTF_8 ) );
+        assertEquals( 200, response.statusCode() );
+        String[] lines = response.body().split( "\n" );
+        assertEquals( "words: 5", lines[2] );
+        assertEquals( "stream\t2", lines[8] );
+        assertEquals( 9, lines.length );
+    }
+
+    public void testMultipartRejected() throws Exception
+    {
+        HttpRequest request = HttpRequest.newBuilder( URI.create( server.url() ) )
+            .header( "Content-Type", "multipart/form-data; boundary=x" )
+            .POST( HttpRequest.BodyPublishers.ofString( "--x\r\n\r\nstream\r\n--x--\r\n" ) )
+            .build();
+        HttpResponse<String> response = client.send( request, HttpResponse.BodyHandlers.ofString( StandardCharsets.UTF_8 ) );
+        assertEquals( 415, response.statusCode() );
+    }
+
+    public void testBadParameter() throws Exception
+    {
+        HttpResponse<String> response = post( "?top=many", HttpRequest.BodyPublishers.ofString( "x" ) );
+        assertEquals( 400, response.statusCode() );
+    }
+
+    private HttpResponse<String> post( String query, HttpRequest.BodyPublisher body ) throws Exception
+    {
+        HttpRequest request = HttpRequest.newBuilder( URI.create( server.url() + query ) ).POST( body ).build();
+        return client.send( request, HttpResponse.BodyHandlers.ofString( StandardCharsets.UTF_8 ) );
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.webapp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 计数在容量内精确，超出容量后跟踪的词数有上限，且偏小的量不超过 undercount
+ */
+public class UploadStatsTest
+    extends TestCase
+{
+    public UploadStatsTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( UploadStatsTest.class );
+    }
+
+    public void testExactWithinCapacity()
+    {
+        UploadStats stats = feed( "stream lambda stream collector 函数式编程范式 stream lambda ok", 5, 100 );
+        assertEquals( 8, stats.words() );
+        assertEquals( 7, stats.longWordCount() );
+        assertEquals( 0, stats.undercount() );
+        List<Map.Entry<String, Long>> top = stats.topLongWords( 2 );
+        assertEquals( "stream", top.get( 0 ).getKey() );
+        assertEquals( 3L, top.get( 0 ).getValue().longValue() );
+        assertEquals( "lambda", top.get( 1 ).getKey() );
+        assertEquals( "collector", stats.longest() );
+        assertEquals( 1, stats.histogram( 2 ) );
+        assertEquals( 5, stats.distinctWords() );
+    }
+
+    public void testBoundedWhenManyDistinctWords()
+    {
+        // Zipf 分布的 20 万个不同长词，跟踪上限 100
+        SplittableRandom random = new SplittableRandom( 1 );
+        Map<String, Long> exact = new HashMap<>();
+        UploadStats stats = new UploadStats( 5, 100 );
+        WordTokenizer tokenizer = new WordTokenizer( stats );
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 1_000_000; i++ )
+        {
+            String word = "word" + (int) Math.floor( Math.pow( 200_000, random.nextDouble() ) ) + "x";
+            exact.merge( word, 1L, Long::sum );
+            text.append( word ).append( ' ' );
+            if ( text.length() > 64 * 1024 )
+            {
+                feed( tokenizer, text );
+            }
+            assertTrue( stats.trackedWords() <= 200 );
+        }
+        feed( tokenizer, text );
+        tokenizer.finish();
+
+        assertTrue( stats.undercount() > 0 );
+        for ( Map.Entry<String, Long> entry : stats.topLongWords( 10 ) )
+        {
+            long actual = exact.get( entry.getKey() );
+            assertTrue( entry.getValue() <= actual );
+            assertTrue( actual - entry.getValue() <= stats.undercount() );
+        }
+        // 最常见的词一定在结果中
+        String mostFrequent = exact.entrySet().stream().max( Map.Entry.comparingByValue() ).get().getKey();
+        assertEquals( mostFrequent, stats.topLongWords( 1 ).get( 0 ).getKey() );
+        double error = Math.abs( stats.distinctWords() - exact.size() ) / (double) exact.size();
+        assertTrue( "distinct estimate error " + error, error < 0.05 );
+    }
+
+    private static UploadStats feed( String text, int minLength, int maxTracked )
+    {
+        UploadStats stats = new UploadStats( minLength, maxTracked );
+        WordTokenizer tokenizer = new WordTokenizer( stats );
+        byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+        tokenizer.feed( bytes, 0, bytes.length );
+        tokenizer.finish();
+        return stats;
+    }
+
+    private static void feed( WordTokenizer tokenizer, StringBuilder text )
+    {
+        byte[] bytes = text.toString().getBytes( StandardCharsets.UTF_8 );
+        tokenizer.feed( bytes, 0, bytes.length );
+        text.setLength( 0 );
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.webapp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * 分批输入（包括把多字节字符拆开）与一次性输入得到相同的词
+ */
+public class WordTokenizerTest
+    extends TestCase
+{
+    private static final String TEXT = "Stream API 处理数据，lambda表达式\r\n推进中国式现代化建设 café naïve 🎉emoji x2\n最后一行";
+
+    public WordTokenizerTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( WordTokenizerTest.class );
+    }
+
+    public void testWordsAndLines()
+    {
+        List<String> words = new ArrayList<>();
+        WordTokenizer tokenizer = tokenize( TEXT.getBytes( StandardCharsets.UTF_8 ), Integer.MAX_VALUE, words );
+        assertEquals( List.of( "Stream", "API", "处理数据", "lambda", "表达式", "推进中国式现代化建设", "café", "naïve",
+                               "emoji", "x2", "最后一行" ), words );
+        assertEquals( 3, tokenizer.lines() );
+        assertEquals( TEXT.getBytes( StandardCharsets.UTF_8 ).length, tokenizer.bytes() );
+    }
+
+    public void testSplitAtEveryByte()
+    {
+        byte[] bytes = TEXT.getBytes( StandardCharsets.UTF_8 );
+        List<String> expected = new ArrayList<>();
+        tokenize( bytes, Integer.MAX_VALUE, expected );
+        for ( int batch = 1; batch <= 7; batch++ )
+        {
+            List<String> words = new ArrayList<>();
+            tokenize( bytes, batch, words );
+            assertEquals( "batch " + batch, expected, words );
+        }
+    }
+
+    public void testInvalidBytesSeparateWords()
+    {
+        byte[] bytes = { 'a', 'b', (byte) 0xFF, 'c', (byte) 0xE4, (byte) 0xB8, 'd', (byte) 0xC0, (byte) 0x80, 'e' };
+        List<String> words = new ArrayList<>();
+        tokenize( bytes, 1, words );
+        assertEquals( List.of( "ab", "c", "d", "e" ), words );
+    }
+
+    public void testLongWordIsTruncatedButFullyCounted()
+    {
+        String word = "x".repeat( 100_000 );
+        int[] length = new int[1];
+        boolean[] truncated = new boolean[1];
+        List<String> words = new ArrayList<>();
+        WordTokenizer tokenizer = new WordTokenizer( ( chars, charCount, wordLength, wasTruncated ) -> {
+            words.add( new String( chars, 0, charCount ) );
+            length[0] = wordLength;
+            truncated[0] = wasTruncated;
+        } );
+        byte[] bytes = word.getBytes( StandardCharsets.UTF_8 );
+        tokenizer.feed( bytes, 0, bytes.length );
+        tokenizer.finish();
+        assertEquals( 1, words.size() );
+        assertEquals( WordTokenizer.MAX_WORD_CHARS, words.get( 0 ).length() );
+        assertEquals( 100_000, length[0] );
+        assertTrue( truncated[0] );
+    }
+
+    private static WordTokenizer tokenize( byte[] bytes, int batch, List<String> words )
+    {
+        WordTokenizer tokenizer = new WordTokenizer( ( chars, charCount, length, truncated ) ->
+            words.add( new String( chars, 0, charCount ) ) );
+        for ( int i = 0; i < bytes.length; i += batch )
+        {
+            tokenizer.feed( bytes, i, Math.min( batch, bytes.length - i ) );
+        }
+        tokenizer.finish();
+        return tokenizer;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 下载 demo.files.root 目录中的文件（例如 data.txt），文件内容不经过堆内存：
+ * <ul>
+ * <li>Tomcat 支持 sendfile 时只设置请求属性，处理方法返回后由 Tomcat 用 FileChannel.transferTo 直接写入套接字</li>
+ * <li>否则（例如 MockMvc、关闭 demo.files.sendfile）把文件分窗口映射后写入响应输出流</li>
+ * </ul>
+ * 支持 HEAD、单个 Range（多段范围按完整内容返回）、If-Range、If-None-Match / If-Modified-Since；
+ * 客户端接受 gzip 且旁边有不旧于原文件的 .gz 文件时，整文件请求直接发送压缩好的文件
+ */
+@Controller
+@RequestMapping("/files")
+public class FileController {
+
+	// org.apache.catalina.Globals 中的 sendfile 请求属性
+	private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private static final String GZIP_SUFFIX = ".gz";
+
+	private static final long WINDOW_SIZE = 64L << 20;
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private final Path root;
+
+	private final boolean sendfile;
+
+	public FileController(@Value("${demo.files.root:files}") Path root,
+			@Value("${demo.files.sendfile:true}") boolean sendfile) {
+		this.root = root.toAbsolutePath().normalize();
+		this.sendfile = sendfile;
+	}
+
+	@RequestMapping(path = "/{name:.+}", method = { RequestMethod.GET, RequestMethod.HEAD })
+	public void download(@PathVariable String name, ServletWebRequest webRequest, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		Path file = resolve(name);
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+		Path gzip = precompressed(file, modified);
+
+		// If-Range 与当前版本不符时忽略 Range，返回完整内容
+		List<HttpRange> ranges = List.of();
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (ifRange == null || ifRange.equals(etag(attributes, false))) {
+			try {
+				ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+			}
+			catch (IllegalArgumentException ex) {
+				// 格式错误的 Range 按没有 Range 处理
+			}
+		}
+		boolean gzipped = gzip != null && ranges.isEmpty() && acceptsGzip(request);
+		if (gzipped) {
+			file = gzip;
+			attributes = Files.readAttributes(gzip, BasicFileAttributes.class);
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		if (gzip != null) {
+			response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		// 同时设置 ETag、Last-Modified 响应头，条件满足时设为 304
+		if (webRequest.checkNotModified(etag(attributes, gzipped), modified)) {
+			return;
+		}
+
+		long length = attributes.size();
+		long start = 0;
+		long end = length - 1;
+		if (ranges.size() == 1) {
+			HttpRange range = ranges.get(0);
+			start = (length == 0) ? length : range.getRangeStart(length);
+			if (start >= length) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+				return;
+			}
+			end = range.getRangeEnd(length);
+			response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+		}
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		response.setContentType(MediaTypeFactory.getMediaType(name)
+			.orElse(MediaType.APPLICATION_OCTET_STREAM)
+			.toString());
+		response.setContentLengthLong(end - start + 1);
+		if (HttpMethod.HEAD.matches(request.getMethod()) || end < start) {
+			return;
+		}
+		if (this.sendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+			request.setAttribute(SENDFILE_FILENAME, file.toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end + 1);
+		}
+		else {
+			transfer(file, start, end + 1 - start, response);
+		}
+	}
+
+	/**
+	 * 文件名解析到根目录下的普通文件；跳出根目录（包括经由符号链接）或不存在时返回 404
+	 */
+	private Path resolve(String name) throws IOException {
+		Path file = this.root.resolve(name).normalize();
+		if (!file.startsWith(this.root) || !Files.isRegularFile(file)
+				|| !file.toRealPath().startsWith(this.root.toRealPath())) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		return file;
+	}
+
+	/**
+	 * 旁边不旧于原文件的 .gz 文件；没有时返回 null
+	 */
+	private static Path precompressed(Path file, long modified) throws IOException {
+		Path gzip = file.resolveSibling(file.getFileName() + GZIP_SUFFIX);
+		if (file.getFileName().toString().endsWith(GZIP_SUFFIX) || !Files.isRegularFile(gzip, LinkOption.NOFOLLOW_LINKS)
+				|| Files.getLastModifiedTime(gzip).toMillis() < modified) {
+			return null;
+		}
+		return gzip;
+	}
+
+	/**
+	 * 强 ETag：大小和修改时间；压缩版本另加后缀，两种表示不会互相命中
+	 */
+	private static String etag(BasicFileAttributes attributes, boolean gzipped) {
+		return "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+				+ (gzipped ? "-gz" : "") + "\"";
+	}
+
+	/**
+	 * Accept-Encoding 中有 q 值不为 0 的 gzip 或 *
+	 */
+	private static boolean acceptsGzip(HttpServletRequest request) {
+		String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		if (header == null) {
+			return false;
+		}
+		for (String item : header.split(",")) {
+			String[] parts = item.trim().split(";");
+			String coding = parts[0].trim();
+			if (coding.equalsIgnoreCase("gzip") || coding.equals("*")) {
+				for (int i = 1; i < parts.length; i++) {
+					String parameter = parts[i].trim();
+					if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+						return false;
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isZero(String quality) {
+		try {
+			return Double.parseDouble(quality) == 0;
+		}
+		catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * 不支持 sendfile 时的退路：按 64 MB 的窗口映射文件，经同一个 64 KB 缓冲区写入响应流，堆内存占用与文件大小无关
+	 * （transferTo 到普通输出流时 JDK 每 8 KB 中转一次，每次都有少量分配）
+	 */
+	private static void transfer(Path file, long position, long count, HttpServletResponse response)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long end = position + count;
+			if (channel.size() < end) {
+				throw new IOException("file truncated while sending: " + file);
+			}
+			// Tomcat 默认 8 KB 的响应缓冲区每次写出都有少量分配，放大到与中转缓冲区相同
+			response.setBufferSize(CHUNK_SIZE);
+			OutputStream out = response.getOutputStream();
+			byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, count)];
+			for (long offset = position; offset < end;) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+						Math.min(WINDOW_SIZE, end - offset));
+				while (window.hasRemaining()) {
+					int n = Math.min(chunk.length, window.remaining());
+					window.get(chunk, 0, n);
+					out.write(chunk, 0, n);
+				}
+				offset += window.capacity();
+			}
+		}
+	}
+
+}
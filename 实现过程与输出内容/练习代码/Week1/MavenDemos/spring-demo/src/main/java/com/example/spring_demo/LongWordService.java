@@ -0,0 +1,72 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * StreamAPIDemo FileDemo.streamLongWords：按空格切分，长度大于 minLength 的词去重排序
+ * 每次查询先比较文件的大小和修改时间，文件变化后清空缓存再重新读取；缓存键包含这两项，变化前算出的结果不会再被命中
+ */
+@Service
+public class LongWordService {
+
+	private final Path file;
+
+	private final Cache cache;
+
+	/** 上次查询时文件的大小和修改时间，任一变化即认为内容变了 */
+	private volatile String stamp;
+
+	public LongWordService(@Value("${demo.words.file:data.txt}") Path file, CacheManager cacheManager) {
+		this.file = file;
+		this.cache = Objects.requireNonNull(cacheManager.getCache("longWords"), "cache longWords");
+	}
+
+	/**
+	 * 文件不存在时抛出 NoSuchFileException
+	 */
+	public List<String> longWords(int minLength) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(this.file, BasicFileAttributes.class);
+		String current = attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+		if (!current.equals(this.stamp)) {
+			this.cache.clear();
+			this.stamp = current;
+		}
+		try {
+			return this.cache.get(current + ":" + minLength, () -> read(minLength));
+		}
+		catch (Cache.ValueRetrievalException ex) {
+			if (ex.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) ex.getCause()).getCause();
+			}
+			throw ex;
+		}
+	}
+
+	private List<String> read(int minLength) {
+		try (Stream<String> lines = Files.lines(this.file)) {
+			return lines.flatMap((line) -> Arrays.stream(line.split(" ")))
+				.filter((word) -> word.length() > minLength)
+				.distinct()
+				.sorted()
+				.collect(Collectors.toList());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.example.spring_demo;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * 与 StreamAPIDemo 中的 Person 相同的字段，创建后不再修改
+ */
+public final class Person {
+
+	private final String name;
+
+	private final int age;
+
+	private final String city;
+
+	@JsonCreator
+	public Person(String name, int age, String city) {
+		this.name = name;
+		this.age = age;
+		this.city = city;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getAge() {
+		return this.age;
+	}
+
+	public String getCity() {
+		return this.city;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.example.spring_demo;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 人员分组统计接口
+ */
+@RestController
+@RequestMapping("/api/people")
+public class PersonController {
+
+	private final PersonStatsService stats;
+
+	public PersonController(PersonStatsService stats) {
+		this.stats = stats;
+	}
+
+	@GetMapping("/average-age-by-city")
+	public Map<String, Double> averageAgeByCity() {
+		return this.stats.averageAgeByCity();
+	}
+
+	@GetMapping("/count-by-city")
+	public Map<String, Long> countByCity() {
+		return this.stats.countByCity();
+	}
+
+	@GetMapping("/names")
+	public List<String> names(@RequestParam String city, @RequestParam(defaultValue = "25") int minAge) {
+		return this.stats.namesInCity(city, minAge);
+	}
+
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public void add(@RequestBody Person person) {
+		if (person.getName() == null || person.getName().isBlank() || person.getCity() == null
+				|| person.getCity().isBlank() || person.getAge() < 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "name, city and a non-negative age are required");
+		}
+		this.stats.add(person);
+	}
+
+}
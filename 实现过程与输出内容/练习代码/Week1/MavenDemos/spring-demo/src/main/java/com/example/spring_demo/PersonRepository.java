@@ -0,0 +1,87 @@
+package com.example.spring_demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 内存中的人员列表，启动时用固定种子生成
+ * 每次修改后版本号加一，缓存以版本号作为键的一部分，修改之前算出的结果不会再被命中
+ */
+@Repository
+public class PersonRepository {
+
+	static final String[] CITIES = { "New York", "London", "Paris", "Tokyo", "Beijing", "Shanghai", "Berlin",
+			"Sydney" };
+
+	private static final long SEED = 42;
+
+	private final List<Person> people;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private volatile long version;
+
+	public PersonRepository(@Value("${demo.people.size:100000}") int size) {
+		this.people = generate(size);
+	}
+
+	/**
+	 * 在读锁内对当前数据做一次查询
+	 */
+	public <R> R query(Function<List<Person>, R> query) {
+		this.lock.readLock().lock();
+		try {
+			return query.apply(this.people);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public void add(Person person) {
+		this.lock.writeLock().lock();
+		try {
+			this.people.add(person);
+			// 在写锁内递增：读到新版本号的查询一定能看到这次修改
+			this.version++;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	public long version() {
+		return this.version;
+	}
+
+	public int size() {
+		return query(List::size);
+	}
+
+	/**
+	 * 长度 3 到 10 的名字，年龄 18 到 77，城市均匀分布
+	 */
+	private static List<Person> generate(int size) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		List<Person> people = new ArrayList<>(size);
+		char[] chars = new char[10];
+		for (int i = 0; i < size; i++) {
+			int length = 3 + random.nextInt(8);
+			chars[0] = (char) ('A' + random.nextInt(26));
+			for (int j = 1; j < length; j++) {
+				chars[j] = (char) ('a' + random.nextInt(26));
+			}
+			people.add(new Person(new String(chars, 0, length), 18 + random.nextInt(60),
+					CITIES[random.nextInt(CITIES.length)]));
+		}
+		return people;
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.spring_demo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * StreamAPIDemo PersonDemo 中的分组查询，结果按数据版本缓存
+ */
+@Service
+public class PersonStatsService {
+
+	private final PersonRepository repository;
+
+	public PersonStatsService(PersonRepository repository) {
+		this.repository = repository;
+	}
+
+	/**
+	 * 按城市分组统计平均年龄
+	 */
+	@Cacheable(cacheNames = "averageAgeByCity", key = "@personRepository.version()")
+	public Map<String, Double> averageAgeByCity() {
+		return this.repository.query((people) -> people.stream()
+			.collect(Collectors.groupingBy(Person::getCity, TreeMap::new, Collectors.averagingInt(Person::getAge))));
+	}
+
+	/**
+	 * 按城市分组计数
+	 */
+	@Cacheable(cacheNames = "countByCity", key = "@personRepository.version()")
+	public Map<String, Long> countByCity() {
+		return this.repository.query((people) -> people.stream()
+			.collect(Collectors.groupingBy(Person::getCity, TreeMap::new, Collectors.counting())));
+	}
+
+	/**
+	 * 某个城市中年龄大于 minAge 的人名，排序
+	 */
+	@Cacheable(cacheNames = "namesInCity", key = "@personRepository.version() + ':' + #city + ':' + #minAge")
+	public List<String> namesInCity(String city, int minAge) {
+		return this.repository.query((people) -> people.stream()
+			.filter((person) -> city.equals(person.getCity()))
+			.filter((person) -> person.getAge() > minAge)
+			.map(Person::getName)
+			.sorted()
+			.collect(Collectors.toList()));
+	}
+
+	/**
+	 * 新增一个人；旧版本的结果不会再被命中，这里顺带清掉以释放内存
+	 */
+	@CacheEvict(cacheNames = { "averageAgeByCity", "countByCity", "namesInCity" }, allEntries = true)
+	public void add(Person person) {
+		this.repository.add(person);
+	}
+
+}
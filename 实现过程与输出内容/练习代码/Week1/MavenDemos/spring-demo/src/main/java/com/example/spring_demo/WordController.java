@@ -0,0 +1,37 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 文本文件的长词统计接口
+ */
+@RestController
+@RequestMapping("/api/words")
+public class WordController {
+
+	private final LongWordService longWords;
+
+	public WordController(LongWordService longWords) {
+		this.longWords = longWords;
+	}
+
+	@GetMapping("/long")
+	public List<String> longWords(@RequestParam(defaultValue = "5") int minLength) throws IOException {
+		try {
+			return this.longWords.longWords(minLength);
+		}
+		catch (NoSuchFileException ex) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "word file not found: " + ex.getFile());
+		}
+	}
+
+}
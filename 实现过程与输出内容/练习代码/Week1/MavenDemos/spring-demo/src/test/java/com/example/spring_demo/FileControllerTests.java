@@ -0,0 +1,170 @@
+package com.example.spring_demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 通过真实的 Tomcat（sendfile）和 MockMvc（映射后写入输出流）分别下载，内容与文件逐字节一致
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@DirtiesContext
+class FileControllerTests {
+
+	private static final int SIZE = 3 * 1024 * 1024 + 17;
+
+	private static Path root;
+
+	private static byte[] data;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MockMvc mvc;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@DynamicPropertySource
+	static void files(DynamicPropertyRegistry registry) throws IOException {
+		root = Files.createTempDirectory("files");
+		data = new byte[SIZE];
+		new SplittableRandom(1).nextBytes(data);
+		Files.write(root.resolve("data.bin"), data);
+		Files.writeString(root.resolve("data.txt"), "stream lambda 现代化\n".repeat(1000));
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(root.resolve("data.txt.gz")))) {
+			out.write(Files.readAllBytes(root.resolve("data.txt")));
+		}
+		registry.add("demo.files.root", root::toString);
+	}
+
+	@AfterAll
+	static void deleteFiles() throws IOException {
+		for (String name : new String[] { "data.bin", "data.txt", "data.txt.gz", "secret.txt" }) {
+			Files.deleteIfExists(root.resolve(name));
+		}
+		Files.deleteIfExists(root);
+		Files.deleteIfExists(root.resolveSibling("secret.txt"));
+	}
+
+	@Test
+	void fullFileIsSent() throws Exception {
+		HttpResponse<byte[]> response = send(request("/files/data.bin").build());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Accept-Ranges")).hasValue("bytes");
+		assertThat(response.headers().firstValue("ETag")).isPresent();
+		assertThat(response.body()).isEqualTo(data);
+	}
+
+	@Test
+	void singleRangeIsPartialContent() throws Exception {
+		HttpResponse<byte[]> response = send(request("/files/data.bin").header("Range", "bytes=1000-2000000").build());
+		assertThat(response.statusCode()).isEqualTo(206);
+		assertThat(response.headers().firstValue("Content-Range")).hasValue("bytes 1000-2000000/" + SIZE);
+		assertThat(response.body()).isEqualTo(Arrays.copyOfRange(data, 1000, 2000001));
+
+		response = send(request("/files/data.bin").header("Range", "bytes=-100").build());
+		assertThat(response.body()).isEqualTo(Arrays.copyOfRange(data, SIZE - 100, SIZE));
+	}
+
+	@Test
+	void unsatisfiableRangeIs416() throws Exception {
+		HttpResponse<byte[]> response = send(request("/files/data.bin").header("Range", "bytes=" + SIZE + "-").build());
+		assertThat(response.statusCode()).isEqualTo(416);
+		assertThat(response.headers().firstValue("Content-Range")).hasValue("bytes */" + SIZE);
+	}
+
+	@Test
+	void matchingEtagIsNotModified() throws Exception {
+		String etag = send(request("/files/data.bin").method("HEAD", HttpRequest.BodyPublishers.noBody()).build())
+			.headers()
+			.firstValue("ETag")
+			.orElseThrow();
+		HttpResponse<byte[]> response = send(request("/files/data.bin").header("If-None-Match", etag).build());
+		assertThat(response.statusCode()).isEqualTo(304);
+		assertThat(response.body()).isEmpty();
+
+		// 版本不符的 If-Range 使 Range 失效
+		response = send(request("/files/data.bin").header("Range", "bytes=0-9").header("If-Range", "\"stale\"").build());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.body()).hasSize(SIZE);
+	}
+
+	@Test
+	void precompressedVariantIsSentWhenAccepted() throws Exception {
+		byte[] text = Files.readAllBytes(root.resolve("data.txt"));
+		HttpResponse<byte[]> response = send(request("/files/data.txt").header("Accept-Encoding", "gzip").build());
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(response.headers().firstValue("Vary")).hasValue("Accept-Encoding");
+		assertThat(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes())
+			.isEqualTo(text);
+
+		response = send(request("/files/data.txt").build());
+		assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+		assertThat(response.body()).isEqualTo(text);
+
+		// 原文件比 .gz 新时不再使用 .gz
+		Files.setLastModifiedTime(root.resolve("data.txt"),
+				FileTime.fromMillis(Files.getLastModifiedTime(root.resolve("data.txt.gz")).toMillis() + 2000));
+		response = send(request("/files/data.txt").header("Accept-Encoding", "gzip").build());
+		assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+	}
+
+	@Test
+	void filesOutsideRootAreNotFound() throws Exception {
+		Files.writeString(root.resolveSibling("secret.txt"), "secret");
+		assertThat(send(request("/files/..%2Fsecret.txt").build()).statusCode()).isIn(400, 404);
+		assertThat(send(request("/files/missing.txt").build()).statusCode()).isEqualTo(404);
+		this.mvc.perform(get("/files/{name}", "../secret.txt")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void rangeWithoutSendfileIsCopiedFromMappedFile() throws Exception {
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(data, 500, 501);
+		this.mvc.perform(get("/files/data.bin").header("Range", "bytes=500-1000"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string("Content-Range", "bytes 500-1000/" + SIZE))
+			.andExpect(content().bytes(expected.toByteArray()));
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path));
+	}
+
+	private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+		return this.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+}
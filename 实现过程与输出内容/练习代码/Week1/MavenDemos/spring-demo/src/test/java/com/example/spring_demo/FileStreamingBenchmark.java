@@ -0,0 +1,160 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 大文件下载吞吐量：sendfile 与映射后写入响应流两种方式，整文件下载和 4 个客户端并发分段下载
+ * 同时统计 Tomcat 线程（http-nio-*）在下载期间分配的堆内存，验证与文件大小无关
+ * 用法：./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.spring_demo.FileStreamingBenchmark [-Dexec.args="文件大小(MB)，默认 2048"]
+ */
+public final class FileStreamingBenchmark {
+
+	private static final int ROUNDS = 3;
+
+	private static final int PARTS = 4;
+
+	private FileStreamingBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		long megabytes = (args.length > 0) ? Long.parseLong(args[0]) : 2048;
+		Path directory = Files.createTempDirectory("files");
+		Path file = directory.resolve("large.bin");
+		try {
+			generate(file, megabytes << 20);
+			System.out.printf("文件 %d MB，每项取 %d 轮中最快的一轮，%d 个 CPU%n", megabytes, ROUNDS,
+					Runtime.getRuntime().availableProcessors());
+			System.out.printf("%-12s%16s%20s%22s%n", "方式", "整文件(MB/s)", "4 路分段(MB/s)", "服务端分配(KB/请求)");
+			for (boolean sendfile : new boolean[] { true, false }) {
+				run(sendfile, directory, megabytes);
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	private static void run(boolean sendfile, Path directory, long megabytes) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+			.run("--server.port=0", "--demo.files.root=" + directory, "--demo.files.sendfile=" + sendfile,
+					"--logging.level.root=warn", "--spring.main.banner-mode=off")) {
+			int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			URI uri = URI.create("http://localhost:" + port + "/files/large.bin");
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			long length = megabytes << 20;
+			download(client, uri, 0, Math.min(length, 64 << 20) - 1);
+
+			long best = Long.MAX_VALUE;
+			long allocated = 0;
+			for (int round = 0; round < ROUNDS; round++) {
+				long before = serverAllocatedBytes();
+				long start = System.nanoTime();
+				download(client, uri, -1, -1);
+				best = Math.min(best, System.nanoTime() - start);
+				allocated = serverAllocatedBytes() - before;
+			}
+			long bestParallel = Long.MAX_VALUE;
+			ExecutorService executor = Executors.newFixedThreadPool(PARTS);
+			try {
+				for (int round = 0; round < ROUNDS; round++) {
+					long start = System.nanoTime();
+					List<Future<Long>> parts = new ArrayList<>();
+					for (int part = 0; part < PARTS; part++) {
+						long from = length * part / PARTS;
+						long to = length * (part + 1) / PARTS - 1;
+						parts.add(executor.submit(() -> download(client, uri, from, to)));
+					}
+					for (Future<Long> part : parts) {
+						part.get();
+					}
+					bestParallel = Math.min(bestParallel, System.nanoTime() - start);
+				}
+			}
+			finally {
+				executor.shutdown();
+			}
+			System.out.printf("%-12s%16.0f%20.0f%22.1f%n", sendfile ? "sendfile" : "mapped",
+					megabytes / (best / 1e9), megabytes / (bestParallel / 1e9), allocated / 1024.0);
+		}
+	}
+
+	/**
+	 * 下载 [from, to]（from 为 -1 时下载整个文件），边读边丢弃，返回字节数
+	 */
+	private static long download(HttpClient client, URI uri, long from, long to)
+			throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+		if (from >= 0) {
+			request.header("Range", "bytes=" + from + "-" + to);
+		}
+		HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+		long expected = (from >= 0) ? to - from + 1 : response.headers().firstValueAsLong("Content-Length").orElse(-1);
+		long count = 0;
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream body = response.body()) {
+			for (int n; (n = body.read(buffer)) > 0;) {
+				count += n;
+			}
+		}
+		if (count != expected) {
+			throw new IllegalStateException("received " + count + " of " + expected + " bytes");
+		}
+		return count;
+	}
+
+	/**
+	 * Tomcat 连接器线程累计分配的堆内存
+	 */
+	private static long serverAllocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+		long total = 0;
+		for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+			if (info != null && info.getThreadName().startsWith("http-nio")) {
+				total += threads.getThreadAllocatedBytes(info.getThreadId());
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * 重复写入 1 MB 随机数据
+	 */
+	private static void generate(Path file, long size) throws IOException {
+		byte[] block = new byte[1 << 20];
+		new SplittableRandom(3).nextBytes(block);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (long written = 0; written < size; written += block.length) {
+				ByteBuffer buffer = ByteBuffer.wrap(block, 0, (int) Math.min(block.length, size - written));
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+
+}
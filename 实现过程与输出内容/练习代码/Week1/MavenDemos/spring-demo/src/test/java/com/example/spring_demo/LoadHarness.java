@@ -0,0 +1,201 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 本地压测：启动内嵌服务器，多个客户端线程循环请求各个查询接口，同时以固定频率新增人员使缓存失效，
+ * 分别在开启和关闭缓存时报告吞吐量和 p50 / p99 延迟
+ * 用法：./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.spring_demo.LoadHarness [-Dexec.args="持续秒数 并发数 每秒写入数"]
+ * 默认 10 秒、64 个并发客户端、每秒 5 次写入
+ */
+public final class LoadHarness {
+
+	private static final String[] CITIES = PersonRepository.CITIES;
+
+	private LoadHarness() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+		int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 64;
+		int writesPerSecond = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+		Path words = Files.createTempFile("words", ".txt");
+		try {
+			writeWords(words, 20_000);
+			System.out.printf("%d 秒，%d 个并发客户端，每秒 %d 次写入，%d 个 CPU%n", seconds, clients, writesPerSecond,
+					Runtime.getRuntime().availableProcessors());
+			System.out.printf("%-10s%14s%12s%12s%12s%10s%n", "缓存", "请求/秒", "p50(ms)", "p99(ms)", "max(ms)", "错误");
+			for (String cacheType : new String[] { "caffeine", "none" }) {
+				run(cacheType, words, seconds, clients, writesPerSecond);
+			}
+		}
+		finally {
+			Files.deleteIfExists(words);
+		}
+	}
+
+	private static void run(String cacheType, Path words, int seconds, int clients, int writesPerSecond)
+			throws Exception {
+		// 以命令行参数传入，优先于 application.properties
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+			.run("--server.port=0", "--spring.cache.type=" + cacheType, "--demo.words.file=" + words,
+					"--logging.level.root=warn", "--spring.main.banner-mode=off")) {
+			int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			String base = "http://localhost:" + port;
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			List<URI> queries = queries(base);
+
+			// 预热：JIT 编译、建立连接
+			load(client, queries, Math.min(seconds, 3), clients, 0, base);
+			Result result = load(client, queries, seconds, clients, writesPerSecond, base);
+			System.out.printf("%-10s%14.0f%12.3f%12.3f%12.3f%10d%n", cacheType, result.count() / (double) seconds,
+					result.percentile(0.5) / 1e6, result.percentile(0.99) / 1e6, result.percentile(1) / 1e6,
+					result.errors);
+		}
+	}
+
+	/**
+	 * 各查询接口的请求混合：人名查询覆盖每个城市和几个年龄阈值
+	 */
+	private static List<URI> queries(String base) {
+		List<URI> queries = new ArrayList<>();
+		queries.add(URI.create(base + "/api/people/average-age-by-city"));
+		queries.add(URI.create(base + "/api/people/count-by-city"));
+		queries.add(URI.create(base + "/api/words/long"));
+		queries.add(URI.create(base + "/api/words/long?minLength=8"));
+		for (String city : CITIES) {
+			for (int minAge : new int[] { 25, 50, 70 }) {
+				queries.add(URI.create(base + "/api/people/names?city=" + city.replace(" ", "%20") + "&minAge=" + minAge));
+			}
+		}
+		return queries;
+	}
+
+	private static Result load(HttpClient client, List<URI> queries, int seconds, int clients, int writesPerSecond,
+			String base) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		AtomicInteger errors = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(clients + 1);
+		try {
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int c = 0; c < clients; c++) {
+				SplittableRandom random = new SplittableRandom(c);
+				futures.add(executor.submit(() -> {
+					long[] latencies = new long[1024];
+					int n = 0;
+					while (System.nanoTime() < deadline) {
+						HttpRequest request = HttpRequest.newBuilder(queries.get(random.nextInt(queries.size())))
+							.build();
+						long start = System.nanoTime();
+						HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+						long elapsed = System.nanoTime() - start;
+						if (response.statusCode() != 200) {
+							errors.incrementAndGet();
+						}
+						if (n == latencies.length) {
+							latencies = Arrays.copyOf(latencies, n * 2);
+						}
+						latencies[n++] = elapsed;
+					}
+					return Arrays.copyOf(latencies, n);
+				}));
+			}
+			if (writesPerSecond > 0) {
+				executor.submit(() -> write(client, base, deadline, writesPerSecond, errors));
+			}
+			long[][] perClient = new long[clients][];
+			for (int c = 0; c < clients; c++) {
+				perClient[c] = futures.get(c).get();
+			}
+			return new Result(perClient, errors.get());
+		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	private static Void write(HttpClient client, String base, long deadline, int writesPerSecond, AtomicInteger errors)
+			throws IOException, InterruptedException {
+		SplittableRandom random = new SplittableRandom(7);
+		long interval = TimeUnit.SECONDS.toNanos(1) / writesPerSecond;
+		for (long next = System.nanoTime(); next < deadline; next += interval) {
+			TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+			String body = "{\"name\":\"Load" + random.nextInt(1_000_000) + "\",\"age\":" + (18 + random.nextInt(60))
+					+ ",\"city\":\"" + CITIES[random.nextInt(CITIES.length)] + "\"}";
+			HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/people"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+			if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 201) {
+				errors.incrementAndGet();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 空格分隔的文本，词后面偶尔带一个数字使词表足够大
+	 */
+	private static void writeWords(Path file, int lines) throws IOException {
+		String[] vocabulary = { "stream", "lambda", "collector", "benchmark", "Java", "API", "parallel", "filter",
+				"map", "sorted", "partition", "grouping", "函数式", "编程", "并行流", "基准测试" };
+		SplittableRandom random = new SplittableRandom(42);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < lines; i++) {
+			int count = 5 + random.nextInt(16);
+			for (int j = 0; j < count; j++) {
+				text.append((j > 0) ? " " : "").append(vocabulary[random.nextInt(vocabulary.length)]);
+				if (random.nextInt(4) == 0) {
+					text.append(random.nextInt(1000));
+				}
+			}
+			text.append('\n');
+		}
+		Files.writeString(file, text);
+	}
+
+	private static final class Result {
+
+		private final long[] latencies;
+
+		private final int errors;
+
+		Result(long[][] perClient, int errors) {
+			this.latencies = Arrays.stream(perClient).flatMapToLong(Arrays::stream).sorted().toArray();
+			this.errors = errors;
+		}
+
+		int count() {
+			return this.latencies.length;
+		}
+
+		long percentile(double p) {
+			if (this.latencies.length == 0) {
+				return 0;
+			}
+			return this.latencies[(int) Math.max(0, Math.ceil(p * this.latencies.length) - 1)];
+		}
+
+	}
+
+}
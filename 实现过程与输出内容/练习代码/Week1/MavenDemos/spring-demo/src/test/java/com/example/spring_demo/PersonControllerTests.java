@@ -0,0 +1,80 @@
+package com.example.spring_demo;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "demo.people.size=2000")
+@AutoConfigureMockMvc
+@DirtiesContext
+class PersonControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private PersonRepository repository;
+
+	@Autowired
+	private PersonStatsService stats;
+
+	@Test
+	void averageAgeByCityMatchesStreamGrouping() throws Exception {
+		Map<String, Double> expected = this.repository.query((people) -> people.stream()
+			.collect(Collectors.groupingBy(Person::getCity, TreeMap::new, Collectors.averagingInt(Person::getAge))));
+		assertThat(this.stats.averageAgeByCity()).isEqualTo(expected);
+		this.mvc.perform(get("/api/people/average-age-by-city"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.London").value(expected.get("London")));
+	}
+
+	@Test
+	void cachedResultIsReusedUntilDataChanges() throws Exception {
+		Map<String, Long> before = this.stats.countByCity();
+		assertThat(this.stats.countByCity()).isSameAs(before);
+
+		this.mvc
+			.perform(post("/api/people").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Zhang\",\"age\":30,\"city\":\"Hangzhou\"}"))
+			.andExpect(status().isCreated());
+
+		Map<String, Long> after = this.stats.countByCity();
+		assertThat(after).isNotSameAs(before).containsEntry("Hangzhou", 1L);
+		this.mvc.perform(get("/api/people/names").param("city", "Hangzhou").param("minAge", "25"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[\"Zhang\"]"));
+	}
+
+	@Test
+	void namesAreFilteredAndSorted() throws Exception {
+		assertThat(this.stats.namesInCity("Paris", 60)).isSorted()
+			.hasSize(this.repository.query((people) -> (int) people.stream()
+				.filter((person) -> person.getCity().equals("Paris") && person.getAge() > 60)
+				.count()));
+	}
+
+	@Test
+	void invalidPersonIsRejected() throws Exception {
+		this.mvc
+			.perform(post("/api/people").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"\",\"age\":-1,\"city\":\"Paris\"}"))
+			.andExpect(status().isBadRequest());
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 各种启动方式的首个请求耗时和 RSS，每种方式取多次运行的中位数，结果追加到 target/startup-report.csv
+ * 用法：./mvnw -Pfast-startup package 之后
+ * ./mvnw exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.spring_demo.StartupBenchmark
+ * [-Dexec.args="运行次数，默认 5"]
+ * 没有 target/extracted 时只比较类路径启动和延迟初始化
+ */
+public final class StartupBenchmark {
+
+	private static final Path TARGET = Paths.get("target");
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+		List<Mode> modes = modes();
+		System.out.printf("每种方式运行 %d 次取中位数，%d 个 CPU%n", rounds, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-24s%16s%12s%n", "启动方式", "首个请求(ms)", "RSS(MB)");
+		List<String> report = new ArrayList<>();
+		for (Mode mode : modes) {
+			long[] times = new long[rounds];
+			long[] rss = new long[rounds];
+			for (int i = 0; i < rounds; i++) {
+				StartupProbe.Sample sample = StartupProbe.measure(mode.command, mode.directory,
+						TARGET.resolve("startup-" + mode.name.replaceAll("\\W+", "-") + ".log"));
+				times[i] = sample.timeToFirstRequestMillis;
+				rss[i] = sample.rssKilobytes;
+			}
+			long time = median(times);
+			long memory = median(rss) / 1024;
+			System.out.printf("%-24s%16d%12d%n", mode.name, time, memory);
+			report.add(String.join(",", LocalDateTime.now().toString(), mode.name, Long.toString(time),
+					Long.toString(memory)));
+		}
+		Path csv = TARGET.resolve("startup-report.csv");
+		if (!Files.exists(csv)) {
+			report.add(0, "time,mode,time_to_first_request_ms,rss_mb");
+		}
+		Files.write(csv, report, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	private static List<Mode> modes() throws IOException {
+		List<Mode> modes = new ArrayList<>();
+		Path current = Paths.get(".");
+		modes.add(new Mode("classpath", StartupProbe.classpathCommand(List.of()), current));
+		List<String> lazy = new ArrayList<>(StartupProbe.classpathCommand(List.of()));
+		lazy.add("--spring.profiles.active=fast");
+		modes.add(new Mode("classpath + lazy", lazy, current));
+
+		Optional<Path> jar = StartupProbe.extractedJar(TARGET);
+		if (jar.isEmpty()) {
+			System.out.println("没有找到 target/extracted，先运行 ./mvnw -Pfast-startup package 以比较 AOT 和 CDS");
+			return modes;
+		}
+		Path directory = jar.get().getParent();
+		String name = jar.get().getFileName().toString();
+		modes.add(new Mode("jar", StartupProbe.javaCommand("-jar", name), directory));
+		modes.add(new Mode("jar + lazy", StartupProbe.javaCommand("-jar", name, "--spring.profiles.active=fast"),
+				directory));
+		modes.add(new Mode("AOT + lazy", StartupProbe.javaCommand("-Dspring.aot.enabled=true", "-jar", name,
+				"--spring.profiles.active=fast"), directory));
+		if (Files.exists(directory.resolve("application.jsa"))) {
+			modes.add(new Mode("AOT + lazy + CDS", StartupProbe.aotCdsCommand(jar.get()), directory));
+		}
+		return modes;
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private static final class Mode {
+
+		private final String name;
+
+		private final List<String> command;
+
+		private final Path directory;
+
+		Mode(String name, List<String> command, Path directory) {
+			this.name = name;
+			this.command = command;
+			this.directory = directory;
+		}
+
+	}
+
+}
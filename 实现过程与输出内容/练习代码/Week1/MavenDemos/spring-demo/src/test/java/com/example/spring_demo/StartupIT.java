@@ -0,0 +1,87 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 启动耗时和内存的回归检查，只在 ./mvnw -Pfast-startup verify 中运行（failsafe，打包和 CDS 训练运行之后）
+ * 每种启动方式运行若干次取最快的一次，首个请求耗时和 RSS 不能超过 startup-baseline.properties 中的基线乘以系数
+ * 系数用 -Dstartup.budget.factor 调整（默认 1.5），次数用 -Dstartup.rounds（默认 3）；
+ * 启动路径有意变化后，用 StartupBenchmark 的中位数更新基线
+ */
+class StartupIT {
+
+	private static final double BUDGET_FACTOR = Double.parseDouble(System.getProperty("startup.budget.factor", "1.5"));
+
+	private static final int ROUNDS = Integer.getInteger("startup.rounds", 3);
+
+	private static final Path TARGET = Paths.get("target");
+
+	private static final Properties baseline = new Properties();
+
+	@BeforeAll
+	static void loadBaseline() throws IOException {
+		try (InputStream in = StartupIT.class.getResourceAsStream("/startup-baseline.properties")) {
+			assertThat(in).as("startup-baseline.properties").isNotNull();
+			baseline.load(in);
+		}
+	}
+
+	@Test
+	void classpathStartupWithinBaseline() throws Exception {
+		check("classpath", StartupProbe.classpathCommand(List.of()), Paths.get("."));
+	}
+
+	@Test
+	void lazyStartupWithinBaseline() throws Exception {
+		List<String> command = new ArrayList<>(StartupProbe.classpathCommand(List.of()));
+		command.add("--spring.profiles.active=fast");
+		check("lazy", command, Paths.get("."));
+	}
+
+	/**
+	 * -Xshare:on：归档无法映射（JDK 不同、jar 变了）时 JVM 直接退出，而不是悄悄退回到不用 CDS
+	 */
+	@Test
+	void aotCdsStartupWithinBaseline() throws Exception {
+		Path jar = StartupProbe.extractedJar(TARGET)
+			.orElseThrow(() -> new IllegalStateException("target/extracted 中没有 jar，用 ./mvnw -Pfast-startup verify 运行"));
+		check("aot-cds", StartupProbe.aotCdsCommand(jar, "-Xshare:on"), jar.getParent());
+	}
+
+	private static void check(String mode, List<String> command, Path directory) throws Exception {
+		long millis = Long.MAX_VALUE;
+		long rssKilobytes = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			StartupProbe.Sample sample = StartupProbe.measure(command, directory,
+					TARGET.toAbsolutePath().resolve("startup-it-" + mode + ".log"));
+			millis = Math.min(millis, sample.timeToFirstRequestMillis);
+			rssKilobytes = Math.min(rssKilobytes, sample.rssKilobytes);
+		}
+		long budgetMillis = budget(mode + ".ms");
+		long budgetMegabytes = budget(mode + ".rss.mb");
+		System.out.printf("%s: %d ms (budget %d), RSS %d MB (budget %d)%n", mode, millis, budgetMillis,
+				rssKilobytes / 1024, budgetMegabytes);
+		assertThat(millis).as(mode + " time to first request (ms)").isLessThanOrEqualTo(budgetMillis);
+		if (rssKilobytes >= 0) {
+			assertThat(rssKilobytes / 1024).as(mode + " RSS at first request (MB)").isLessThanOrEqualTo(budgetMegabytes);
+		}
+	}
+
+	private static long budget(String key) {
+		String value = baseline.getProperty(key);
+		assertThat(value).as("baseline " + key).isNotNull();
+		return Math.round(Long.parseLong(value.trim()) * BUDGET_FACTOR);
+	}
+
+}
@@ -0,0 +1,189 @@
+package com.example.spring_demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 在子进程中启动应用，测量从启动进程到第一个请求成功返回的时间，以及此时进程的常驻内存（RSS）
+ */
+final class StartupProbe {
+
+	/** 第一个请求：触发人员数据的生成和一次分组查询 */
+	static final String FIRST_REQUEST = "/api/people/count-by-city";
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+	private StartupProbe() {
+	}
+
+	/**
+	 * 一次测量的结果；不是 Linux 时 RSS 为 -1
+	 */
+	static final class Sample {
+
+		final long timeToFirstRequestMillis;
+
+		final long rssKilobytes;
+
+		Sample(long timeToFirstRequestMillis, long rssKilobytes) {
+			this.timeToFirstRequestMillis = timeToFirstRequestMillis;
+			this.rssKilobytes = rssKilobytes;
+		}
+
+	}
+
+	static String java() {
+		return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+	}
+
+	/**
+	 * 用当前的类路径启动应用（不需要先打包）
+	 */
+	static List<String> classpathCommand(List<String> jvmOptions) {
+		List<String> command = new ArrayList<>();
+		command.add(java());
+		command.addAll(jvmOptions);
+		command.add("-cp");
+		command.add(classpath());
+		command.add(DemoApplication.class.getName());
+		return command;
+	}
+
+	/**
+	 * -Pfast-startup 打包后解压出的可执行 jar（target/extracted 下，application.jsa 与它在同一目录）
+	 */
+	static Optional<Path> extractedJar(Path target) throws IOException {
+		Path extracted = target.resolve("extracted");
+		if (!Files.isDirectory(extracted)) {
+			return Optional.empty();
+		}
+		try (Stream<Path> files = Files.list(extracted)) {
+			return files.filter((path) -> path.toString().endsWith(".jar")).findFirst();
+		}
+	}
+
+	/**
+	 * 用解压出的 jar 启动：AOT、延迟初始化，加载训练运行生成的 CDS 归档
+	 * 在 jar 所在目录中运行；extraJvmOptions 加在 -jar 之前
+	 */
+	static List<String> aotCdsCommand(Path jar, String... extraJvmOptions) {
+		List<String> command = javaCommand(extraJvmOptions);
+		command.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=error", "-Dspring.aot.enabled=true",
+				"-jar", jar.getFileName().toString(), "--spring.profiles.active=fast"));
+		return command;
+	}
+
+	static List<String> javaCommand(String... arguments) {
+		List<String> command = new ArrayList<>();
+		command.add(java());
+		command.addAll(Arrays.asList(arguments));
+		return command;
+	}
+
+	/**
+	 * exec:java 在自己的 URLClassLoader 中运行，java.class.path 是 Maven 的类路径；surefire 中直接用 java.class.path
+	 */
+	private static String classpath() {
+		if (StartupProbe.class.getClassLoader() instanceof URLClassLoader) {
+			URL[] urls = ((URLClassLoader) StartupProbe.class.getClassLoader()).getURLs();
+			List<String> entries = new ArrayList<>();
+			for (URL url : urls) {
+				try {
+					entries.add(Paths.get(url.toURI()).toString());
+				}
+				catch (URISyntaxException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			return String.join(File.pathSeparator, entries);
+		}
+		return System.getProperty("java.class.path");
+	}
+
+	/**
+	 * 运行 command（在 directory 中，追加端口参数），等待第一个请求成功后读取 RSS 并结束进程
+	 * 子进程的输出写入 log，启动失败时查看
+	 */
+	static Sample measure(List<String> command, Path directory, Path log) throws IOException, InterruptedException {
+		int port = freePort();
+		List<String> full = new ArrayList<>(command);
+		full.add("--server.port=" + port);
+		Files.createDirectories(log.toAbsolutePath().getParent());
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST)).build();
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(full).directory(directory.toFile())
+			.redirectErrorStream(true)
+			.redirectOutput(log.toFile())
+			.start();
+		try {
+			long deadline = start + TIMEOUT.toNanos();
+			while (true) {
+				if (!process.isAlive()) {
+					throw new IllegalStateException("application exited with " + process.exitValue() + ", see " + log);
+				}
+				if (System.nanoTime() > deadline) {
+					throw new IllegalStateException("no response within " + TIMEOUT + ", see " + log);
+				}
+				try {
+					if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						break;
+					}
+				}
+				catch (IOException ex) {
+					// 还没开始监听，或连接在启动过程中被重置
+				}
+				Thread.sleep(5);
+			}
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			return new Sample(elapsed, rss(process.pid()));
+		}
+		finally {
+			process.destroy();
+			if (!process.waitFor(10, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		}
+	}
+
+	/**
+	 * /proc/[pid]/status 中的 VmRSS
+	 */
+	private static long rss(long pid) throws IOException {
+		Path status = Paths.get("/proc", Long.toString(pid), "status");
+		if (!Files.exists(status)) {
+			return -1;
+		}
+		for (String line : Files.readAllLines(status)) {
+			if (line.startsWith("VmRSS:")) {
+				return Long.parseLong(line.replaceAll("\\D", ""));
+			}
+		}
+		return -1;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.example.spring_demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class WordControllerTests {
+
+	private static Path file;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@DynamicPropertySource
+	static void wordFile(DynamicPropertyRegistry registry) throws IOException {
+		file = Files.createTempFile("words", ".txt");
+		Files.writeString(file, "stream lambda collector\nbenchmark stream API\n");
+		registry.add("demo.words.file", file::toString);
+	}
+
+	@AfterAll
+	static void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	void longWordsAreInvalidatedWhenFileChanges() throws Exception {
+		this.mvc.perform(get("/api/words/long"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[\"benchmark\",\"collector\",\"lambda\",\"stream\"]", true));
+		this.mvc.perform(get("/api/words/long").param("minLength", "6"))
+			.andExpect(content().json("[\"benchmark\",\"collector\"]", true));
+
+		// 修改时间往后推，避免与上次写入落在同一毫秒
+		Files.writeString(file, "parallel grouping\n");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+		this.mvc.perform(get("/api/words/long"))
+			.andExpect(content().json("[\"grouping\",\"parallel\"]", true));
+	}
+
+	@Test
+	void missingFileIsNotFound() throws Exception {
+		Path moved = file.resolveSibling(file.getFileName() + ".moved");
+		Files.move(file, moved);
+		try {
+			this.mvc.perform(get("/api/words/long")).andExpect(status().isNotFound());
+		}
+		finally {
+			Files.move(moved, file);
+		}
+	}
+
+}
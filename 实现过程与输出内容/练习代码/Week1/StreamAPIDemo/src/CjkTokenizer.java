@@ -0,0 +1,194 @@
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 中日韩文本友好的分词器
+ * 以空白、标点符号以及文字种类（汉字/假名/谚文 与 其他字母数字）的交界作为词的边界，
+ * 例如 "2025年10月" 切分为 [2025, 年, 10, 月]，“十五五”规划建议 切分为 [十五五, 规划建议]
+ * 文本可以分多批喂入，跨批次的半个词会保留到下一批再输出
+ */
+public class CjkTokenizer {
+    static final int SEPARATOR = 0;
+    static final int WORD = 1;
+    static final int CJK = 2;
+    /** 组合附加符号，跟随前一个字符的种类 */
+    static final int CONTINUE = -1;
+    /** ASCII 字母数字为 WORD，其余为 SEPARATOR */
+    private static final byte[] ASCII_KINDS = new byte[0x80];
+
+    static {
+        for (int c = 0; c < 0x80; c++) {
+            ASCII_KINDS[c] = (byte) ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    ? WORD : SEPARATOR);
+        }
+    }
+
+    private final int minLength;
+    private final TokenSink sink;
+    /** 上一批末尾尚未结束的词 */
+    private char[] pending = new char[64];
+    private int pendingLength;
+    private int currentKind = SEPARATOR;
+
+    /**
+     * 直接接收字符数组片段的回调，调用方可以先查重再决定是否创建字符串
+     * 片段只在回调期间有效
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(char[] text, int offset, int length);
+    }
+
+    public CjkTokenizer(Consumer<String> sink) {
+        this(0, sink);
+    }
+
+    /**
+     * @param minLength 长度不大于该值的词直接丢弃，不创建字符串
+     */
+    public CjkTokenizer(int minLength, Consumer<String> sink) {
+        this(minLength, (TokenSink) (text, offset, length) -> sink.accept(new String(text, offset, length)));
+    }
+
+    public CjkTokenizer(int minLength, TokenSink sink) {
+        this.minLength = minLength;
+        this.sink = sink;
+    }
+
+    /**
+     * 一次性切分整段文本
+     */
+    public static void tokenize(CharSequence text, Consumer<String> sink) {
+        CjkTokenizer tokenizer = new CjkTokenizer(sink);
+        char[] chars = text.toString().toCharArray();
+        tokenizer.feed(chars, 0, chars.length);
+        tokenizer.finish();
+    }
+
+    /**
+     * 喂入缓冲区中 position 到 limit 的字符
+     * 末尾落单的高位代理字符不会被消费，调用方 compact() 后它会与下一批的低位代理拼接
+     */
+    public void feed(CharBuffer buffer) {
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to > from && Character.isHighSurrogate(buffer.get(to - 1))) {
+            to--;
+        }
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            feed(buffer.array(), offset + from, offset + to);
+        } else {
+            char[] chars = new char[to - from];
+            buffer.get(chars);
+            feed(chars, 0, chars.length);
+        }
+        buffer.position(to);
+    }
+
+    public void feed(char[] text, int from, int to) {
+        int kind = currentKind;
+        int start = from;
+        int i = from;
+        while (i < to) {
+            char c = text[i];
+            int next;
+            int width = 1;
+            if (c < 0x80) {
+                next = ASCII_KINDS[c];
+            } else if (c >= 0x4E00 && c <= 0x9FFF) {
+                // 最常见的中日韩统一表意文字，跳过字符类型查询
+                next = CJK;
+            } else {
+                int cp = c;
+                if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text[i + 1])) {
+                    cp = Character.toCodePoint(c, text[i + 1]);
+                    width = 2;
+                }
+                next = kindOf(cp);
+                if (next == CONTINUE) {
+                    next = kind;
+                }
+            }
+            if (next != kind) {
+                if (kind != SEPARATOR) {
+                    emit(text, start, i);
+                }
+                start = i;
+                kind = next;
+            }
+            i += width;
+        }
+        currentKind = kind;
+        if (kind != SEPARATOR) {
+            appendPending(text, start, to);
+        }
+    }
+
+    /**
+     * 输入结束，输出最后一个词
+     */
+    public void finish() {
+        if (pendingLength > minLength) {
+            sink.accept(pending, 0, pendingLength);
+        }
+        pendingLength = 0;
+        currentKind = SEPARATOR;
+    }
+
+    private void emit(char[] text, int start, int end) {
+        if (pendingLength > 0) {
+            if (pendingLength + end - start > minLength) {
+                appendPending(text, start, end);
+                sink.accept(pending, 0, pendingLength);
+            }
+            pendingLength = 0;
+        } else if (end - start > minLength) {
+            sink.accept(text, start, end - start);
+        }
+    }
+
+    private void appendPending(char[] text, int start, int end) {
+        int length = pendingLength + end - start;
+        if (length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(length, pending.length * 2));
+        }
+        System.arraycopy(text, start, pending, pendingLength, end - start);
+        pendingLength = length;
+    }
+
+    static int kindOf(int cp) {
+        if (cp < 0x80) {
+            return ASCII_KINDS[cp];
+        }
+        switch (Character.getType(cp)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+                return isCjk(cp) ? CJK : WORD;
+            case Character.NON_SPACING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+                return CONTINUE;
+            default:
+                return SEPARATOR;
+        }
+    }
+
+    /**
+     * 汉字、假名、谚文、注音所在的区段
+     */
+    static boolean isCjk(int cp) {
+        return (cp >= 0x2E80 && cp <= 0x9FFF)
+                || (cp >= 0xAC00 && cp <= 0xD7AF)
+                || (cp >= 0xF900 && cp <= 0xFAFF)
+                || (cp >= 0xFF66 && cp <= 0xFFDC)
+                || (cp >= 0x20000 && cp <= 0x3FFFF);
+    }
+}
@@ -0,0 +1,256 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * 并行流的分组统计收集器（CONCURRENT + UNORDERED）：所有线程写入同一个结果，不再为每个线程建一份 Map 再逐层合并
+ * 每个键的统计像 LongAdder 一样分成多个条带：起初只有一个条带，线程抢不到某个条带时换到另一个，
+ * 条带数随竞争增长到不少于 CPU 数；热点键（例如大部分人都在同一个城市）也不会让所有线程排队
+ * 汇总时每个条带是一个 IntSketch，结束时合并，得到计数、求和、最小值、最大值、平均值和近似分位数；
+ * 求平均值时每个条带只有计数和求和
+ */
+public class ConcurrentCollectors {
+    private static final int MAX_STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+    private static final AtomicInteger PROBE_SEED = new AtomicInteger();
+    /** 每个线程当前使用的条带编号，发生竞争时换一个 */
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+            () -> new int[]{PROBE_SEED.getAndAdd(0x9E3779B9) | 1});
+
+    private ConcurrentCollectors() {
+    }
+
+    /**
+     * 按键汇总 int 值，相当于 groupingByConcurrent(key, summarizingInt(value))，另外提供近似分位数；value 不能为负
+     */
+    public static <T, K> Collector<T, ?, Map<K, IntSketch>> summarizingIntByKey(Function<? super T, ? extends K> key,
+                                                                                ToIntFunction<? super T> value) {
+        return Collector.of(
+                () -> new Aggregation<K, SketchStripe>(SketchStripe::new),
+                (aggregation, element) -> aggregation.add(key.apply(element), value.applyAsInt(element)),
+                Aggregation::addAll,
+                aggregation -> aggregation.snapshot(stripe -> stripe.sketch),
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 按键求平均值，相当于 groupingBy(key, averagingInt(value))，结果逐位相同（求和用 long，不丢精度）；
+     * 每个条带只维护计数和求和，不需要直方图，value 可以为负
+     */
+    public static <T, K> Collector<T, ?, Map<K, Double>> averagingIntByKey(Function<? super T, ? extends K> key,
+                                                                          ToIntFunction<? super T> value) {
+        return Collector.of(
+                () -> new Aggregation<K, MeanStripe>(MeanStripe::new),
+                (aggregation, element) -> aggregation.add(key.apply(element), value.applyAsInt(element)),
+                Aggregation::addAll,
+                aggregation -> aggregation.snapshot(MeanStripe::mean),
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    private static final class Aggregation<K, S extends Stripe> {
+        private final ConcurrentHashMap<K, Striped<S>> cells = new ConcurrentHashMap<>();
+        private final Supplier<S> factory;
+
+        Aggregation(Supplier<S> factory) {
+            this.factory = factory;
+        }
+
+        void add(K key, int value) {
+            Striped<S> cell = cells.get(key);
+            if (cell == null) {
+                cell = cells.computeIfAbsent(key, k -> new Striped<>(factory));
+            }
+            cell.add(value);
+        }
+
+        Aggregation<K, S> addAll(Aggregation<K, S> other) {
+            other.cells.forEach((key, cell) ->
+                    cells.computeIfAbsent(key, k -> new Striped<>(factory)).addAll(cell.snapshot()));
+            return this;
+        }
+
+        <R> Map<K, R> snapshot(Function<? super S, ? extends R> finisher) {
+            Map<K, R> result = new HashMap<>();
+            cells.forEach((key, cell) -> result.put(key, finisher.apply(cell.snapshot())));
+            return result;
+        }
+    }
+
+    /**
+     * 一个键的分条带统计
+     */
+    private static final class Striped<S extends Stripe> {
+        private final Supplier<S> factory;
+        private volatile Stripe[] stripes;
+
+        Striped(Supplier<S> factory) {
+            this.factory = factory;
+            this.stripes = new Stripe[]{factory.get()};
+        }
+
+        void add(int value) {
+            int[] probe = PROBE.get();
+            Stripe[] current = stripes;
+            int failures = 0;
+            while (true) {
+                Stripe stripe = current[probe[0] & (current.length - 1)];
+                if (stripe.tryLock()) {
+                    try {
+                        stripe.add(value);
+                    } finally {
+                        stripe.unlock();
+                    }
+                    return;
+                }
+                // 有竞争：条带还不够多就扩容，然后换一个条带（xorshift，与 LongAdder 的做法相同）
+                if (current.length < MAX_STRIPES) {
+                    current = grow(current);
+                } else if (++failures >= current.length) {
+                    // 所有条带都忙，持有者可能被调度出去了，让出 CPU
+                    Thread.yield();
+                    failures = 0;
+                    current = stripes;
+                }
+                int h = probe[0];
+                h ^= h << 13;
+                h ^= h >>> 17;
+                h ^= h << 5;
+                probe[0] = h;
+            }
+        }
+
+        void addAll(S other) {
+            Stripe stripe = stripes[0];
+            stripe.lock();
+            try {
+                stripe.merge(other);
+            } finally {
+                stripe.unlock();
+            }
+        }
+
+        S snapshot() {
+            S result = factory.get();
+            for (Stripe stripe : stripes) {
+                stripe.lock();
+                try {
+                    result.merge(stripe);
+                } finally {
+                    stripe.unlock();
+                }
+            }
+            return result;
+        }
+
+        private synchronized Stripe[] grow(Stripe[] seen) {
+            Stripe[] current = stripes;
+            if (current == seen) {
+                Stripe[] larger = new Stripe[current.length * 2];
+                System.arraycopy(current, 0, larger, 0, current.length);
+                for (int i = current.length; i < larger.length; i++) {
+                    larger[i] = factory.get();
+                }
+                stripes = current = larger;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 条带锁标志之前的填充
+     * HotSpot 按字段大小而不是声明顺序排列同一个类的字段，但父类的字段总排在子类之前，所以填充和锁标志分别放在各层类中；
+     * p0 占住对象头之后的 4 字节空隙，子类的 int 字段不会被排到填充前面
+     */
+    @SuppressWarnings("unused")
+    private abstract static class StripeLeftPadding {
+        private int p0;
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private abstract static class StripeLock extends StripeLeftPadding {
+        volatile int locked;
+    }
+
+    /**
+     * 锁标志之后的填充，把子类的统计字段（以及下一个对象）推离锁标志所在的缓存行；
+     * q0 占住锁标志之后的 4 字节空隙，否则子类的引用或 int 字段会被排到紧挨着锁标志的位置
+     */
+    @SuppressWarnings("unused")
+    private abstract static class StripeRightPadding extends StripeLock {
+        private int q0;
+        private long q1, q2, q3, q4, q5, q6, q7;
+    }
+
+    /**
+     * 带自旋锁标志的条带；锁标志前后各有 64 字节填充，相邻条带的锁和统计字段不会与它落在同一缓存行上
+     */
+    private abstract static class Stripe extends StripeRightPadding {
+        private static final AtomicIntegerFieldUpdater<StripeLock> LOCKED =
+                AtomicIntegerFieldUpdater.newUpdater(StripeLock.class, "locked");
+
+        abstract void add(int value);
+
+        /**
+         * 并入同类条带的统计，other 不变
+         */
+        abstract void merge(Stripe other);
+
+        boolean tryLock() {
+            return locked == 0 && LOCKED.compareAndSet(this, 0, 1);
+        }
+
+        void lock() {
+            while (!tryLock()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        void unlock() {
+            locked = 0;
+        }
+    }
+
+    private static final class SketchStripe extends Stripe {
+        final IntSketch sketch = new IntSketch();
+
+        @Override
+        void add(int value) {
+            sketch.add(value);
+        }
+
+        @Override
+        void merge(Stripe other) {
+            sketch.merge(((SketchStripe) other).sketch);
+        }
+    }
+
+    /**
+     * 只有计数和求和，与 Collectors.averagingInt 的累加方式相同
+     */
+    private static final class MeanStripe extends Stripe {
+        long count;
+        long sum;
+
+        @Override
+        void add(int value) {
+            count++;
+            sum += value;
+        }
+
+        @Override
+        void merge(Stripe other) {
+            MeanStripe mean = (MeanStripe) other;
+            count += mean.count;
+            sum += mean.sum;
+        }
+
+        double mean() {
+            return count == 0 ? 0.0d : (double) sum / count;
+        }
+    }
+}
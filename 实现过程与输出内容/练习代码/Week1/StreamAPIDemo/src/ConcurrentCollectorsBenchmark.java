@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 城市分布高度倾斜时（约一半的人在同一个城市），并行按城市求平均年龄的几种写法在不同并行度下的耗时：
+ * groupingBy（每个线程一份 Map，再逐层合并）、groupingByConcurrent（共享的每键容器，更新时加锁）、
+ * ConcurrentCollectors（每键分条带）
+ * 用法：ConcurrentCollectorsBenchmark [人数，默认 4000000]
+ */
+public class ConcurrentCollectorsBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        List<Person> people = skewed(n);
+        check(people);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> levels = new TreeSet<>(Arrays.asList(1, 2, 4, cores));
+        System.out.printf("%d 人，%d 个 CPU，每项取 %d 轮中最快的一轮（ms）%n", n, cores, ROUNDS);
+        System.out.printf("%-42s", "并行度");
+        for (int level : levels) {
+            System.out.printf("%8d", level);
+        }
+        System.out.println();
+        row("groupingBy + averagingInt", levels, () -> people.parallelStream()
+                .collect(Collectors.groupingBy(Person::getCity, Collectors.averagingInt(Person::getAge))));
+        row("groupingByConcurrent + averagingInt", levels, () -> people.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Person::getCity, Collectors.averagingInt(Person::getAge))));
+        row("ConcurrentCollectors.averagingIntByKey", levels, () -> people.parallelStream()
+                .collect(ConcurrentCollectors.averagingIntByKey(Person::getCity, Person::getAge)));
+        row("ConcurrentCollectors.summarizingIntByKey", levels, () -> people.parallelStream()
+                .collect(ConcurrentCollectors.summarizingIntByKey(Person::getCity, Person::getAge)));
+        System.out.println(people.parallelStream()
+                .collect(ConcurrentCollectors.summarizingIntByKey(Person::getCity, Person::getAge)).get("New York"));
+    }
+
+    /**
+     * 平均值与 JDK 结果逐位相同；计数、最值精确；年龄分位数精确，较大值的分位数相对误差不超过 1/32
+     */
+    private static void check(List<Person> people) {
+        Map<String, Double> expected = people.stream()
+                .collect(Collectors.groupingBy(Person::getCity, Collectors.averagingInt(Person::getAge)));
+        if (!expected.equals(people.parallelStream()
+                .collect(ConcurrentCollectors.averagingIntByKey(Person::getCity, Person::getAge)))) {
+            throw new AssertionError("averages differ");
+        }
+        Map<String, IntSketch> sketches = people.parallelStream()
+                .collect(ConcurrentCollectors.summarizingIntByKey(Person::getCity, Person::getAge));
+        Map<String, List<Integer>> ages = people.stream()
+                .collect(Collectors.groupingBy(Person::getCity, Collectors.mapping(Person::getAge, Collectors.toList())));
+        ages.forEach((city, values) -> {
+            IntSketch sketch = sketches.get(city);
+            int[] sorted = values.stream().mapToInt(Integer::intValue).sorted().toArray();
+            if (sketch.count() != sorted.length || sketch.min() != sorted[0] || sketch.max() != sorted[sorted.length - 1]) {
+                throw new AssertionError(city + " " + sketch);
+            }
+            for (double p : new double[]{0, 0.25, 0.5, 0.9, 0.99, 1}) {
+                if (sketch.percentile(p) != exactPercentile(sorted, p)) {
+                    throw new AssertionError(city + " p" + p + " " + sketch.percentile(p));
+                }
+            }
+        });
+
+        // 大数值走对数桶
+        SplittableRandom random = new SplittableRandom(5);
+        int[] values = new int[200_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) Math.min(Integer.MAX_VALUE, Math.exp(random.nextDouble() * 21));
+        }
+        IntSketch large = Arrays.stream(values).boxed().parallel()
+                .collect(ConcurrentCollectors.summarizingIntByKey(v -> 0, v -> v)).get(0);
+        Arrays.sort(values);
+        for (double p : new double[]{0.01, 0.5, 0.9, 0.999}) {
+            int exact = exactPercentile(values, p);
+            if (Math.abs(large.percentile(p) - exact) > exact / 32.0 + 1) {
+                throw new AssertionError("p" + p + " " + large.percentile(p) + " vs " + exact);
+            }
+        }
+        if (large.sum() != Arrays.stream(values).asLongStream().sum()) {
+            throw new AssertionError("sum");
+        }
+
+        // 平均值允许负数，大数值求和也与 JDK 逐位相同
+        List<Integer> signed = random.ints(200_000).boxed().collect(Collectors.toList());
+        if (!signed.stream().collect(Collectors.groupingBy(v -> v & 7, Collectors.averagingInt(v -> v)))
+                .equals(signed.parallelStream().collect(ConcurrentCollectors.averagingIntByKey(v -> v & 7, v -> v)))) {
+            throw new AssertionError("signed averages differ");
+        }
+        System.out.println("平均值、计数、最值与 JDK 一致，分位数在误差范围内");
+    }
+
+    private static int exactPercentile(int[] sorted, double p) {
+        return sorted[(int) Math.max(0, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static void row(String name, TreeSet<Integer> levels, Supplier<Map<String, ?>> body)
+            throws InterruptedException, ExecutionException {
+        System.out.printf("%-42s", name);
+        for (int level : levels) {
+            ForkJoinPool pool = new ForkJoinPool(level);
+            try {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    pool.submit(body::get).get();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("%8d", best / 1_000_000);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * 城市按 Zipf 分布（指数 1.5）取自 PersonGenerator 的 16 个城市，纽约约占一半
+     */
+    private static List<Person> skewed(int n) {
+        double[] cdf = new double[PersonGenerator.CITIES.length];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += 1 / Math.pow(i + 1, 1.5);
+            cdf[i] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(17);
+        List<Person> people = new ArrayList<>(n);
+        new PersonGenerator(42).stream(n).forEach(person -> {
+            double u = random.nextDouble() * cdf[cdf.length - 1];
+            int city = 0;
+            while (cdf[city] < u) {
+                city++;
+            }
+            person.setCity(PersonGenerator.CITIES[city]);
+            people.add(person);
+        });
+        return people;
+    }
+}
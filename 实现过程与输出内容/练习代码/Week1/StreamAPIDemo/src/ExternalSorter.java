@@ -0,0 +1,283 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 外部排序去重，代替 distinct().sorted() 把所有词都留在堆上的做法
+ * 词先在内存中去重，估算占用超过预算时排序写入临时文件（一个有序、无重复的"段"），
+ * 最后对所有段做多路归并，边归并边去重边输出，内存占用只与预算和段数有关
+ */
+public class ExternalSorter implements CjkTokenizer.TokenSink, Closeable {
+    /** 估算每个词的固定开销：String 对象、数组头、哈希表的两个槽位 */
+    private static final long ENTRY_OVERHEAD = 64;
+    /** 一次最多同时归并的段数，超过时先分组归并 */
+    private static final int MAX_FAN_IN = 64;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final WordSet buffer = new WordSet();
+    private final List<Path> runs = new ArrayList<>();
+    private long bufferedBytes;
+    
+    /**
+     * 临时段文件放在 java.io.tmpdir 下，进程被强行结束时残留的文件不会留在源码目录中
+     *
+     * @param memoryBudget 内存中缓存的词的估算字节上限
+     */
+    public ExternalSorter(long memoryBudget) {
+        this(memoryBudget, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+    
+    /**
+     * @param memoryBudget 内存中缓存的词的估算字节上限
+     * @param tempDir      存放临时段文件的目录
+     */
+    public ExternalSorter(long memoryBudget, Path tempDir) {
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+    
+    public void add(String word) {
+        if (buffer.add(word)) {
+            grow(word.length());
+        }
+    }
+    
+    /**
+     * 可以直接作为 {@link CjkTokenizer} 的输出，重复的词不会创建字符串
+     */
+    @Override
+    public void accept(char[] text, int offset, int length) {
+        if (buffer.add(text, offset, length)) {
+            grow(length);
+        }
+    }
+    
+    /**
+     * 已经写到磁盘的段数
+     */
+    public int runCount() {
+        return runs.size();
+    }
+    
+    /**
+     * 有序去重的结果，惰性归并，用完后需关闭流（或关闭本对象）以删除临时文件
+     * 调用后不能再添加新词
+     */
+    public Stream<String> sortedDistinct() throws IOException {
+        if (runs.isEmpty()) {
+            List<String> words = buffer.toList();
+            buffer.clear();
+            bufferedBytes = 0;
+            Collections.sort(words);
+            return words.stream();
+        }
+        if (buffer.size() > 0) {
+            spill();
+        }
+        while (runs.size() > MAX_FAN_IN) {
+            List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                merged.add(mergeToRun(group));
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+        MergeIterator iterator = new MergeIterator(runs);
+        Spliterator<String> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    /**
+     * 删除所有临时段文件
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+    
+    private void grow(int length) {
+        bufferedBytes += ENTRY_OVERHEAD + 2L * length;
+        if (bufferedBytes > memoryBudget) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    /**
+     * 把内存中的词排序后写成一个段
+     */
+    private void spill() throws IOException {
+        List<String> words = buffer.toList();
+        buffer.clear();
+        bufferedBytes = 0;
+        Collections.sort(words);
+        Path run = Files.createTempFile(tempDir, "words-", ".run");
+        runs.add(run);
+        try (DataOutputStream out = openRun(run)) {
+            for (String word : words) {
+                writeWord(out, word);
+            }
+        }
+    }
+    
+    private Path mergeToRun(List<Path> group) throws IOException {
+        Path run = Files.createTempFile(tempDir, "words-", ".run");
+        try (MergeIterator iterator = new MergeIterator(group);
+             DataOutputStream out = openRun(run)) {
+            while (iterator.hasNext()) {
+                writeWord(out, iterator.next());
+            }
+        }
+        for (Path path : group) {
+            Files.deleteIfExists(path);
+        }
+        return run;
+    }
+    
+    private static DataOutputStream openRun(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_SIZE));
+    }
+    
+    private static void writeWord(DataOutputStream out, String word) throws IOException {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * 一个段的读取游标
+     */
+    private static class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        private String head;
+        
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_SIZE));
+            advance();
+        }
+        
+        boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            head = new String(bytes, StandardCharsets.UTF_8);
+            return true;
+        }
+        
+        @Override
+        public int compareTo(RunReader other) {
+            return head.compareTo(other.head);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    
+    /**
+     * 多路归并，相邻的相同词只输出一次
+     */
+    private static class MergeIterator implements Iterator<String>, Closeable {
+        private final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        private final List<RunReader> readers = new ArrayList<>();
+        private String last;
+        private String next;
+        
+        MergeIterator(List<Path> runs) throws IOException {
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.head != null) {
+                        queue.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && !queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                String word = reader.head;
+                try {
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (!word.equals(last)) {
+                    next = word;
+                    last = word;
+                }
+            }
+            return next != null;
+        }
+        
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String word = next;
+            next = null;
+            return word;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            readers.clear();
+            queue.clear();
+        }
+    }
+}
@@ -1,5 +1,10 @@
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
@@ -11,16 +16,101 @@ import java.util.stream.Stream;
  */
 public class FileDemo {
     public static void main(String[] args) {
+        if (args.length > 0 && "--watch".equals(args[0])) {
+            watch(Paths.get(args.length > 1 ? args[1] : "data.txt"));
+            return;
+        }
+        if (args.length > 0 && "--index".equals(args[0])) {
+            //FileDemo --index 现代化 [data.txt]，多个短语用 " AND " 或 " OR " 连接
+            search(args.length > 1 ? args[1] : "现代化", Paths.get(args.length > 2 ? args[2] : "data.txt"));
+            return;
+        }
+        if (args.length > 0 && "--external".equals(args[0])) {
+            //内存预算（MB）
+            long budget = (args.length > 1 ? Long.parseLong(args[1]) : 64) << 20;
+            try (Stream<String> words = externalLongWords(Paths.get(args.length > 2 ? args[2] : "data.txt"), budget)) {
+                words.forEach(System.out::println);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
         try {
-            Stream<String> lines = Files.lines(Paths.get("data.txt"));
-            List<String> longWords = lines.flatMap(line -> Arrays.stream(line.split(" ")))
+            //按空格切分，中文文本中几乎切不出长词
+            List<String> longWords = streamLongWords(Paths.get("data.txt"));
+            System.out.println(longWords);
+            //内存映射 + 并行分块 + 中日韩分词
+            List<String> cjkLongWords = new WordExtractor().longWords(Paths.get("data.txt"));
+            System.out.println(cjkLongWords);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * 监听文件追加的内容，持续输出新增的长词
+     */
+    static void watch(Path file) {
+        try (LongWordWatcher watcher = new LongWordWatcher(file)) {
+            watcher.addListener(added -> System.out.println("新增：" + added));
+            watcher.watch();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 用倒排索引查找包含短语的行，索引保存在文件旁的 .index 目录（已加入 .gitignore），语料被追加后打开时增量更新
+     */
+    static void search(String query, Path file) {
+        Path directory = file.toAbsolutePath().resolveSibling(file.getFileName() + ".index");
+        try (LineIndex index = LineIndex.open(file, directory)) {
+            int[] lines = query.contains(" OR ") ? index.or(query.split(" OR "))
+                    : index.and(query.split(" AND "));
+            for (int line : lines) {
+                System.out.println((line + 1) + ": " + index.line(line));
+            }
+            System.out.println("共 " + lines.length + " 行");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * 词表超出内存时使用：逐行分词，去重排序交给外部排序，结果以流的方式输出
+     * 临时文件在 java.io.tmpdir 下，使用完需要关闭返回的流以删除它们
+     */
+    static Stream<String> externalLongWords(Path file, long memoryBudget) throws IOException {
+        ExternalSorter sorter = new ExternalSorter(memoryBudget);
+        // InputStreamReader 把非法字节替换为 U+FFFD，与 WordExtractor 一致
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            CjkTokenizer tokenizer = new CjkTokenizer(5, sorter);
+            CharBuffer buffer = CharBuffer.allocate(64 * 1024);
+            while (reader.read(buffer) >= 0) {
+                buffer.flip();
+                tokenizer.feed(buffer);
+                buffer.compact();
+            }
+            tokenizer.finish();
+            return sorter.sortedDistinct();
+        } catch (IOException | RuntimeException e) {
+            sorter.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * 单线程逐行读取，按空格切分
+     */
+    static List<String> streamLongWords(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.flatMap(line -> Arrays.stream(line.split(" ")))
                     .filter(word -> word.length() > 5)
                     .distinct()
                     .sorted()
                     .collect(Collectors.toList());
-            System.out.println(longWords);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 }
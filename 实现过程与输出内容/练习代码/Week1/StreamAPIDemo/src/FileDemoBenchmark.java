@@ -0,0 +1,95 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 长词提取吞吐量对比：Files.lines 单线程 vs WordExtractor 在不同并行度下
+ * 用法：FileDemoBenchmark [文件路径 | 生成文件的大小(MB)，默认生成 256MB]
+ */
+public class FileDemoBenchmark {
+    private static final int ROUNDS = 3;
+    
+    public static void main(String[] args) throws IOException {
+        Path file;
+        boolean generated = args.length == 0 || args[0].matches("\\d+");
+        if (generated) {
+            long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 256;
+            file = generate(Paths.get("data.txt"), megabytes << 20);
+        } else {
+            file = Paths.get(args[0]);
+        }
+        try {
+            double mb = Files.size(file) / (1024.0 * 1024.0);
+            System.out.printf("文件大小：%.1f MB%n", mb);
+            
+            long best = Long.MAX_VALUE;
+            int count = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                count = FileDemo.streamLongWords(file).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            report("Files.lines", mb, best, count);
+            
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+                runEngine(file, mb, parallelism);
+            }
+            if (Integer.bitCount(cores) != 1) {
+                runEngine(file, mb, cores);
+            }
+        } finally {
+            if (generated) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    private static void runEngine(Path file, double mb, int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            WordExtractor extractor = new WordExtractor(pool, 5);
+            long best = Long.MAX_VALUE;
+            int count = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                List<String> words = extractor.longWords(file);
+                best = Math.min(best, System.nanoTime() - start);
+                count = words.size();
+            }
+            report("WordExtractor x" + parallelism, mb, best, count);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private static void report(String name, double mb, long nanos, int words) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-20s %8.1f ms %8.1f MB/s  长词数：%d%n", name, seconds * 1000, mb / seconds, words);
+    }
+    
+    /**
+     * 重复样例文本生成测试文件，每行追加行号使词表随文件增大
+     */
+    private static Path generate(Path sample, long size) throws IOException {
+        List<String> lines = Files.readAllLines(sample);
+        Path file = Files.createTempFile("file-demo-", ".txt");
+        long written = 0;
+        long lineNo = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            while (written < size) {
+                for (String line : lines) {
+                    String text = line + " token" + (lineNo++ % 100000) + "\n";
+                    writer.write(text);
+                    written += text.getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+        }
+        return file;
+    }
+}
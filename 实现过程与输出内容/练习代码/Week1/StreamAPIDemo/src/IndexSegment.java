@@ -0,0 +1,687 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * LineIndex 的一个段：语料中一段连续的行 [startOffset, endOffset) 的倒排索引，写入后不再修改，读取时整体内存映射
+ * <pre>
+ * 头部      魔数 "LIDX"、版本、起止偏移、行数、词项数、是否以换行结尾、末尾字节的 CRC32、各区的位置、参与校验的末尾字节数
+ * 倒排区    每个词项的出现位置按 (行, 行内字节偏移) 排序，变长整数编码：行号差；同一行内偏移差，换行后为行内偏移
+ * 词项区    词项的 UTF-8 字节
+ * 词典区    按词项 UTF-8 字节的无符号字典序排列的定长条目（词项位置、长度、倒排位置、出现次数、最后一次出现的行、
+ *           第一个倒排跳转点的序号）
+ * 行表      每行起始偏移的差值，变长整数编码；每 64 行一个跳转点（偏移值、在行表中的位置）
+ * 倒排跳转  每个词项每 128 条出现位置一个跳转点（该条的行、偏移，之后一条在本词项倒排中的位置），
+ *           查询时 {@link PostingCursor} 借此跳过长倒排中不需要的部分
+ * </pre>
+ * 行号、偏移都相对于本段，段内位置用 int 表示，单个段不超过 2 GB
+ */
+class IndexSegment implements Closeable {
+    static final String SUFFIX = ".seg";
+    private static final int MAGIC = 0x4C494458;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 68;
+    private static final int ENTRY_SIZE = 24;
+    private static final int SKIP_INTERVAL = 64;
+    private static final int POSTING_SKIP_INTERVAL = 128;
+    private static final int POSTING_SKIP_SIZE = 12;
+    /** 校验语料是否被改动时比较段末尾这么多字节 */
+    private static final int TAIL_CHECK_BYTES = 4096;
+
+    final Path path;
+    final long startOffset;
+    final long endOffset;
+    final int lineCount;
+    final int termCount;
+    /** 段以换行符结尾；否则最后一行可能还会被追加，下次更新时要重建这个段 */
+    final boolean complete;
+    final int tailCrc;
+    /** tailCrc 覆盖的末尾字节数；合并后的段沿用最后一段的值 */
+    final int tailLength;
+    private final MappedByteBuffer buffer;
+    private final int dictionaryPos;
+    private final int termBytesPos;
+    private final int postingsPos;
+    private final int linesPos;
+    private final int skipsPos;
+    private final int postingSkipsPos;
+
+    private IndexSegment(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an index segment: " + path);
+        }
+        startOffset = buffer.getLong(8);
+        endOffset = buffer.getLong(16);
+        lineCount = buffer.getInt(24);
+        termCount = buffer.getInt(28);
+        complete = buffer.getInt(32) != 0;
+        tailCrc = buffer.getInt(36);
+        dictionaryPos = buffer.getInt(40);
+        termBytesPos = buffer.getInt(44);
+        postingsPos = buffer.getInt(48);
+        linesPos = buffer.getInt(52);
+        skipsPos = buffer.getInt(56);
+        tailLength = buffer.getInt(60);
+        postingSkipsPos = buffer.getInt(64);
+    }
+
+    static IndexSegment open(Path path) throws IOException {
+        return new IndexSegment(path);
+    }
+
+    /**
+     * 为语料的 [start, end) 建立一个段，start 必须是行首
+     */
+    static IndexSegment build(FileChannel corpus, long start, long end, Path target) throws IOException {
+        byte[] bytes = new byte[Math.toIntExact(end - start)];
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        while (in.hasRemaining()) {
+            if (corpus.read(in, start + in.position()) < 0) {
+                throw new IOException("corpus truncated while indexing");
+            }
+        }
+        IntObjectMap<Postings> pairs = new IntObjectMap<>();
+        Map<String, Postings> others = new HashMap<>();
+        LineTable lines = new LineTable();
+        TermScanner scanner = new TermScanner(true);
+        int[] line = new int[1];
+        TermScanner.TermSink sink = (code, text, offset) -> {
+            Postings postings = text == null
+                    ? pairs.computeIfAbsent(code, k -> new Postings())
+                    : others.computeIfAbsent(text, k -> new Postings());
+            postings.add(line[0], offset);
+        };
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            lines.add(lineStart);
+            scanner.scan(bytes, lineStart, lineEnd, sink);
+            line[0]++;
+            lineStart = lineEnd + 1;
+        }
+
+        List<byte[]> terms = new ArrayList<>(pairs.size() + others.size());
+        List<Postings> postings = new ArrayList<>(pairs.size() + others.size());
+        pairs.forEach((code, p) -> {
+            terms.add(TermScanner.pairText(code).getBytes(StandardCharsets.UTF_8));
+            postings.add(p);
+        });
+        others.forEach((text, p) -> {
+            terms.add(text.getBytes(StandardCharsets.UTF_8));
+            postings.add(p);
+        });
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(terms.get(a), terms.get(b)));
+
+        boolean complete = bytes.length > 0 && bytes[bytes.length - 1] == '\n';
+        try (Writer writer = new Writer(target)) {
+            for (int i : order) {
+                Postings p = postings.get(i);
+                writer.term(terms.get(i), p.count, p.lastLine);
+                writer.postings(p.bytes, 0, p.length);
+                for (int k = 0; p.skips != null && k < p.skips.size(); k += 3) {
+                    writer.skip(p.skips.get(k), p.skips.get(k + 1), p.skips.get(k + 2));
+                }
+            }
+            int tailLength = Math.min(TAIL_CHECK_BYTES, bytes.length);
+            int tailCrc = crc(bytes, bytes.length - tailLength, bytes.length);
+            return writer.finish(start, end, line[0], complete, tailCrc, tailLength, lines);
+        }
+    }
+
+    /**
+     * 把相邻的若干段合并为一个：词典多路归并，同一词项的倒排依次拼接，只需改写每段第一条记录的行号差；
+     * 拼接后跳转点的位置变了，复制时顺序解码一遍重新生成
+     */
+    static IndexSegment merge(List<IndexSegment> segments, Path target) throws IOException {
+        int[] bases = new int[segments.size()];
+        int lineCount = 0;
+        LineTable lines = new LineTable();
+        for (int s = 0; s < segments.size(); s++) {
+            IndexSegment segment = segments.get(s);
+            bases[s] = lineCount;
+            int shift = Math.toIntExact(segment.startOffset - segments.get(0).startOffset);
+            for (int i = 0; i < segment.lineCount; i++) {
+                lines.add(shift + Math.toIntExact(segment.lineStart(i)));
+            }
+            lineCount += segment.lineCount;
+        }
+        PriorityQueue<int[]> cursors = new PriorityQueue<>((a, b) -> {
+            int c = segments.get(a[0]).compareTerm(a[1], segments.get(b[0]), b[1]);
+            return c != 0 ? c : Integer.compare(a[0], b[0]);
+        });
+        for (int s = 0; s < segments.size(); s++) {
+            if (segments.get(s).termCount > 0) {
+                cursors.add(new int[]{s, 0});
+            }
+        }
+        byte[] copy = new byte[64 * 1024];
+        IndexSegment last = segments.get(segments.size() - 1);
+        try (Writer writer = new Writer(target)) {
+            List<int[]> parts = new ArrayList<>();
+            while (!cursors.isEmpty()) {
+                parts.clear();
+                int[] first = cursors.poll();
+                parts.add(first);
+                while (!cursors.isEmpty() && segments.get(cursors.peek()[0]).compareTerm(cursors.peek()[1],
+                        segments.get(first[0]), first[1]) == 0) {
+                    parts.add(cursors.poll());
+                }
+                int count = 0;
+                int lastLine = 0;
+                for (int[] part : parts) {
+                    IndexSegment segment = segments.get(part[0]);
+                    count += segment.count(part[1]);
+                    lastLine = bases[part[0]] + segment.lastLine(part[1]);
+                }
+                writer.term(segments.get(first[0]).term(first[1]), count, lastLine);
+                int previousLast = 0;
+                int written = 0;
+                for (int[] part : parts) {
+                    IndexSegment segment = segments.get(part[0]);
+                    int from = segment.postingsStart(part[1]);
+                    int to = segment.postingsEnd(part[1]);
+                    // 第一条记录：行号差改为相对合并后上一条记录，偏移保持不变
+                    int[] position = {from};
+                    int firstLine = segment.readVarint(position);
+                    int base = writer.postingsSize() + writer.varint(bases[part[0]] + firstLine - previousLast)
+                            - position[0];
+                    written = segment.addSkips(part[1], position[0], bases[part[0]] + firstLine, written, base, writer);
+                    for (int p = position[0]; p < to; p += copy.length) {
+                        int n = Math.min(copy.length, to - p);
+                        segment.buffer.get(p, copy, 0, n);
+                        writer.postings(copy, 0, n);
+                    }
+                    previousLast = bases[part[0]] + segment.lastLine(part[1]);
+                    if (part[1] + 1 < segment.termCount) {
+                        cursors.add(new int[]{part[0], part[1] + 1});
+                    }
+                }
+            }
+            return writer.finish(segments.get(0).startOffset, last.endOffset, lineCount, last.complete, last.tailCrc,
+                    last.tailLength, lines);
+        }
+    }
+
+    /**
+     * 语料末尾与建段时是否一致，用于判断语料是否只是被追加
+     */
+    boolean matchesCorpus(FileChannel corpus) throws IOException {
+        if (corpus.size() < endOffset) {
+            return false;
+        }
+        ByteBuffer tail = ByteBuffer.allocate(tailLength);
+        while (tail.hasRemaining()) {
+            if (corpus.read(tail, endOffset - tailLength + tail.position()) < 0) {
+                return false;
+            }
+        }
+        return crc(tail.array(), 0, tailLength) == tailCrc;
+    }
+
+    /**
+     * 二分查找词项，返回词典下标，不存在时返回 -1
+     */
+    int find(byte[] term) {
+        int lo = 0;
+        int hi = termCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareTerm(mid, term);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 第一个不小于 term 的词典下标，都小于 term 时为 termCount
+     */
+    int lowerBound(byte[] term) {
+        int lo = 0;
+        int hi = termCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareTerm(mid, term) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 词典中第 entry 个词项是否以 prefix 开头
+     */
+    boolean hasPrefix(int entry, byte[] prefix) {
+        int base = dictionaryPos + entry * ENTRY_SIZE;
+        if (buffer.getInt(base + 4) < prefix.length) {
+            return false;
+        }
+        int from = termBytesPos + buffer.getInt(base);
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int count(int entry) {
+        return buffer.getInt(dictionaryPos + entry * ENTRY_SIZE + 12);
+    }
+
+    /**
+     * 按顺序读取词项出现位置的游标，不把整个倒排解码到数组中
+     */
+    PostingCursor cursor(int entry) {
+        return new PostingCursor(entry);
+    }
+
+    /**
+     * 段内第 line 行的起始位置，相对于 startOffset
+     */
+    long lineStart(int line) {
+        int skip = line / SKIP_INTERVAL;
+        long value = buffer.getInt(skipsPos + skip * 8);
+        int[] position = {buffer.getInt(skipsPos + skip * 8 + 4)};
+        readVarint(position);
+        for (int i = skip * SKIP_INTERVAL; i < line; i++) {
+            value += readVarint(position);
+        }
+        return value;
+    }
+
+    /**
+     * 段内第 line 行的结束位置（不含换行符），相对于 startOffset
+     */
+    long lineEnd(int line) {
+        long end = line + 1 < lineCount ? lineStart(line + 1) - 1 : endOffset - startOffset - (complete ? 1 : 0);
+        return Math.max(end, lineStart(line));
+    }
+
+    @Override
+    public void close() {
+        // 映射在缓冲区被回收时释放；Linux / macOS 上已映射的文件可以直接删除，Windows 上不行（见 LineIndex 的说明）
+    }
+
+    private byte[] term(int entry) {
+        int base = dictionaryPos + entry * ENTRY_SIZE;
+        byte[] term = new byte[buffer.getInt(base + 4)];
+        buffer.get(termBytesPos + buffer.getInt(base), term);
+        return term;
+    }
+
+    private int lastLine(int entry) {
+        return buffer.getInt(dictionaryPos + entry * ENTRY_SIZE + 16);
+    }
+
+    private int postingsStart(int entry) {
+        return postingsPos + buffer.getInt(dictionaryPos + entry * ENTRY_SIZE + 8);
+    }
+
+    private int postingsEnd(int entry) {
+        return entry + 1 < termCount ? postingsStart(entry + 1) : termBytesPos;
+    }
+
+    private int compareTerm(int entry, byte[] term) {
+        int base = dictionaryPos + entry * ENTRY_SIZE;
+        int from = termBytesPos + buffer.getInt(base);
+        int length = buffer.getInt(base + 4);
+        int n = Math.min(length, term.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(buffer.get(from + i) & 0xFF, term[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    private int compareTerm(int entry, IndexSegment other, int otherEntry) {
+        return compareTerm(entry, other.term(otherEntry));
+    }
+
+    /**
+     * 合并时为一个词项在本段中的倒排生成跳转点：first 为第一条记录的偏移值的位置，line 为它在合并后段中的行号，
+     * written 为合并后该词项已有的记录数，本段倒排中的位置 p 对应合并后的位置 base + p；返回加上本段后的记录数
+     */
+    private int addSkips(int entry, int first, int line, int written, int base, Writer writer) {
+        int[] position = {first};
+        int offset = 0;
+        for (int i = 0, n = count(entry); i < n; i++) {
+            int lineDelta = i == 0 ? 0 : readVarint(position);
+            int value = readVarint(position);
+            line += lineDelta;
+            offset = lineDelta == 0 && i > 0 ? offset + value : value;
+            if (++written % POSTING_SKIP_INTERVAL == 0) {
+                writer.skip(line, offset, base + position[0]);
+            }
+        }
+        return written;
+    }
+
+    private int readVarint(int[] position) {
+        int p = position[0];
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(p++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        position[0] = p;
+        return value;
+    }
+
+    private static int crc(byte[] bytes, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, from, to - from);
+        return (int) crc.getValue();
+    }
+
+    private static int writeVarint(byte[] target, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * 词项出现位置的游标，位置打包为 (段内行号 &lt;&lt; 32 | 行内字节偏移)，升序
+     * {@link #advance} 先用跳转点越过目标之前的整块记录，再逐条解码，不超过 {@value #POSTING_SKIP_INTERVAL} 条
+     */
+    final class PostingCursor {
+        private final int count;
+        private final int postings;
+        private final int skips;
+        private final int skipCount;
+        private final int[] position = new int[1];
+        private int index;
+        private int nextSkip;
+        private long line;
+        private long offset;
+        private long value = -1;
+
+        private PostingCursor(int entry) {
+            count = count(entry);
+            postings = postingsStart(entry);
+            skips = postingSkipsPos + buffer.getInt(dictionaryPos + entry * ENTRY_SIZE + 20) * POSTING_SKIP_SIZE;
+            skipCount = count / POSTING_SKIP_INTERVAL;
+            position[0] = postings;
+        }
+
+        /**
+         * 当前位置，第一次 next / advance 之前为 -1
+         */
+        long value() {
+            return value;
+        }
+
+        /**
+         * 移到下一条记录，没有了返回 false
+         */
+        boolean next() {
+            if (index == count) {
+                return false;
+            }
+            int lineDelta = readVarint(position);
+            int delta = readVarint(position);
+            line += lineDelta;
+            offset = lineDelta == 0 && index > 0 ? offset + delta : delta;
+            index++;
+            value = line << 32 | offset;
+            return true;
+        }
+
+        /**
+         * 移到第一条不小于 target 的记录，没有了返回 false；target 应当单调不减
+         */
+        boolean advance(long target) {
+            if (value >= target) {
+                return true;
+            }
+            int jump = -1;
+            while (nextSkip < skipCount && skipValue(nextSkip) < target) {
+                jump = nextSkip++;
+            }
+            if (jump >= 0 && (jump + 1) * POSTING_SKIP_INTERVAL > index) {
+                int at = skips + jump * POSTING_SKIP_SIZE;
+                line = buffer.getInt(at);
+                offset = buffer.getInt(at + 4);
+                position[0] = postings + buffer.getInt(at + 8);
+                index = (jump + 1) * POSTING_SKIP_INTERVAL;
+                value = line << 32 | offset;
+            }
+            while (value < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long skipValue(int skip) {
+            int at = skips + skip * POSTING_SKIP_SIZE;
+            return (long) buffer.getInt(at) << 32 | buffer.getInt(at + 4);
+        }
+    }
+
+    /**
+     * 建段时一个词项的倒排，边收集边编码，每 {@value #POSTING_SKIP_INTERVAL} 条记下一个跳转点
+     */
+    private static final class Postings {
+        byte[] bytes = new byte[8];
+        int length;
+        int count;
+        int lastLine;
+        int lastOffset;
+        /** 多数词项出现不到一个间隔，用到时才分配 */
+        IntList skips;
+
+        void add(int line, int offset) {
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int lineDelta = line - lastLine;
+            length = writeVarint(bytes, length, lineDelta);
+            length = writeVarint(bytes, length, lineDelta == 0 && count > 0 ? offset - lastOffset : offset);
+            lastLine = line;
+            lastOffset = offset;
+            if (++count % POSTING_SKIP_INTERVAL == 0) {
+                if (skips == null) {
+                    skips = new IntList(3);
+                }
+                skips.add(line);
+                skips.add(offset);
+                skips.add(length);
+            }
+        }
+    }
+
+    /**
+     * 行起始偏移的差值编码和跳转点
+     */
+    private static final class LineTable {
+        byte[] bytes = new byte[64];
+        int length;
+        int count;
+        int last;
+        IntList skips = new IntList();
+
+        void add(int start) {
+            if (count % SKIP_INTERVAL == 0) {
+                skips.add(start);
+                skips.add(length);
+            }
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            length = writeVarint(bytes, length, start - last);
+            last = start;
+            count++;
+        }
+    }
+
+    /**
+     * 顺序写出段文件：先写倒排，词典在内存中收集，最后写词项、词典、行表，再回填头部；写完后原子地改名
+     */
+    private static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final ByteArrayBuilder termBytes = new ByteArrayBuilder();
+        private final IntList entries = new IntList();
+        private final IntList postingSkips = new IntList();
+        private final byte[] varint = new byte[5];
+        private int termPostings;
+        private boolean finished;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        void term(byte[] term, int count, int lastLine) {
+            termPostings = out.size() - HEADER_SIZE;
+            entries.add(termBytes.length);
+            entries.add(term.length);
+            entries.add(termPostings);
+            entries.add(count);
+            entries.add(lastLine);
+            entries.add(postingSkips.size() / 3);
+            termBytes.append(term, 0, term.length);
+        }
+
+        /**
+         * 当前词项已写出的倒排字节数
+         */
+        int postingsSize() {
+            return out.size() - HEADER_SIZE - termPostings;
+        }
+
+        /**
+         * 当前词项的一个跳转点，position 相对于该词项倒排的开头
+         */
+        void skip(int line, int offset, int position) {
+            postingSkips.add(line);
+            postingSkips.add(offset);
+            postingSkips.add(position);
+        }
+
+        void postings(byte[] bytes, int from, int length) throws IOException {
+            out.write(bytes, from, length);
+        }
+
+        /**
+         * 写出一个变长整数，返回写出的字节数
+         */
+        int varint(int value) throws IOException {
+            int length = writeVarint(varint, 0, value);
+            out.write(varint, 0, length);
+            return length;
+        }
+
+        IndexSegment finish(long start, long end, int lineCount, boolean complete, int tailCrc, int tailLength,
+                            LineTable lines) throws IOException {
+            int termBytesPos = out.size();
+            out.write(termBytes.bytes, 0, termBytes.length);
+            int dictionaryPos = out.size();
+            for (int i = 0; i < entries.size(); i++) {
+                out.writeInt(entries.get(i));
+            }
+            int linesPos = out.size();
+            out.write(lines.bytes, 0, lines.length);
+            int skipsPos = out.size();
+            for (int i = 0; i < lines.skips.size(); i += 2) {
+                out.writeInt(lines.skips.get(i));
+                out.writeInt(linesPos + lines.skips.get(i + 1));
+            }
+            int postingSkipsPos = out.size();
+            for (int i = 0; i < postingSkips.size(); i++) {
+                out.writeInt(postingSkips.get(i));
+            }
+            // DataOutputStream 的计数在 Integer.MAX_VALUE 处饱和
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("segment exceeds 2 GB");
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(start).putLong(end).putInt(lineCount)
+                    .putInt(entries.size() / 6).putInt(complete ? 1 : 0).putInt(tailCrc)
+                    .putInt(dictionaryPos).putInt(termBytesPos).putInt(HEADER_SIZE).putInt(linesPos).putInt(skipsPos)
+                    .putInt(tailLength).putInt(postingSkipsPos);
+            header.position(HEADER_SIZE).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            return new IndexSegment(target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static final class ByteArrayBuilder {
+        byte[] bytes = new byte[1024];
+        int length;
+
+        void append(byte[] source, int from, int n) {
+            if (length + n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + n, bytes.length * 2));
+            }
+            System.arraycopy(source, from, bytes, length, n);
+            length += n;
+        }
+    }
+}
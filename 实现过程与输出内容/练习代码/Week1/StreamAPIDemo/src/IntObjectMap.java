@@ -0,0 +1,166 @@
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+
+/**
+ * int 键的开放寻址哈希表，键不装箱，适合按长度、年龄之类的小整数分组
+ * 值不能为 null（null 表示空槽）；非线程安全
+ */
+public class IntObjectMap<V> {
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[slot(key)];
+    }
+
+    public boolean containsKey(int key) {
+        return values[slot(key)] != null;
+    }
+
+    /**
+     * @return 原来的值，没有时为 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null value for key " + key);
+        }
+        int slot = slot(key);
+        V old = (V) values[slot];
+        if (old != null) {
+            values[slot] = value;
+            return old;
+        }
+        insert(slot, key, value);
+        return null;
+    }
+
+    /**
+     * 取 key 对应的值，没有时用 factory 创建并放入
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        int slot = slot(key);
+        V value = (V) values[slot];
+        if (value == null) {
+            value = factory.apply(key);
+            insert(slot, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 把 other 并入当前表，两边都有的键用 merger 合并
+     */
+    @SuppressWarnings("unchecked")
+    public IntObjectMap<V> merge(IntObjectMap<V> other, BinaryOperator<V> merger) {
+        for (int i = 0; i < other.keys.length; i++) {
+            V value = (V) other.values[i];
+            if (value != null) {
+                int slot = slot(other.keys[i]);
+                V existing = (V) values[slot];
+                if (existing == null) {
+                    insert(slot, other.keys[i], value);
+                } else {
+                    values[slot] = merger.apply(existing, value);
+                }
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * 所有键，升序
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                result[n++] = keys[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 按键升序输出，例如 {5=[apple], 6=[banana, orange]}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int key : keys()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(get(key));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * key 所在的槽，不存在时返回应插入的空槽
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = IntIntMap.mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, int key, Object value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/**
+ * 可合并的非负 int 统计摘要：计数、求和、最小值、最大值、平均值和近似分位数
+ * 分位数来自对数-线性直方图：小于 128 的值各占一个桶（年龄、长度这类小值的统计是精确的），更大的值每个 2 的幂区间再分 32 个桶，
+ * 相对误差不超过 1/32；直方图只按需扩展，小值只占 1 KB
+ * 非线程安全，并发场景由 ConcurrentCollectors 为每个线程分配独立的条带后再合并
+ */
+public class IntSketch {
+    private static final int LINEAR_BITS = 7;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Integer.MAX_VALUE 所在的桶之后 */
+    private static final int MAX_BUCKETS = bucketOf(Integer.MAX_VALUE) + 1;
+
+    private long count;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private long[] buckets = new long[LINEAR_BUCKETS];
+
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value: " + value);
+        }
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        int bucket = bucketOf(value);
+        if (bucket >= buckets.length) {
+            grow(bucket);
+        }
+        buckets[bucket]++;
+    }
+
+    /**
+     * 把 other 的统计并入当前摘要，other 不变
+     */
+    public IntSketch merge(IntSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (other.buckets.length > buckets.length) {
+            grow(other.buckets.length - 1);
+        }
+        for (int i = 0; i < other.buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * 没有数据时抛出 IllegalStateException
+     */
+    public int min() {
+        requireNonEmpty();
+        return min;
+    }
+
+    public int max() {
+        requireNonEmpty();
+        return max;
+    }
+
+    /**
+     * 与 Collectors.averagingInt 一致，没有数据时为 0
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * 近似的 p 分位数（0 &lt;= p &lt;= 1），取排名 ceil(p * count) 的值所在桶的中点，并限制在 [min, max] 内
+     */
+    public int percentile(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        }
+        requireNonEmpty();
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long middle = (lowerBound(i) + upperBound(i)) / 2;
+                return (int) Math.max(min, Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "{count=0}";
+        }
+        return String.format("{count=%d, mean=%.2f, min=%d, p50=%d, p99=%d, max=%d}",
+                count, mean(), min, percentile(0.5), percentile(0.99), max);
+    }
+
+    static int bucketOf(int value) {
+        if (value < LINEAR_BUCKETS) {
+            return value;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int subBucket = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+    }
+
+    static long upperBound(int bucket) {
+        return bucket < LINEAR_BUCKETS ? bucket : lowerBound(bucket + 1) - 1;
+    }
+
+    private void grow(int bucket) {
+        buckets = Arrays.copyOf(buckets, Math.min(MAX_BUCKETS, Math.max(bucket + 1, buckets.length * 2)));
+    }
+
+    private void requireNonEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("empty sketch");
+        }
+    }
+}
@@ -0,0 +1,505 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 语料文件（例如 data.txt）的持久化倒排索引，回答“哪些行包含 现代化”时不必再扫描全文
+ * <ul>
+ *     <li>词项为小写的字母数字词和中日韩二元组（见 {@link TermScanner}），倒排记录每次出现的行号和行内字节偏移</li>
+ *     <li>索引目录下是若干按序号命名的段文件（{@link IndexSegment}），各段覆盖语料中首尾相接的连续行，查询时内存映射</li>
+ *     <li>建索引时按约 {@value #BATCH_SIZE} 字节一批在 ForkJoin 线程池中并行建段；语料被追加后 {@link #update()}
+ *     只为新增部分建段（末尾没有换行的半行单独成段，下次更新时重建）；
+ *     语料被改写或截断时整体重建；{@link #compact()} 把相邻的小段合并</li>
+ *     <li>{@link #phrase} 要求各词项按查询文本中的字节间距连续出现，{@link #and} / {@link #or} 组合多个短语</li>
+ * </ul>
+ * 行号从 0 开始。查询可以与 update / compact 并发，查询使用开始时的段列表。
+ * 限制：被替换的段文件在仍被映射时直接删除，{@link IndexSegment#close()} 不解除映射（映射随缓冲区被回收），
+ * 这在 Linux / macOS 上没有问题；Windows 上映射中的文件不能删除，update / compact / 重建删除旧段时会失败
+ */
+public class LineIndex implements Closeable {
+    static final long BATCH_SIZE = 32L << 20;
+    /** 合并后的段覆盖的语料不超过 1 GB，保证段内偏移和段文件大小都在 int 范围内 */
+    private static final long MAX_MERGED_SIZE = 1L << 30;
+    private static final int[] NO_LINES = new int[0];
+
+    private final Path corpus;
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private volatile Snapshot snapshot = new Snapshot(new ArrayList<>());
+
+    private LineIndex(Path corpus, Path directory, ForkJoinPool pool) {
+        this.corpus = corpus;
+        this.directory = directory;
+        this.pool = pool;
+    }
+
+    /**
+     * 打开 directory 中的索引并补上语料新增的部分；索引不存在、损坏或语料被改写时重新建立
+     */
+    public static LineIndex open(Path corpus, Path directory) throws IOException {
+        return open(corpus, directory, ForkJoinPool.commonPool());
+    }
+
+    public static LineIndex open(Path corpus, Path directory, ForkJoinPool pool) throws IOException {
+        Files.createDirectories(directory);
+        LineIndex index = new LineIndex(corpus, directory, pool);
+        index.load();
+        index.update();
+        return index;
+    }
+
+    /**
+     * 为语料新增的内容建立索引，返回新建立索引的行数
+     */
+    public synchronized int update() throws IOException {
+        List<IndexSegment> segments = new ArrayList<>(snapshot.segments);
+        try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            long from = 0;
+            if (!segments.isEmpty()) {
+                IndexSegment last = segments.get(segments.size() - 1);
+                if (!last.matchesCorpus(channel)) {
+                    deleteAll(segments);
+                    segments.clear();
+                } else if (!last.complete) {
+                    // 末尾的半行可能已经被追加，重建这一段
+                    segments.remove(segments.size() - 1);
+                    Files.deleteIfExists(last.path);
+                    from = last.startOffset;
+                } else {
+                    from = last.endOffset;
+                }
+            }
+            List<IndexSegment> added = index(channel, from, channel.size(), nextSequence(segments));
+            segments.addAll(added);
+            snapshot = new Snapshot(segments);
+            return added.stream().mapToInt(segment -> segment.lineCount).sum();
+        }
+    }
+
+    /**
+     * 丢弃现有索引，从头建立
+     */
+    public synchronized void rebuild() throws IOException {
+        deleteAll(snapshot.segments);
+        snapshot = new Snapshot(new ArrayList<>());
+        update();
+    }
+
+    /**
+     * 把相邻的完整段合并，每个合并结果覆盖的语料不超过 1 GB；返回合并后的段数
+     */
+    public synchronized int compact() throws IOException {
+        List<IndexSegment> segments = snapshot.segments;
+        List<IndexSegment> result = new ArrayList<>();
+        int i = 0;
+        while (i < segments.size()) {
+            int j = i + 1;
+            long fileSize = Files.size(segments.get(i).path);
+            while (j < segments.size() && segments.get(j).complete
+                    && segments.get(j).endOffset - segments.get(i).startOffset <= MAX_MERGED_SIZE
+                    && fileSize + Files.size(segments.get(j).path) <= MAX_MERGED_SIZE) {
+                fileSize += Files.size(segments.get(j).path);
+                j++;
+            }
+            if (j - i == 1 || !segments.get(i).complete) {
+                result.add(segments.get(i));
+            } else {
+                // 合并结果原子地替换第一段，再删除其余各段；中途失败时 load 会跳过被覆盖的段
+                List<IndexSegment> run = segments.subList(i, j);
+                result.add(IndexSegment.merge(run, run.get(0).path));
+                deleteAll(run.subList(1, run.size()));
+            }
+            i = j;
+        }
+        snapshot = new Snapshot(result);
+        return result.size();
+    }
+
+    /**
+     * 包含短语的行：短语切分出的词项在同一行中出现，且相互间的字节间距与短语本身一致
+     * 例如 "现代化" 要求 "现代"、"代化" 相隔一个汉字出现，"Hello World" 要求两个词之间恰好一个空格；
+     * 单独的一个汉字（例如 "化"）匹配它在任何位置的出现，包括在更长的连续段中间
+     */
+    public int[] phrase(String text) {
+        return phrase(snapshot, text);
+    }
+
+    /**
+     * 同时包含每个短语的行
+     */
+    public int[] and(String... phrases) {
+        Snapshot current = snapshot;
+        int[][] results = new int[phrases.length][];
+        for (int i = 0; i < phrases.length; i++) {
+            results[i] = phrase(current, phrases[i]);
+        }
+        Arrays.sort(results, (a, b) -> Integer.compare(a.length, b.length));
+        int[] lines = results.length == 0 ? NO_LINES : results[0];
+        for (int i = 1; i < results.length && lines.length > 0; i++) {
+            lines = intersect(lines, results[i]);
+        }
+        return lines;
+    }
+
+    /**
+     * 至少包含一个短语的行
+     */
+    public int[] or(String... phrases) {
+        Snapshot current = snapshot;
+        return Arrays.stream(phrases)
+                .flatMapToInt(text -> Arrays.stream(phrase(current, text)))
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    public int lineCount() {
+        return snapshot.lineCount;
+    }
+
+    public int segmentCount() {
+        return snapshot.segments.size();
+    }
+
+    /**
+     * 第 line 行的文本（不含换行符），从语料中读取
+     */
+    public String line(int line) throws IOException {
+        Snapshot current = snapshot;
+        int s = current.segmentOf(line);
+        IndexSegment segment = current.segments.get(s);
+        int relative = line - current.firstLines[s];
+        long start = segment.startOffset + segment.lineStart(relative);
+        long end = segment.startOffset + segment.lineEnd(relative);
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(end - start));
+        try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) >= 0) {
+                // 读满为止
+            }
+        }
+        int length = bytes.position();
+        if (length > 0 && bytes.get(length - 1) == '\r') {
+            length--;
+        }
+        return new String(bytes.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 第 line 行在语料中的起始字节偏移
+     */
+    public long lineOffset(int line) {
+        Snapshot current = snapshot;
+        int s = current.segmentOf(line);
+        return current.segments.get(s).startOffset + current.segments.get(s).lineStart(line - current.firstLines[s]);
+    }
+
+    @Override
+    public void close() {
+        snapshot.segments.forEach(IndexSegment::close);
+    }
+
+    private int[] phrase(Snapshot current, String text) {
+        List<byte[]> terms = new ArrayList<>();
+        IntList offsets = new IntList();
+        IntList singles = new IntList();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        new TermScanner(false).scan(bytes, 0, bytes.length, (code, term, offset) -> {
+            terms.add((term == null ? TermScanner.pairText(code) : term).getBytes(StandardCharsets.UTF_8));
+            offsets.add(offset);
+            singles.add(term != null && code == TermScanner.SINGLE_CJK ? 1 : 0);
+        });
+        if (terms.isEmpty()) {
+            return NO_LINES;
+        }
+        IntList lines = new IntList();
+        for (int s = 0; s < current.segments.size(); s++) {
+            phrase(current.segments.get(s), terms, singles, offsets, current.firstLines[s], lines);
+        }
+        return lines.toArray();
+    }
+
+    /**
+     * 在一个段中查找短语：每个词项对应词典中的一段连续条目，一般只有一条；
+     * 单个汉字对应以它开头的所有条目（它自己作为连续段末字的条目，以及以它为首字的二元组），出现位置取并集
+     * 以出现次数最少的词项驱动；驱动词项有多个条目时逐个驱动，结果按行号合并
+     */
+    private static void phrase(IndexSegment segment, List<byte[]> terms, IntList singles, IntList offsets,
+                               int firstLine, IntList lines) {
+        int[] from = new int[terms.size()];
+        int[] to = new int[terms.size()];
+        int driver = 0;
+        long driverCount = Long.MAX_VALUE;
+        for (int i = 0; i < from.length; i++) {
+            byte[] term = terms.get(i);
+            if (singles.get(i) != 0) {
+                from[i] = segment.lowerBound(term);
+                to[i] = from[i];
+                while (to[i] < segment.termCount && segment.hasPrefix(to[i], term)) {
+                    to[i]++;
+                }
+            } else {
+                from[i] = segment.find(term);
+                to[i] = from[i] + 1;
+            }
+            if (from[i] < 0 || from[i] == to[i]) {
+                return;
+            }
+            long count = 0;
+            for (int entry = from[i]; entry < to[i]; entry++) {
+                count += segment.count(entry);
+            }
+            if (count < driverCount) {
+                driver = i;
+                driverCount = count;
+            }
+        }
+        if (to[driver] - from[driver] == 1) {
+            match(segment, from, to, driver, from[driver], offsets, firstLine, lines);
+            return;
+        }
+        IntList found = new IntList();
+        for (int entry = from[driver]; entry < to[driver]; entry++) {
+            match(segment, from, to, driver, entry, offsets, 0, found);
+        }
+        found.stream().sorted().distinct().forEach(line -> lines.add(firstLine + line));
+    }
+
+    /**
+     * 以词典条目 entry 驱动，其余词项的游标跟着前进到期望位置
+     * 期望位置随驱动词项单调递增，游标借助跳转点越过无关的记录，不会把常见词项的长倒排整个解码
+     */
+    private static void match(IndexSegment segment, int[] from, int[] to, int driver, int entry, IntList offsets,
+                              int firstLine, IntList lines) {
+        IndexSegment.PostingCursor[][] cursors = new IndexSegment.PostingCursor[from.length][];
+        for (int i = 0; i < from.length; i++) {
+            if (i != driver) {
+                cursors[i] = new IndexSegment.PostingCursor[to[i] - from[i]];
+                for (int k = 0; k < cursors[i].length; k++) {
+                    cursors[i][k] = segment.cursor(from[i] + k);
+                }
+            }
+        }
+        IndexSegment.PostingCursor driving = segment.cursor(entry);
+        int lastLine = -1;
+        while (driving.next()) {
+            long occurrence = driving.value();
+            int line = (int) (occurrence >>> 32);
+            long start = (int) occurrence - offsets.get(driver);
+            if (line == lastLine || start < 0) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 0; i < from.length && match; i++) {
+                if (i != driver) {
+                    long target = (long) line << 32 | (start + offsets.get(i));
+                    boolean remaining = false;
+                    match = false;
+                    for (IndexSegment.PostingCursor cursor : cursors[i]) {
+                        if (cursor.advance(target)) {
+                            remaining = true;
+                            if (cursor.value() == target) {
+                                match = true;
+                                break;
+                            }
+                        }
+                    }
+                    if (!remaining) {
+                        // 这个词项后面没有记录了，驱动词项之后的出现都不可能匹配
+                        return;
+                    }
+                }
+            }
+            if (match) {
+                lines.add(firstLine + line);
+                lastLine = line;
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * 读取目录中的段，检查它们是否首尾相接；被合并覆盖的残留段直接删除，其余不一致时清空重建
+     */
+    private void load() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(IndexSegment.SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        List<IndexSegment> segments = new ArrayList<>();
+        boolean consistent = true;
+        for (Path path : paths) {
+            IndexSegment segment;
+            try {
+                segment = IndexSegment.open(path);
+            } catch (IOException e) {
+                consistent = false;
+                break;
+            }
+            long expected = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).endOffset;
+            if (!segments.isEmpty() && segment.endOffset <= expected) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            if (segment.startOffset != expected || (!segments.isEmpty() && !segments.get(segments.size() - 1).complete)) {
+                consistent = false;
+                break;
+            }
+            segments.add(segment);
+        }
+        if (!consistent) {
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+            segments.clear();
+        }
+        snapshot = new Snapshot(segments);
+    }
+
+    /**
+     * 为 [from, to) 建段，from 为行首；完整的行按批切分，末尾的半行单独成段
+     */
+    private List<IndexSegment> index(FileChannel channel, long from, long to, int firstSequence) throws IOException {
+        long tail = lastLineStart(channel, from, to);
+        List<long[]> ranges = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        for (long start = from; start < tail; ) {
+            long end = Math.min(tail, WordExtractor.nextLineStart(channel, start + BATCH_SIZE - 1, probe));
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        if (tail < to) {
+            ranges.add(new long[]{tail, to});
+        }
+        List<Callable<IndexSegment>> tasks = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            Path target = directory.resolve(String.format("%08d%s", firstSequence + i, IndexSegment.SUFFIX));
+            tasks.add(() -> IndexSegment.build(channel, range[0], range[1], target));
+        }
+        List<IndexSegment> segments = new ArrayList<>();
+        IOException failure = null;
+        for (Future<IndexSegment> future : pool.invokeAll(tasks)) {
+            try {
+                segments.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (failure == null) {
+                    failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            deleteAll(segments);
+            throw failure;
+        }
+        return segments;
+    }
+
+    /**
+     * [from, to) 中最后一个换行符之后的位置；没有换行符时为 from，以换行符结尾时为 to
+     */
+    private static long lastLineStart(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        long end = to;
+        while (end > from) {
+            long start = Math.max(from, end - block.capacity());
+            block.clear().limit((int) (end - start));
+            while (block.hasRemaining() && channel.read(block, start + block.position()) >= 0) {
+                // 读满为止
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    private static int nextSequence(List<IndexSegment> segments) {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        String name = segments.get(segments.size() - 1).path.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.length() - IndexSegment.SUFFIX.length())) + 1;
+    }
+
+    private static void deleteAll(List<IndexSegment> segments) throws IOException {
+        for (IndexSegment segment : segments) {
+            segment.close();
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    /**
+     * 某一时刻的段列表和每段第一行的行号
+     */
+    private static final class Snapshot {
+        final List<IndexSegment> segments;
+        final int[] firstLines;
+        final int lineCount;
+
+        Snapshot(List<IndexSegment> segments) {
+            this.segments = segments;
+            firstLines = new int[segments.size()];
+            int lines = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                firstLines[i] = lines;
+                lines += segments.get(i).lineCount;
+            }
+            lineCount = lines;
+        }
+
+        int segmentOf(int line) {
+            if (line < 0 || line >= lineCount) {
+                throw new IndexOutOfBoundsException("line " + line + " of " + lineCount);
+            }
+            int s = Arrays.binarySearch(firstLines, line);
+            if (s < 0) {
+                return -s - 2;
+            }
+            // 空段与下一段的首行相同，取最后一个
+            while (s + 1 < firstLines.length && firstLines[s + 1] == line) {
+                s++;
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 倒排索引与逐行扫描对比：建索引耗时和索引大小、短语 / AND / OR 查询延迟、追加后增量更新、合并段
+ * 查询结果与 Files.lines 扫描的结果逐行核对：中文短语按子串匹配，英文短语按整词（前后不能紧挨字母数字）匹配
+ * 用法：LineIndexBenchmark [生成语料的大小(MB)，默认 256]
+ */
+public class LineIndexBenchmark {
+    private static final int QUERY_ROUNDS = 20;
+    private static final String[] CJK_WORDS = {
+            "我们", "数据", "处理", "并行", "现代化", "流水线", "文件", "索引", "查询", "系统", "性能", "内存", "线程",
+            "集合", "分组", "统计", "结果", "时间", "日期", "接口", "方法", "函数", "对象", "字符串", "数据库",
+            "服务", "缓存", "网络", "请求", "响应", "配置", "模块", "测试", "基准", "吞吐量", "延迟", "磁盘",
+            "压缩", "编码", "解码", "排序", "合并", "分段", "追加", "更新", "快照", "版本", "日志", "监控", "调度"
+    };
+    private static final String[] WORDS = {
+            "the", "stream", "lambda", "java", "data", "file", "index", "query", "map", "filter", "reduce",
+            "collect", "parallel", "thread", "pool", "cache", "hello", "world", "api", "list", "set", "group",
+            "count", "sum", "average", "max", "min", "sort", "merge", "segment", "update", "append", "buffer",
+            "channel", "memory", "disk", "latency", "throughput", "benchmark", "spring", "maven", "servlet"
+    };
+    private static final String[][] QUERIES = {
+            {"phrase", "现代化"},
+            {"phrase", "数据库索引"},
+            {"phrase", "化"},
+            {"phrase", "量"},
+            {"phrase", "Hello World"},
+            {"phrase", "servlet maven"},
+            {"and", "现代化", "java"},
+            {"and", "吞吐量", "latency", "监控"},
+            {"and", "代", "java"},
+            {"or", "快照版本", "spring maven"},
+    };
+
+    public static void main(String[] args) throws IOException {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 256;
+        Path workspace = Files.createTempDirectory("line-index");
+        Path corpus = workspace.resolve("data.txt");
+        Path directory = workspace.resolve("index");
+        try {
+            singleCharacters(workspace);
+            generate(corpus, megabytes << 20, 1);
+            double mb = Files.size(corpus) / (1024.0 * 1024.0);
+            System.out.printf("语料大小：%.1f MB%n", mb);
+
+            long start = System.nanoTime();
+            try (LineIndex index = LineIndex.open(corpus, directory)) {
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("建索引：%d 行，%d 段，%d ms（%.1f MB/s），索引 %.1f MB（语料的 %.0f%%）%n",
+                        index.lineCount(), index.segmentCount(), elapsed / 1_000_000, mb / (elapsed / 1e9),
+                        indexSize(directory) / (1024.0 * 1024.0), 100 * indexSize(directory) / (mb * 1024 * 1024));
+                compare(index, corpus);
+
+                // 追加：最后一行不以换行结尾，下次追加补全它
+                generate(corpus, 4 << 20, 2);
+                Files.write(corpus, "未完成的一行 hello".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                update(index, corpus);
+                Files.write(corpus, " world 现代化\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                update(index, corpus);
+                check(index, corpus, "phrase", "hello world 现代化");
+
+                int before = index.segmentCount();
+                start = System.nanoTime();
+                index.compact();
+                System.out.printf("合并段：%d 段 -> %d 段，%d ms，索引 %.1f MB%n", before, index.segmentCount(),
+                        (System.nanoTime() - start) / 1_000_000, indexSize(directory) / (1024.0 * 1024.0));
+                for (String[] query : QUERIES) {
+                    check(index, corpus, query);
+                }
+            }
+
+            start = System.nanoTime();
+            try (LineIndex index = LineIndex.open(corpus, directory)) {
+                System.out.printf("重新打开：%d 段，%d ms%n", index.segmentCount(), (System.nanoTime() - start) / 1_000_000);
+                check(index, corpus, QUERIES[0]);
+            }
+            System.out.println("查询结果与逐行扫描一致");
+        } finally {
+            try (Stream<Path> files = Files.walk(workspace)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * 单个汉字在连续段的开头、中间、末尾和单独成段时都能查到
+     */
+    private static void singleCharacters(Path workspace) throws IOException {
+        Path corpus = workspace.resolve("single.txt");
+        Files.write(corpus, "我们要实现现代化\n化\n代 hello\n".getBytes(StandardCharsets.UTF_8));
+        try (LineIndex index = LineIndex.open(corpus, workspace.resolve("single-index"))) {
+            String[][] expected = {{"化", "[0, 1]"}, {"代", "[0, 2]"}, {"我", "[0]"}, {"现", "[0]"}, {"代 hello", "[2]"},
+                    {"化 hello", "[]"}};
+            for (String[] query : expected) {
+                String lines = Arrays.toString(index.phrase(query[0]));
+                if (!lines.equals(query[1])) {
+                    throw new AssertionError(query[0] + ": " + lines + " vs " + query[1]);
+                }
+            }
+        }
+    }
+
+    private static void compare(LineIndex index, Path corpus) throws IOException {
+        System.out.printf("%-34s%10s%14s%14s%n", "查询", "命中行数", "索引(ms)", "扫描(ms)");
+        for (String[] query : QUERIES) {
+            int[] lines = null;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < QUERY_ROUNDS; round++) {
+                long start = System.nanoTime();
+                lines = run(index, query);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long start = System.nanoTime();
+            int[] expected = scan(corpus, query);
+            long scan = System.nanoTime() - start;
+            if (!Arrays.equals(lines, expected)) {
+                throw new AssertionError(String.join(" ", query) + ": " + lines.length + " vs " + expected.length);
+            }
+            System.out.printf("%-34s%10d%14.3f%14d%n", String.join(" ", query), lines.length, best / 1e6, scan / 1_000_000);
+        }
+    }
+
+    private static void update(LineIndex index, Path corpus) throws IOException {
+        long start = System.nanoTime();
+        int added = index.update();
+        long elapsed = System.nanoTime() - start;
+        long expected;
+        try (Stream<String> lines = Files.lines(corpus)) {
+            expected = lines.count();
+        }
+        if (index.lineCount() != expected) {
+            throw new AssertionError("line count " + index.lineCount() + " vs " + expected);
+        }
+        System.out.printf("增量更新：索引 %d 行，%d 段，%d ms%n", added, index.segmentCount(), elapsed / 1_000_000);
+    }
+
+    private static void check(LineIndex index, Path corpus, String... query) throws IOException {
+        int[] lines = run(index, query);
+        if (!Arrays.equals(lines, scan(corpus, query))) {
+            throw new AssertionError(String.join(" ", query));
+        }
+        if ("phrase".equals(query[0]) && lines.length > 0 && !matcher(query[1]).test(index.line(lines[lines.length - 1]))) {
+            throw new AssertionError("line text " + lines[lines.length - 1]);
+        }
+    }
+
+    private static int[] run(LineIndex index, String[] query) {
+        String[] phrases = Arrays.copyOfRange(query, 1, query.length);
+        switch (query[0]) {
+            case "phrase":
+                return index.phrase(phrases[0]);
+            case "and":
+                return index.and(phrases);
+            default:
+                return index.or(phrases);
+        }
+    }
+
+    private static int[] scan(Path corpus, String[] query) throws IOException {
+        Predicate<String> predicate = null;
+        for (int i = 1; i < query.length; i++) {
+            Predicate<String> next = matcher(query[i]);
+            predicate = predicate == null ? next : "and".equals(query[0]) ? predicate.and(next) : predicate.or(next);
+        }
+        Predicate<String> filter = predicate;
+        try (Stream<String> lines = Files.lines(corpus)) {
+            String[] all = lines.toArray(String[]::new);
+            return IntStream.range(0, all.length).filter(i -> filter.test(all[i])).toArray();
+        }
+    }
+
+    /**
+     * 逐行扫描的参照实现：中日韩文字按子串匹配，英文词前后不能紧挨字母数字，忽略大小写
+     */
+    private static Predicate<String> matcher(String phrase) {
+        StringBuilder regex = new StringBuilder();
+        for (String token : phrase.split("(?<=[a-zA-Z0-9])(?=[^a-zA-Z0-9])|(?<=[^a-zA-Z0-9])(?=[a-zA-Z0-9])")) {
+            if (token.matches("[a-zA-Z0-9]+")) {
+                regex.append("(?<![a-zA-Z0-9])").append(Pattern.quote(token)).append("(?![a-zA-Z0-9])");
+            } else {
+                regex.append(Pattern.quote(token));
+            }
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+        return line -> pattern.matcher(line).find();
+    }
+
+    private static long indexSize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * 追加约 size 字节的中英混排文本，词按 Zipf 分布抽取，每行 5 到 40 个词，英文词之间一个空格
+     */
+    private static void generate(Path file, long size, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] cjkCdf = zipf(CJK_WORDS.length);
+        double[] wordCdf = zipf(WORDS.length);
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            StringBuilder line = new StringBuilder();
+            while (written < size) {
+                line.setLength(0);
+                int words = 5 + random.nextInt(36);
+                for (int i = 0; i < words; i++) {
+                    if (random.nextInt(3) == 0) {
+                        String word = WORDS[pick(wordCdf, random)];
+                        if (line.length() > 0 && line.charAt(line.length() - 1) != ' ') {
+                            line.append(' ');
+                        }
+                        line.append(random.nextInt(10) == 0 ? capitalize(word) : word).append(' ');
+                    } else {
+                        line.append(CJK_WORDS[pick(cjkCdf, random)]);
+                        if (random.nextInt(6) == 0) {
+                            line.append(random.nextBoolean() ? '，' : '。');
+                        }
+                    }
+                }
+                line.append('\n');
+                writer.append(line);
+                written += line.length() * 2L;
+            }
+        }
+    }
+
+    private static double[] zipf(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble() * cdf[cdf.length - 1]);
+        return i >= 0 ? i : Math.min(cdf.length - 1, -i - 1);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 增量监听文件中的长词
+ * 记录已经处理到的文件偏移量，文件增长时只读取追加的字节（处理到最后一个换行符为止），
+ * 去重排序后的长词保存在并发跳表中，可以随时读取；每次新增的词作为增量通知给监听者。
+ * 末尾没有换行符的半行在首次扫描时、以及文件大小不再变化时（两次检查之间没有增长）提前处理，
+ * 这样不以换行结尾的文件与一次性提取的结果相同；半行之后被续写时从行首重新扫描，
+ * 只在半行中出现过、续写后不再出现的词从集合中移除（监听者只收到新增，不会收到移除）。
+ * 文件被截断或替换（文件标识变化，或已处理部分末尾的字节与记录的 CRC 不符）时清空并从头重新扫描
+ */
+public class LongWordWatcher implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_SECONDS = 1;
+    /** 用于检测替换的已处理部分末尾的字节数 */
+    private static final int CHECK_BYTES = 4096;
+
+    private final Path file;
+    private final int minLength;
+    private final ConcurrentSkipListSet<String> words = new ConcurrentSkipListSet<>();
+    private final CopyOnWriteArrayList<Consumer<SortedSet<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final char[] chars = new char[BUFFER_SIZE];
+    private final Utf8Decoder decoder = new Utf8Decoder();
+    private WatchService watchService;
+    /** 已处理到的位置，总是紧跟在一个换行符之后 */
+    private long offset;
+    /** [offset - CHECK_BYTES, offset) 的 CRC32 */
+    private long checkCrc;
+    private Object fileKey;
+    /** 上次检查时的文件大小，-1 表示还没有扫描过 */
+    private long lastSize = -1;
+    /** 已提前处理的半行的结束位置 */
+    private long tailEnd;
+    /** 只在提前处理的半行中出现过的词，续写后需要确认 */
+    private Set<String> tailWords = new HashSet<>();
+    private volatile boolean closed;
+
+    public LongWordWatcher(Path file) {
+        this(file, 5);
+    }
+
+    /**
+     * @param minLength 只保留长度大于该值的词
+     */
+    public LongWordWatcher(Path file, int minLength) {
+        this.file = file.toAbsolutePath();
+        this.minLength = minLength;
+    }
+
+    /**
+     * 当前所有长词的只读有序视图，可以在其他线程中随时读取
+     */
+    public NavigableSet<String> words() {
+        return Collections.unmodifiableNavigableSet(words);
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * 注册增量监听，参数为本次新增的词
+     */
+    public void addListener(Consumer<SortedSet<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 处理自上次以来追加的内容，返回新增的词
+     * 代价只与追加的字节数成正比
+     */
+    public synchronized SortedSet<String> catchUp() throws IOException {
+        if (!Files.exists(file)) {
+            return Collections.emptySortedSet();
+        }
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (lastSize >= 0 && (size < offset || (key != null && !key.equals(fileKey))
+                    || checksum(channel, offset) != checkCrc)) {
+                // 文件被截断或替换
+                words.clear();
+                tailWords.clear();
+                offset = 0;
+                checkCrc = 0;
+                tailEnd = 0;
+                lastSize = -1;
+            }
+            fileKey = key;
+            boolean settled = lastSize < 0 || size == lastSize;
+            lastSize = size;
+            SortedSet<String> added = new TreeSet<>();
+            Set<String> unconfirmed = tailWords;
+            Set<String> newTail = new HashSet<>();
+            long end = lastLineEnd(channel, offset, size);
+            if (end > offset) {
+                // 之前的半行（如果有）已包含在新的完整行中，从行首重新扫描
+                scan(channel, offset, end, added, unconfirmed, null);
+                offset = end;
+                tailEnd = end;
+                checkCrc = checksum(channel, offset);
+            } else if (tailEnd == size || !settled) {
+                // 半行没有变化，或者还在增长：保留之前的结果
+                newTail = unconfirmed;
+                unconfirmed = Collections.emptySet();
+            }
+            if (end < size && tailEnd != size && settled) {
+                scan(channel, end, size, added, unconfirmed, newTail);
+                tailEnd = size;
+            }
+            words.removeAll(unconfirmed);
+            tailWords = newTail;
+            if (!added.isEmpty()) {
+                SortedSet<String> delta = Collections.unmodifiableSortedSet(added);
+                for (Consumer<SortedSet<String>> listener : listeners) {
+                    listener.accept(delta);
+                }
+            }
+            return added;
+        }
+    }
+
+    /**
+     * 阻塞监听文件变化直到 {@link #close()}
+     * 除了 WatchService 的事件外，每秒也会检查一次文件大小，防止某些文件系统上事件丢失或延迟
+     */
+    public void watch() throws IOException, InterruptedException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        catchUp();
+        try {
+            while (!closed) {
+                WatchKey key = watchService.poll(POLL_SECONDS, TimeUnit.SECONDS);
+                if (key != null) {
+                    // 目录下任何文件的事件都只是触发一次检查，是否有新内容由文件大小决定
+                    key.pollEvents();
+                    key.reset();
+                }
+                catchUp();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close() 结束监听
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+        }
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    /**
+     * 扫描 [start, end)：新词加入 added；再次出现的半行词从 unconfirmed 中移除（确认有效）；
+     * newTail 不为 null 时扫描的是半行，其中新出现或仍未确认的词记入 newTail
+     */
+    private void scan(FileChannel channel, long start, long end, SortedSet<String> added, Set<String> unconfirmed,
+                      Set<String> newTail) throws IOException {
+        CjkTokenizer tokenizer = new CjkTokenizer(minLength, (text, from, length) -> {
+            String word = new String(text, from, length);
+            if (words.add(word)) {
+                added.add(word);
+                if (newTail != null) {
+                    newTail.add(word);
+                }
+            } else if (unconfirmed.remove(word) && newTail != null) {
+                newTail.add(word);
+            }
+        });
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = start;
+        int carry = 0;
+        while (position < end) {
+            buffer.limit((int) Math.min(bytes.length, carry + end - position));
+            buffer.position(carry);
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+            int length = carry + n;
+            int decoded = decoder.decode(bytes, 0, length, chars, 0, position >= end);
+            tokenizer.feed(chars, 0, decoded);
+            carry = length - decoder.consumed();
+            System.arraycopy(bytes, decoder.consumed(), bytes, 0, carry);
+        }
+        tokenizer.finish();
+    }
+
+    /**
+     * [end - CHECK_BYTES, end) 的 CRC32，end 为 0 时为 0
+     */
+    private long checksum(FileChannel channel, long end) throws IOException {
+        int length = (int) Math.min(CHECK_BYTES, end);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, end - length + buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return length == 0 ? 0 : crc.getValue();
+    }
+
+    /**
+     * 从文件末尾向前找最后一个换行符，返回其后的位置；[from, size) 中没有换行符时返回 from
+     */
+    private long lastLineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long blockEnd = size;
+        while (blockEnd > from) {
+            long blockStart = Math.max(from, blockEnd - bytes.length);
+            buffer.clear();
+            buffer.limit((int) (blockEnd - blockStart));
+            int n = 0;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, blockStart + n);
+                if (read <= 0) {
+                    break;
+                }
+                n += read;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return from;
+    }
+}
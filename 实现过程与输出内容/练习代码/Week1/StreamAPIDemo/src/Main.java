@@ -27,6 +27,9 @@ public class Main {
         //无限流
         Stream<Integer> infiniteStream = Stream.iterate(0, n -> n + 2);
         Stream<Double> randomStream = Stream.generate(Math::random);
+        //可复现、可拆分的随机数流，并行时各线程互不竞争
+        DoubleStream splittableRandoms = new SplittableRandom(42).doubles();
+        Stream<Person> people = new PersonGenerator(42).stream(1_000_000).parallel();
     }
     
     /**
@@ -118,6 +121,20 @@ public class Main {
         Map<Boolean, List<String>>  partitioned = fruits.stream()
                 .collect(Collectors.partitioningBy(n -> n.length() > 5));
         // {false=[apple], true=[banana, orange]}
+        
+        //不装箱的版本：int 键的开放寻址表，累加时不创建 Integer
+        ObjIntMap<String> lengths = fruits.stream()
+                .distinct()
+                .collect(PrimitiveCollectors.toObjIntMap(fruit -> fruit, String::length));
+        IntObjectMap<List<String>> groupByLength2 = fruits.stream()
+                .collect(PrimitiveCollectors.groupingByInt(String::length));
+        // {5=[apple, apple], 6=[banana, orange]}
+        IntIntMap countByLength = fruits.stream()
+                .collect(PrimitiveCollectors.countingByInt(String::length));
+        // {5=2, 6=2}
+        PrimitiveCollectors.Partition<String> partitioned2 = fruits.stream()
+                .collect(PrimitiveCollectors.partitioning(n -> n.length() > 5));
+        List<String> longFruits = partitioned2.get(true);
     }
     
     /**
@@ -150,6 +167,10 @@ public class Main {
         //reduce 归约
         Optional<Integer> sum = numbers.stream().reduce(Integer::sum);
         Integer product = numbers.stream().reduce(1, (a, b) -> a * b);
-        
+        //转成 IntStream 后归约，中间结果不装箱
+        int sum2 = numbers.stream().mapToInt(Integer::intValue).sum();
+        long product2 = numbers.stream().collect(PrimitiveCollectors.multiplyingInt(Integer::intValue));
+        IntObjectMap<IntList> oddEven = PrimitiveCollectors.grouping(IntStream.rangeClosed(1, 5), n -> n % 2);
+        // {0=[2, 4], 1=[1, 3, 5]}
     }
 }
\ No newline at end of file
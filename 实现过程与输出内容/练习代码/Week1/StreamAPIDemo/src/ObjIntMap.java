@@ -0,0 +1,123 @@
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 对象键到 int 值的开放寻址哈希表，值不装箱，用于代替 Map&lt;String, Integer&gt;
+ * 键不能为 null（null 表示空槽）；非线程安全
+ */
+public class ObjIntMap<K> {
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    public ObjIntMap() {
+        this(16);
+    }
+
+    public ObjIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    public int getInt(Object key, int defaultValue) {
+        int slot = slot(key);
+        return keys[slot] != null ? values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return keys[slot(key)] != null;
+    }
+
+    public void put(K key, int value) {
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            values[slot] = value;
+        } else {
+            insert(slot, key, value);
+        }
+    }
+
+    /**
+     * key 不存在时放入并返回 true，已存在时不修改并返回 false
+     */
+    public boolean putIfAbsent(K key, int value) {
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            return false;
+        }
+        insert(slot, key, value);
+        return true;
+    }
+
+    /**
+     * 把 delta 累加到 key 的值上（不存在时视为 0），返回累加后的值
+     */
+    public int addTo(K key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] != null) {
+            return values[slot] += delta;
+        }
+        insert(slot, key, delta);
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * key 所在的槽，不存在时返回应插入的空槽
+     */
+    private int slot(Object key) {
+        int mask = keys.length - 1;
+        int slot = IntIntMap.mix(key.hashCode()) & mask;
+        Object k;
+        while ((k = keys[slot]) != null && !k.equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, Object key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
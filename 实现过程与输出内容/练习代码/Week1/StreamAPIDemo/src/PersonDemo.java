@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -23,7 +27,59 @@ public class PersonDemo {
         Map<String, Double> avgAgeByCity = people.stream()
                 .collect(Collectors.groupingBy(Person::getCity,
                         Collectors.averagingInt(Person::getAge)));// {New York=26.5, London=30.0, Paris=22.0}
+        //并行版本：所有线程写入同一个结果，每个城市的统计分条带累加，不合并每个线程的 Map
+        Map<String, Double> avgAgeByCity2 = people.parallelStream()
+                .collect(ConcurrentCollectors.averagingIntByKey(Person::getCity, Person::getAge));// {New York=26.5, London=30.0, Paris=22.0}
+        Map<String, IntSketch> ageStatsByCity = people.parallelStream()
+                .collect(ConcurrentCollectors.summarizingIntByKey(Person::getCity, Person::getAge));
+        System.out.println(ageStatsByCity.get("New York"));// {count=2, mean=26.50, min=25, p50=25, p99=28, max=28}
         
+        //列存表：同样的两个查询，在 int[] 上循环
+        PersonTable table = PersonTable.of(people);
+        System.out.println(table.namesWhere("New York", 25));// [Charlie]
+        System.out.println(table.averageAgeByCity());// {New York=26.5, London=30.0, Paris=22.0}
+        //建立索引后由查询自己选择走索引还是扫描
+        table.createCityIndex();
+        table.createAgeIndex();
+        PersonQuery query = table.query().city("New York").ageGreaterThan(25);
+        System.out.println(query.explain() + " -> " + query.names());// SCAN city=New York age>25 -> [Charlie]
+        
+        //定长二进制文件：写入后内存映射读取，统计直接在字节上进行
+        //映射在 close() 之后仍然有效，直到被垃圾回收；Windows 上映射中的文件不能改写或删除，所以每份数据用单独的文件
+        try {
+            Path file = Files.createTempFile("people-", ".bin");
+            try {
+                PersonFile.write(file, people);
+                try (PersonFile personFile = PersonFile.open(file)) {
+                    System.out.println(personFile.get(2).getName() + " " + personFile.averageAgeByCity());
+                }
+            } finally {
+                deleteTempFile(file);
+            }
+            //可复现的大规模数据：同一种子每次生成相同的记录
+            Path generated = Files.createTempFile("people-generated-", ".bin");
+            try {
+                PersonFile.write(generated, new PersonGenerator(42), 1_000_000);
+                try (PersonFile personFile = PersonFile.open(generated)) {
+                    System.out.println(personFile.size() + " " + personFile.averageAgeByCity());
+                }
+            } finally {
+                deleteTempFile(generated);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * 文件仍被映射时（Windows）删除会失败，改为退出时再删
+     */
+    private static void deleteTempFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
     }
 }
 
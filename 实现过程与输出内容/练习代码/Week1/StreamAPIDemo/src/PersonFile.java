@@ -0,0 +1,366 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 定长二进制 Person 文件
+ * <pre>
+ * 文件头：魔数 "PRSN"(4) 版本(2) 记录长度(2) 记录数(8) 数据起始位置(4) 城市数(4)，
+ *        然后是城市字典：每个城市 字节数(2) + UTF-8 字节，补齐到 8 字节边界
+ * 记录（{@value #RECORD_SIZE} 字节）：姓名长度(1) 姓名(12，ASCII/UTF-8，不足补 0) 年龄(1) 城市编码(2)
+ * </pre>
+ * 第 i 条记录位于 数据起始位置 + i * {@value #RECORD_SIZE}，可以随机访问；读取时按段内存映射，
+ * 查询直接在映射的字节上进行，不需要解析文本，也不用先把所有记录还原为对象
+ */
+public class PersonFile implements Closeable {
+    static final int MAGIC = 0x5052534E;
+    static final short VERSION = 1;
+    static final int RECORD_SIZE = 16;
+    static final int MAX_NAME_BYTES = 12;
+    private static final int NAME_OFFSET = 1;
+    private static final int AGE_OFFSET = 13;
+    private static final int CITY_OFFSET = 14;
+    /** 每段映射的记录数：2^26 条，即 1GB */
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_RECORDS = 1L << SEGMENT_SHIFT;
+    /** 并行写入时每个任务负责的记录数，必须是生成器块大小的整数倍 */
+    private static final int WRITE_CHUNK = 64 * PersonGenerator.BLOCK_SIZE;
+
+    private final FileChannel channel;
+    private final long count;
+    private final List<String> cities;
+    private final MappedByteBuffer[] segments;
+
+    private PersonFile(FileChannel channel, long count, List<String> cities, MappedByteBuffer[] segments) {
+        this.channel = channel;
+        this.count = count;
+        this.cities = cities;
+        this.segments = segments;
+    }
+
+    /**
+     * 用生成器并行生成 count 条记录写入文件，各任务直接写各自的文件区域
+     */
+    public static void write(Path file, PersonGenerator generator, long count) throws IOException {
+        List<String> cities = Arrays.asList(PersonGenerator.CITIES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long dataOffset = writeHeader(channel, count, cities);
+            try {
+                ForkJoinPool.commonPool().invoke(new WriteTask(channel, generator, dataOffset, 0, count));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 写入任意的 Person 集合，城市字典按出现顺序建立
+     */
+    public static void write(Path file, Collection<Person> people) throws IOException {
+        List<String> cities = new ArrayList<>();
+        Map<String, Integer> codes = new HashMap<>();
+        for (Person person : people) {
+            codes.computeIfAbsent(person.getCity(), city -> {
+                cities.add(city);
+                return cities.size() - 1;
+            });
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = writeHeader(channel, people.size(), cities);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            for (Person person : people) {
+                if (!buffer.hasRemaining()) {
+                    position += flush(channel, buffer, position);
+                }
+                byte[] name = person.getName().getBytes(StandardCharsets.UTF_8);
+                putRecord(buffer, name, name.length, person.getAge(), codes.get(person.getCity()));
+            }
+            flush(channel, buffer, position);
+        }
+    }
+
+    /**
+     * 打开文件并映射全部数据，映射在对象被回收前一直有效
+     */
+    public static PersonFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(24);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a person file: " + file);
+            }
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException("unsupported version " + version + " or record size " + recordSize);
+            }
+            long count = header.getLong();
+            int dataOffset = header.getInt();
+            int cityCount = header.getInt();
+            ByteBuffer dictionary = ByteBuffer.allocate(dataOffset - 24);
+            readFully(channel, dictionary, 24);
+            dictionary.flip();
+            List<String> cities = new ArrayList<>(cityCount);
+            for (int i = 0; i < cityCount; i++) {
+                byte[] bytes = new byte[dictionary.getShort() & 0xFFFF];
+                dictionary.get(bytes);
+                cities.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            if (channel.size() < dataOffset + count * RECORD_SIZE) {
+                throw new IOException("truncated person file: " + file);
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((count + SEGMENT_RECORDS - 1) >> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long records = Math.min(SEGMENT_RECORDS, count - ((long) s << SEGMENT_SHIFT));
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataOffset + ((long) s << SEGMENT_SHIFT) * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            return new PersonFile(channel, count, Collections.unmodifiableList(cities), segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public List<String> cities() {
+        return cities;
+    }
+
+    public int age(long i) {
+        return segment(i).get(offset(i) + AGE_OFFSET) & 0xFF;
+    }
+
+    public int cityCode(long i) {
+        return segment(i).getShort(offset(i) + CITY_OFFSET) & 0xFFFF;
+    }
+
+    public String city(long i) {
+        return cities.get(cityCode(i));
+    }
+
+    public String name(long i) {
+        ByteBuffer segment = segment(i);
+        int offset = offset(i);
+        byte[] bytes = new byte[segment.get(offset) & 0xFF];
+        segment.get(offset + NAME_OFFSET, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 还原第 i 条记录为对象
+     */
+    public Person get(long i) {
+        return new Person(name(i), age(i), city(i));
+    }
+
+    public Stream<Person> stream() {
+        return LongStream.range(0, count).mapToObj(this::get);
+    }
+
+    /**
+     * 每个城市的平均年龄，直接在映射的字节上并行统计，城市按字典顺序输出
+     */
+    public Map<String, Double> averageAgeByCity() {
+        long[] sums = ForkJoinPool.commonPool().invoke(new AgeSumTask(0, count));
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int c = 0; c < cities.size(); c++) {
+            long n = sums[2 * c + 1];
+            if (n > 0) {
+                result.put(cities.get(c), (double) sums[2 * c] / n);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 只关闭文件通道；已建立的内存映射在本对象被垃圾回收之前一直有效（JDK 没有公开的解除映射方法），
+     * Windows 上在此之前不能截断、改写或删除这个文件
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer segment(long i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+        }
+        return segments[(int) (i >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long i) {
+        return (int) (i & (SEGMENT_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    /**
+     * 写文件头和城市字典，返回数据起始位置
+     */
+    private static long writeHeader(FileChannel channel, long count, List<String> cities) throws IOException {
+        if (cities.size() > 0xFFFF) {
+            throw new IllegalArgumentException("too many cities: " + cities.size());
+        }
+        List<byte[]> encoded = new ArrayList<>();
+        int dictionarySize = 0;
+        for (String city : cities) {
+            byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            dictionarySize += 2 + bytes.length;
+        }
+        int dataOffset = (24 + dictionarySize + 7) & ~7;
+        ByteBuffer header = ByteBuffer.allocate(dataOffset);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE)
+                .putLong(count).putInt(dataOffset).putInt(cities.size());
+        for (byte[] bytes : encoded) {
+            header.putShort((short) bytes.length).put(bytes);
+        }
+        // 字典之后的补齐字节保持为 0
+        header.position(dataOffset);
+        flush(channel, header, 0);
+        return dataOffset;
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte[] name, int nameLength, int age, int cityCode) {
+        if (nameLength > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("name longer than " + MAX_NAME_BYTES + " bytes: "
+                    + new String(name, 0, nameLength, StandardCharsets.UTF_8));
+        }
+        if (age < 0 || age > 0xFF) {
+            throw new IllegalArgumentException("age out of range: " + age);
+        }
+        int start = buffer.position();
+        buffer.put((byte) nameLength).put(name, 0, nameLength);
+        buffer.position(start + AGE_OFFSET);
+        buffer.put((byte) age).putShort((short) cityCode);
+    }
+
+    /**
+     * 把 buffer 中 [0, position) 写到文件的 position 处，返回写入的字节数，并清空 buffer
+     */
+    private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + length - buffer.remaining());
+        }
+        // 清零，避免下一批记录的姓名补位残留旧数据
+        Arrays.fill(buffer.array(), 0, length, (byte) 0);
+        buffer.clear();
+        return length;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class WriteTask extends RecursiveAction {
+        private final FileChannel channel;
+        private final PersonGenerator generator;
+        private final long dataOffset;
+        private final long from;
+        private final long to;
+
+        WriteTask(FileChannel channel, PersonGenerator generator, long dataOffset, long from, long to) {
+            this.channel = channel;
+            this.generator = generator;
+            this.dataOffset = dataOffset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= WRITE_CHUNK) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) (to - from) * RECORD_SIZE);
+                generator.generate(from, to, (index, name, nameLength, age, cityCode) ->
+                        putRecord(buffer, name, nameLength, age, cityCode));
+                try {
+                    flush(channel, buffer, dataOffset + from * RECORD_SIZE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            // 在 WRITE_CHUNK 的整数倍处拆分，保证每段都从生成器的块边界开始
+            long chunks = (to - from + WRITE_CHUNK - 1) / WRITE_CHUNK;
+            long mid = from + chunks / 2 * WRITE_CHUNK;
+            invokeAll(new WriteTask(channel, generator, dataOffset, from, mid),
+                    new WriteTask(channel, generator, dataOffset, mid, to));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class AgeSumTask extends RecursiveTask<long[]> {
+        private final long from;
+        private final long to;
+
+        AgeSumTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * 结果为 [城市 0 年龄和, 城市 0 人数, 城市 1 年龄和, ...]
+         */
+        @Override
+        protected long[] compute() {
+            if (to - from <= WRITE_CHUNK) {
+                long[] sums = new long[2 * cities.size()];
+                if (to <= from) {
+                    return sums;
+                }
+                ByteBuffer segment = segment(from);
+                int start = offset(from);
+                // 任务范围不跨段：WRITE_CHUNK 能整除每段的记录数
+                int end = start + (int) (to - from) * RECORD_SIZE;
+                for (int p = start; p < end; p += RECORD_SIZE) {
+                    int city = segment.getShort(p + CITY_OFFSET) & 0xFFFF;
+                    sums[2 * city] += segment.get(p + AGE_OFFSET) & 0xFF;
+                    sums[2 * city + 1]++;
+                }
+                return sums;
+            }
+            long chunks = (to - from + WRITE_CHUNK - 1) / WRITE_CHUNK;
+            long mid = from + chunks / 2 * WRITE_CHUNK;
+            AgeSumTask left = new AgeSumTask(from, mid);
+            left.fork();
+            long[] right = new AgeSumTask(mid, to).compute();
+            long[] sums = left.join();
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += right[i];
+            }
+            return sums;
+        }
+    }
+}
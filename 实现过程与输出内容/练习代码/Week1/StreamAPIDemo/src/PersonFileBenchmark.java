@@ -0,0 +1,117 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * PersonGenerator 并行生成的可复现性检查，以及三种读取方式的对比：解析文本、逐条还原对象、直接在映射的字节上统计
+ * 用法：PersonFileBenchmark [记录数，默认 10000000]
+ */
+public class PersonFileBenchmark {
+    public static void main(String[] args) throws IOException {
+        long n = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        PersonGenerator generator = new PersonGenerator(42);
+
+        long start = System.nanoTime();
+        long sequential = generator.stream(n).mapToLong(PersonFileBenchmark::hash).sum();
+        long sequentialNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long parallel = generator.stream(n).parallel().mapToLong(PersonFileBenchmark::hash).sum();
+        long parallelNanos = System.nanoTime() - start;
+        if (sequential != parallel) {
+            throw new AssertionError("parallel generation is not reproducible");
+        }
+        System.out.printf("生成 %d 条：顺序 %d ms，并行 %d ms，结果一致%n", n, sequentialNanos / 1_000_000, parallelNanos / 1_000_000);
+
+        Path binary = Files.createTempFile("people-", ".bin");
+        Path text = Files.createTempFile("people-", ".csv");
+        try {
+            start = System.nanoTime();
+            PersonFile.write(binary, generator, n);
+            System.out.printf("写二进制文件：%d ms，%d MB%n", (System.nanoTime() - start) / 1_000_000, Files.size(binary) >> 20);
+            start = System.nanoTime();
+            try (BufferedWriter writer = Files.newBufferedWriter(text, StandardCharsets.UTF_8);
+                 Stream<Person> people = generator.stream(n)) {
+                for (Person person : (Iterable<Person>) people::iterator) {
+                    writer.write(person.getName() + "," + person.getAge() + "," + person.getCity());
+                    writer.newLine();
+                }
+            }
+            System.out.printf("写 CSV 文件：%d ms，%d MB%n", (System.nanoTime() - start) / 1_000_000, Files.size(text) >> 20);
+
+            start = System.nanoTime();
+            Map<String, Double> fromText;
+            try (Stream<String> lines = Files.lines(text)) {
+                fromText = lines.map(line -> line.split(","))
+                        .collect(Collectors.groupingBy(fields -> fields[2],
+                                Collectors.averagingInt(fields -> Integer.parseInt(fields[1]))));
+            }
+            long textNanos = System.nanoTime() - start;
+            Map<String, Double> fromObjects;
+            Map<String, Double> fromBytes;
+            long objectNanos;
+            long byteNanos;
+            try (PersonFile file = PersonFile.open(binary)) {
+                check(file, generator);
+                start = System.nanoTime();
+                fromObjects = file.stream().collect(Collectors.groupingBy(Person::getCity,
+                        Collectors.averagingInt(Person::getAge)));
+                objectNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                fromBytes = file.averageAgeByCity();
+                byteNanos = System.nanoTime() - start;
+            }
+            if (!fromText.equals(fromObjects) || !same(fromText, fromBytes)) {
+                throw new AssertionError(fromText + " / " + fromObjects + " / " + fromBytes);
+            }
+            System.out.printf("按城市平均年龄：解析 CSV %d ms，还原对象 %d ms，映射字节 %d ms%n",
+                    textNanos / 1_000_000, objectNanos / 1_000_000, byteNanos / 1_000_000);
+            System.out.println(fromBytes);
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(text);
+        }
+    }
+
+    /**
+     * 文件中的记录与生成器逐条一致（抽查开头、块边界和结尾）
+     */
+    private static void check(PersonFile file, PersonGenerator generator) {
+        long n = file.size();
+        long[] probes = {0, 1, PersonGenerator.BLOCK_SIZE - 1, PersonGenerator.BLOCK_SIZE, n / 2, n - 1};
+        for (long i : probes) {
+            if (i < 0 || i >= n) {
+                continue;
+            }
+            Person expected = generator.stream(i + 1).skip(i).findFirst().orElseThrow();
+            Person actual = file.get(i);
+            if (!expected.getName().equals(actual.getName()) || expected.getAge() != actual.getAge()
+                    || !expected.getCity().equals(actual.getCity())) {
+                throw new AssertionError("record " + i);
+            }
+        }
+    }
+
+    /**
+     * 求和顺序不同，平均值允许有浮点误差
+     */
+    private static boolean same(Map<String, Double> expected, Map<String, Double> actual) {
+        if (!expected.keySet().equals(actual.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            if (Math.abs(entry.getValue() - actual.get(entry.getKey())) > 1e-9) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(Person person) {
+        return person.getName().hashCode() * 31L * 31L + person.getAge() * 31L + person.getCity().hashCode();
+    }
+}
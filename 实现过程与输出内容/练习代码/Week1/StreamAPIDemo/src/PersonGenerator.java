@@ -0,0 +1,157 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 可复现的 Person 数据生成器
+ * 记录按每 {@value #BLOCK_SIZE} 条分块，每块用由种子和块号派生的 SplittableRandom 生成，
+ * 所以第 i 条记录只取决于种子和 i，与是否并行、怎样拆分无关；Spliterator 只在块边界拆分，并行流可以无竞争地生成数十亿条记录
+ */
+public class PersonGenerator {
+    static final int BLOCK_SIZE = 4096;
+    static final String[] CITIES = {"New York", "London", "Paris", "Tokyo", "Beijing", "Shanghai", "Berlin", "Sydney",
+            "Toronto", "Madrid", "Rome", "Seoul", "Singapore", "Dubai", "Moscow", "São Paulo"};
+    /** 姓名由 2 到 3 个音节组成，最长 12 个 ASCII 字符 */
+    static final int MAX_NAME_LENGTH = 12;
+    private static final byte[][] SYLLABLES;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    static {
+        String[] syllables = {"an", "bo", "chen", "da", "el", "fa", "gi", "hu", "li", "ma", "na", "ol", "pe", "qi",
+                "ra", "su", "ta", "wu", "xi", "yo", "zhu", "ka", "lin", "mi"};
+        SYLLABLES = new byte[syllables.length][];
+        for (int i = 0; i < syllables.length; i++) {
+            SYLLABLES[i] = syllables[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final long seed;
+
+    public PersonGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 前 count 条记录组成的流，调用 parallel() 即可并行生成
+     */
+    public Stream<Person> stream(long count) {
+        return StreamSupport.stream(new BlockSpliterator(0, count, null), false);
+    }
+
+    /**
+     * 生成 [from, to) 范围内的记录，不创建 Person 对象；from 必须是块边界
+     */
+    void generate(long from, long to, RecordSink sink) {
+        if (from % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("from must be a multiple of " + BLOCK_SIZE + ": " + from);
+        }
+        byte[] name = new byte[MAX_NAME_LENGTH];
+        SplittableRandom random = null;
+        for (long i = from; i < to; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                random = blockRandom(i / BLOCK_SIZE);
+            }
+            int nameLength = nextName(random, name);
+            int age = nextAge(random);
+            sink.accept(i, name, nameLength, age, random.nextInt(CITIES.length));
+        }
+    }
+
+    /**
+     * 种子要先打散：SplittableRandom(s) 的步长固定，直接用 seed + block * 步长 会让相邻块的序列只差一个位置
+     */
+    private SplittableRandom blockRandom(long block) {
+        return new SplittableRandom(mix64(seed + (block + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Stafford 的 Mix13，与 SplittableRandom 内部使用的相同
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int nextName(SplittableRandom random, byte[] name) {
+        int syllables = 2 + random.nextInt(2);
+        int length = 0;
+        for (int s = 0; s < syllables; s++) {
+            byte[] syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+            System.arraycopy(syllable, 0, name, length, syllable.length);
+            length += syllable.length;
+        }
+        name[0] -= 'a' - 'A';
+        return length;
+    }
+
+    private static int nextAge(SplittableRandom random) {
+        return 18 + random.nextInt(62);
+    }
+
+    /**
+     * 接收一条记录的原始字段，name 在回调期间有效
+     */
+    @FunctionalInterface
+    interface RecordSink {
+        void accept(long index, byte[] name, int nameLength, int age, int cityCode);
+    }
+
+    private final class BlockSpliterator implements Spliterator<Person> {
+        private final byte[] name = new byte[MAX_NAME_LENGTH];
+        private long index;
+        private final long end;
+        /** 当前块的随机数，index 位于块边界时为 null */
+        private SplittableRandom random;
+
+        BlockSpliterator(long index, long end, SplittableRandom random) {
+            this.index = index;
+            this.end = end;
+            this.random = random;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Person> action) {
+            if (index >= end) {
+                return false;
+            }
+            if (index % BLOCK_SIZE == 0) {
+                random = blockRandom(index / BLOCK_SIZE);
+            }
+            index++;
+            int length = nextName(random, name);
+            int age = nextAge(random);
+            action.accept(new Person(new String(name, 0, length, StandardCharsets.US_ASCII), age,
+                    CITIES[random.nextInt(CITIES.length)]));
+            return true;
+        }
+
+        /**
+         * 在中点附近的块边界处拆分，前半段带走当前块的随机数状态
+         */
+        @Override
+        public Spliterator<Person> trySplit() {
+            long mid = (index + (end - index) / 2) / BLOCK_SIZE * BLOCK_SIZE;
+            if (mid <= index || mid >= end) {
+                return null;
+            }
+            BlockSpliterator prefix = new BlockSpliterator(index, mid, random);
+            index = mid;
+            random = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.List;
+
+/**
+ * PersonTable 上的简单查询与执行计划选择
+ * 支持 filter(city == X).filter(age > N).map(getName).sorted() 这类条件组合：
+ * 分别估算城市索引和年龄索引会取出多少行，选择取出行数少的索引；
+ * 取出行数超过全表的 {@value #SCAN_THRESHOLD} 时，随机访问不如顺序扫描，退回全表扫描
+ */
+public class PersonQuery {
+    /** 索引选择度高于该比例时使用全表扫描 */
+    static final double SCAN_THRESHOLD = 0.25;
+    
+    /**
+     * 执行计划
+     */
+    public enum Plan {
+        /** 条件不可能满足，例如城市不存在 */
+        EMPTY,
+        CITY_INDEX,
+        AGE_INDEX,
+        SCAN
+    }
+    
+    private final PersonTable table;
+    private String city;
+    private boolean filterAge;
+    private int minAge;
+    
+    PersonQuery(PersonTable table) {
+        this.table = table;
+    }
+    
+    public PersonQuery city(String city) {
+        this.city = city;
+        return this;
+    }
+    
+    public PersonQuery ageGreaterThan(int minAge) {
+        this.filterAge = true;
+        this.minAge = minAge;
+        return this;
+    }
+    
+    /**
+     * 根据现有索引和估算的行数选择执行计划
+     */
+    public Plan plan() {
+        int cityCode = city == null ? -1 : table.cityCode(city);
+        if (city != null && cityCode < 0) {
+            return Plan.EMPTY;
+        }
+        long cityRows = city != null && table.hasCityIndex() ? table.cityIndexCount(cityCode) : Long.MAX_VALUE;
+        long ageRows = filterAge && table.hasAgeIndex()
+                ? table.size() - table.ageIndexFirstAbove(minAge) : Long.MAX_VALUE;
+        long best = Math.min(cityRows, ageRows);
+        if (best == Long.MAX_VALUE || best > table.size() * SCAN_THRESHOLD) {
+            return Plan.SCAN;
+        }
+        return cityRows <= ageRows ? Plan.CITY_INDEX : Plan.AGE_INDEX;
+    }
+    
+    /**
+     * 满足条件的行号，按行号升序
+     */
+    public int[] rows() {
+        int cityCode = city == null ? -1 : table.cityCode(city);
+        switch (plan()) {
+            case EMPTY:
+                return new int[0];
+            case CITY_INDEX:
+                return table.cityIndexRows(cityCode, minAge, filterAge);
+            case AGE_INDEX:
+                return table.ageIndexRows(minAge, cityCode);
+            default:
+                return table.scanRows(cityCode, minAge, filterAge);
+        }
+    }
+    
+    /**
+     * 满足条件的人名，按字母排序
+     */
+    public List<String> names() {
+        return table.sortedNames(rows());
+    }
+    
+    /**
+     * 描述执行计划，便于调试
+     */
+    public String explain() {
+        return plan() + " city=" + city + (filterAge ? " age>" + minAge : "");
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列存储的 Person 表
+ * 年龄为 int[]，城市做字典编码后存为 int[]（城市名只保存一份），姓名单独一列。
+ * 查询在原始类型数组上顺序循环，不需要逐个访问对象，也不会装箱
+ */
+public class PersonTable {
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private String[] names;
+    private int[] ages;
+    private int[] cityCodes;
+    private int size;
+    /** 城市字典：编码 -> 城市名 */
+    private final List<String> cities = new ArrayList<>();
+    /** 城市字典：城市名 -> 编码 */
+    private final Map<String, Integer> cityIndex = new HashMap<>();
+    /** 城市索引：编码为 c 的行号保存在 cityRows[cityOffsets[c], cityOffsets[c + 1]) 中，行号升序 */
+    private int[] cityOffsets;
+    private int[] cityRows;
+    /** 年龄索引：按年龄排序的行号，以及对应的年龄 */
+    private int[] ageRows;
+    private int[] sortedAges;
+    
+    public PersonTable() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    public PersonTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        names = new String[capacity];
+        ages = new int[capacity];
+        cityCodes = new int[capacity];
+    }
+    
+    public static PersonTable of(Collection<Person> people) {
+        PersonTable table = new PersonTable(people.size());
+        for (Person person : people) {
+            table.add(person);
+        }
+        return table;
+    }
+    
+    public void add(Person person) {
+        add(person.getName(), person.getAge(), person.getCity());
+    }
+    
+    public void add(String name, int age, String city) {
+        if (size == ages.length) {
+            int capacity = size + (size >> 1) + 1;
+            names = Arrays.copyOf(names, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            cityCodes = Arrays.copyOf(cityCodes, capacity);
+        }
+        names[size] = name;
+        ages[size] = age;
+        cityCodes[size] = encodeCity(city);
+        size++;
+        // 索引不做增量维护，数据变化后需要重新创建
+        dropIndexes();
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * 还原第 row 行为对象
+     */
+    public Person get(int row) {
+        checkRow(row);
+        return new Person(names[row], ages[row], cities.get(cityCodes[row]));
+    }
+    
+    public String getName(int row) {
+        checkRow(row);
+        return names[row];
+    }
+    
+    public int getAge(int row) {
+        checkRow(row);
+        return ages[row];
+    }
+    
+    public String getCity(int row) {
+        checkRow(row);
+        return cities.get(cityCodes[row]);
+    }
+    
+    /**
+     * 城市的字典编码，城市不存在时返回 -1
+     */
+    public int cityCode(String city) {
+        Integer code = cityIndex.get(city);
+        return code == null ? -1 : code;
+    }
+    
+    /**
+     * 城市字典，下标即编码
+     */
+    public List<String> cities() {
+        return Collections.unmodifiableList(cities);
+    }
+    
+    /**
+     * 某城市中年龄大于 minAge 的行号，按行号升序
+     */
+    public int[] rowsWhere(String city, int minAge) {
+        int code = cityCode(city);
+        if (code < 0) {
+            return new int[0];
+        }
+        return scanRows(code, minAge, true);
+    }
+    
+    /**
+     * 某城市中年龄大于 minAge 的人名，按字母排序
+     * 等价于 filter(city).filter(age > minAge).map(getName).sorted()
+     */
+    public List<String> namesWhere(String city, int minAge) {
+        return sortedNames(rowsWhere(city, minAge));
+    }
+    
+    /**
+     * 每个城市的平均年龄，等价于 groupingBy(getCity, averagingInt(getAge))
+     * 按城市编码下标累加，只需要一次顺序扫描
+     */
+    public Map<String, Double> averageAgeByCity() {
+        int cityCount = cities.size();
+        long[] sums = new long[cityCount];
+        int[] counts = new int[cityCount];
+        for (int i = 0; i < size; i++) {
+            int code = cityCodes[i];
+            sums[code] += ages[i];
+            counts[code]++;
+        }
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int code = 0; code < cityCount; code++) {
+            if (counts[code] > 0) {
+                result.put(cities.get(code), (double) sums[code] / counts[code]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 创建城市索引（按城市编码分桶的行号列表）
+     */
+    public void createCityIndex() {
+        int cityCount = cities.size();
+        int[] offsets = new int[cityCount + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[cityCodes[i] + 1]++;
+        }
+        for (int code = 0; code < cityCount; code++) {
+            offsets[code + 1] += offsets[code];
+        }
+        int[] rows = new int[size];
+        int[] next = Arrays.copyOf(offsets, cityCount);
+        for (int i = 0; i < size; i++) {
+            rows[next[cityCodes[i]]++] = i;
+        }
+        cityOffsets = offsets;
+        cityRows = rows;
+    }
+    
+    /**
+     * 创建年龄索引（按年龄排序的行号），支持范围查询
+     */
+    public void createAgeIndex() {
+        // 高 32 位为年龄、低 32 位为行号，排序后即按年龄、再按行号有序
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) ages[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] rows = new int[size];
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) keys[i];
+            sorted[i] = (int) (keys[i] >> 32);
+        }
+        ageRows = rows;
+        sortedAges = sorted;
+    }
+    
+    public void dropIndexes() {
+        cityOffsets = null;
+        cityRows = null;
+        ageRows = null;
+        sortedAges = null;
+    }
+    
+    public boolean hasCityIndex() {
+        return cityRows != null;
+    }
+    
+    public boolean hasAgeIndex() {
+        return ageRows != null;
+    }
+    
+    /**
+     * 新建一个查询，由 {@link PersonQuery} 根据索引和选择度决定执行计划
+     */
+    public PersonQuery query() {
+        return new PersonQuery(this);
+    }
+    
+    /**
+     * 城市索引中某城市的行数
+     */
+    int cityIndexCount(int code) {
+        return cityOffsets[code + 1] - cityOffsets[code];
+    }
+    
+    /**
+     * 年龄索引中第一个年龄大于 minAge 的位置，之后的所有位置都满足条件
+     */
+    int ageIndexFirstAbove(int minAge) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedAges[mid] > minAge) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * 通过城市索引取行，再检查年龄
+     */
+    int[] cityIndexRows(int code, int minAge, boolean filterAge) {
+        int from = cityOffsets[code];
+        int to = cityOffsets[code + 1];
+        int[] rows = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int row = cityRows[i];
+            if (!filterAge || ages[row] > minAge) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+    
+    /**
+     * 通过年龄索引取行，再检查城市；cityCode 为 -1 时不过滤城市
+     */
+    int[] ageIndexRows(int minAge, int cityCode) {
+        int from = ageIndexFirstAbove(minAge);
+        int[] rows = new int[size - from];
+        int count = 0;
+        for (int i = from; i < size; i++) {
+            int row = ageRows[i];
+            if (cityCode < 0 || cityCodes[row] == cityCode) {
+                rows[count++] = row;
+            }
+        }
+        rows = Arrays.copyOf(rows, count);
+        Arrays.sort(rows);
+        return rows;
+    }
+    
+    /**
+     * 全表扫描，cityCode 为 -1 时不过滤城市
+     */
+    int[] scanRows(int cityCode, int minAge, boolean filterAge) {
+        int[] rows = new int[16];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((cityCode < 0 || cityCodes[i] == cityCode) && (!filterAge || ages[i] > minAge)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+    
+    /**
+     * 按行号取姓名并排序
+     */
+    List<String> sortedNames(int[] rows) {
+        String[] result = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = names[rows[i]];
+        }
+        Arrays.sort(result);
+        return Arrays.asList(result);
+    }
+    
+    private int encodeCity(String city) {
+        Integer code = cityIndex.get(city);
+        if (code == null) {
+            code = cities.size();
+            cities.add(city);
+            cityIndex.put(city, code);
+        }
+        return code;
+    }
+    
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 对象列表 vs 列存表：内存占用和两个 PersonDemo 查询的耗时，以及索引查询与全表扫描的对比
+ * 用法：PersonTableBenchmark [行数，默认 10000000]
+ */
+public class PersonTableBenchmark {
+    private static final String[] CITIES = {"New York", "London", "Paris", "Tokyo", "Beijing", "Berlin", "Sydney", "Toronto"};
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        // 姓名从有限的池中取，两种结构共享同一批字符串，比较的只是结构本身的开销
+        String[] namePool = new String[10_000];
+        for (int i = 0; i < namePool.length; i++) {
+            namePool[i] = "Person" + i;
+        }
+        
+        long before = usedMemory();
+        List<Person> people = new ArrayList<>(rows);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < rows; i++) {
+            people.add(new Person(namePool[random.nextInt(namePool.length)], 18 + random.nextInt(60),
+                    CITIES[random.nextInt(CITIES.length)]));
+        }
+        long listBytes = usedMemory() - before;
+        
+        before = usedMemory();
+        PersonTable table = PersonTable.of(people);
+        long tableBytes = usedMemory() - before;
+        System.out.printf("行数：%d，对象列表约 %d MB，列存表约 %d MB%n", rows, listBytes >> 20, tableBytes >> 20);
+        
+        time("stream filter", () -> people.stream()
+                .filter(person -> "New York".equals(person.getCity()))
+                .filter(person -> person.getAge() > 25)
+                .map(Person::getName)
+                .sorted()
+                .collect(Collectors.toList()).size());
+        time("table  filter", () -> table.namesWhere("New York", 25).size());
+        time("stream average", () -> {
+            Map<String, Double> avg = people.stream()
+                    .collect(Collectors.groupingBy(Person::getCity, Collectors.averagingInt(Person::getAge)));
+            return avg.size();
+        });
+        time("table  average", () -> table.averageAgeByCity().size());
+        
+        // 点查询（城市选择度高）和范围查询（年龄选择度高）分别走不同的索引
+        int rareCity = rows / 1000;
+        for (int i = 0; i < rareCity; i++) {
+            table.add("Rare" + i, 30, "Reykjavik");
+        }
+        table.createCityIndex();
+        table.createAgeIndex();
+        PersonQuery point = table.query().city("Reykjavik").ageGreaterThan(25);
+        PersonQuery range = table.query().city("New York").ageGreaterThan(75);
+        PersonQuery wide = table.query().city("New York").ageGreaterThan(25);
+        time("scan   point", () -> table.scanRows(table.cityCode("Reykjavik"), 25, true).length);
+        time("index  point", () -> point.rows().length);
+        time("scan   range", () -> table.scanRows(table.cityCode("New York"), 75, true).length);
+        time("index  range", () -> range.rows().length);
+        System.out.println(point.explain());
+        System.out.println(range.explain());
+        System.out.println(wide.explain());
+    }
+    
+    private static void time(String name, IntSupplier query) {
+        long best = Long.MAX_VALUE;
+        int result = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            result = query.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-16s %8.1f ms  结果数：%d%n", name, best / 1e6, result);
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * 不装箱的收集器，对应 Collectors 中以 Integer 为键或值的几种用法：
+ * groupingBy(String::length) / groupingBy(..., counting()) / toMap(..., String::length) / partitioningBy / reduce(Integer::sum)
+ * 累加过程中每个元素只做一次数组写入，不创建 Integer、Long 或 Map.Entry；支持并行流（各线程分别累加后合并）
+ */
+public class PrimitiveCollectors {
+    private PrimitiveCollectors() {
+    }
+
+    /**
+     * 按 int 键分组，相当于 groupingBy(key)
+     */
+    public static <T> Collector<T, ?, IntObjectMap<List<T>>> groupingByInt(ToIntFunction<? super T> key) {
+        return Collector.of(
+                IntObjectMap::new,
+                (map, element) -> map.computeIfAbsent(key.applyAsInt(element), k -> new ArrayList<>()).add(element),
+                (left, right) -> left.merge(right, (a, b) -> {
+                    a.addAll(b);
+                    return a;
+                }));
+    }
+
+    /**
+     * 按 int 键计数，相当于 groupingBy(key, counting())
+     */
+    public static <T> Collector<T, ?, IntIntMap> countingByInt(ToIntFunction<? super T> key) {
+        return Collector.of(
+                IntIntMap::new,
+                (map, element) -> map.addTo(key.applyAsInt(element), 1),
+                IntIntMap::addAll,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 按 int 键求和，相当于 groupingBy(key, summingInt(value))
+     */
+    public static <T> Collector<T, ?, IntIntMap> summingByInt(ToIntFunction<? super T> key, ToIntFunction<? super T> value) {
+        return Collector.of(
+                IntIntMap::new,
+                (map, element) -> map.addTo(key.applyAsInt(element), value.applyAsInt(element)),
+                IntIntMap::addAll,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 相当于 toMap(key, value)，值不装箱；键重复时与 Collectors.toMap 一样抛出 IllegalStateException
+     */
+    public static <T, K> Collector<T, ?, ObjIntMap<K>> toObjIntMap(Function<? super T, ? extends K> key,
+                                                                   ToIntFunction<? super T> value) {
+        return Collector.of(
+                ObjIntMap::new,
+                (map, element) -> putUnique(map, key.apply(element), value.applyAsInt(element)),
+                (left, right) -> {
+                    right.forEach((k, v) -> putUnique(left, k, v));
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * 相当于 partitioningBy(predicate)，结果用布尔值直接取，不经过 Map&lt;Boolean, List&gt;
+     */
+    public static <T> Collector<T, ?, Partition<T>> partitioning(Predicate<? super T> predicate) {
+        return Collector.of(
+                Partition::new,
+                (partition, element) -> partition.get(predicate.test(element)).add(element),
+                (left, right) -> {
+                    left.matched.addAll(right.matched);
+                    left.unmatched.addAll(right.unmatched);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * int 值的乘积，相当于 reduce(1, (a, b) -> a * b)，以 long 累乘，结果只装箱一次
+     */
+    public static <T> Collector<T, ?, Long> multiplyingInt(ToIntFunction<? super T> value) {
+        return Collector.of(
+                () -> new long[]{1},
+                (product, element) -> product[0] *= value.applyAsInt(element),
+                (left, right) -> {
+                    left[0] *= right[0];
+                    return left;
+                },
+                product -> product[0]);
+    }
+
+    /**
+     * IntStream 中每个值出现的次数
+     */
+    public static IntIntMap counting(IntStream values) {
+        return values.collect(IntIntMap::new, (map, value) -> map.addTo(value, 1), IntIntMap::addAll);
+    }
+
+    /**
+     * 按 key(value) 把 IntStream 分到各个 IntList 桶中
+     */
+    public static IntObjectMap<IntList> grouping(IntStream values, IntUnaryOperator key) {
+        return values.collect(IntObjectMap::new,
+                (map, value) -> map.computeIfAbsent(key.applyAsInt(value), k -> new IntList()).add(value),
+                (left, right) -> left.merge(right, IntList::addAll));
+    }
+
+    private static <K> void putUnique(ObjIntMap<K> map, K key, int value) {
+        if (!map.putIfAbsent(key, value)) {
+            throw new IllegalStateException("Duplicate key " + key + " (attempted merging values "
+                    + map.getInt(key, 0) + " and " + value + ")");
+        }
+    }
+
+    /**
+     * partitioning 的结果
+     */
+    public static class Partition<T> {
+        private final List<T> matched = new ArrayList<>();
+        private final List<T> unmatched = new ArrayList<>();
+
+        public List<T> get(boolean match) {
+            return match ? matched : unmatched;
+        }
+
+        @Override
+        public String toString() {
+            return "{false=" + unmatched + ", true=" + matched + "}";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * PrimitiveCollectors 与 JDK Collectors 的吞吐和内存分配对比
+ * 分配字节数取自 com.sun.management.ThreadMXBean（不可用时显示 -1），GC 次数和耗时取自 GarbageCollectorMXBean
+ * 用法：PrimitiveCollectorsBenchmark [元素数，默认 5000000]
+ */
+public class PrimitiveCollectorsBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        SplittableRandom random = new SplittableRandom(19);
+        String[] pool = new String[10_000];
+        for (int i = 0; i < pool.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            pool[i] = sb.toString();
+        }
+        List<String> words = new ArrayList<>(n);
+        int[] numbers = new int[n];
+        for (int i = 0; i < n; i++) {
+            words.add(pool[random.nextInt(pool.length)]);
+            numbers[i] = random.nextInt(100_000);
+        }
+        check(words, numbers);
+
+        compare("按长度计数", n,
+                () -> words.stream().collect(Collectors.groupingBy(String::length, Collectors.counting())).size(),
+                () -> words.stream().collect(PrimitiveCollectors.countingByInt(String::length)).size());
+        compare("按长度分组", n,
+                () -> words.stream().collect(Collectors.groupingBy(String::length)).size(),
+                () -> words.stream().collect(PrimitiveCollectors.groupingByInt(String::length)).size());
+        compare("按长度求和", n,
+                () -> words.stream().collect(Collectors.groupingBy(String::length, Collectors.summingInt(String::length))).size(),
+                () -> words.stream().collect(PrimitiveCollectors.summingByInt(String::length, String::length)).size());
+        compare("分区", n,
+                () -> words.stream().collect(Collectors.partitioningBy(w -> w.length() > 5)).get(true).size(),
+                () -> words.stream().collect(PrimitiveCollectors.partitioning(w -> w.length() > 5)).get(true).size());
+        compare("int 计数", n,
+                () -> IntStream.of(numbers).boxed().collect(Collectors.groupingBy(v -> v, Collectors.counting())).size(),
+                () -> PrimitiveCollectors.counting(IntStream.of(numbers)).size());
+        compare("int 求和", n,
+                () -> IntStream.of(numbers).boxed().reduce(Integer::sum).orElse(0),
+                () -> IntStream.of(numbers).sum());
+        compare("并行按长度计数", n,
+                () -> words.parallelStream().collect(Collectors.groupingBy(String::length, Collectors.counting())).size(),
+                () -> words.parallelStream().collect(PrimitiveCollectors.countingByInt(String::length)).size());
+    }
+
+    /**
+     * 结果与 JDK 收集器一致
+     */
+    private static void check(List<String> words, int[] numbers) {
+        Map<Integer, Long> counts = words.stream().collect(Collectors.groupingBy(String::length, Collectors.counting()));
+        IntIntMap counts2 = words.parallelStream().collect(PrimitiveCollectors.countingByInt(String::length));
+        Map<Integer, List<String>> groups = words.stream().collect(Collectors.groupingBy(String::length));
+        IntObjectMap<List<String>> groups2 = words.parallelStream().collect(PrimitiveCollectors.groupingByInt(String::length));
+        Map<Integer, Long> numberCounts = IntStream.of(numbers).boxed().collect(Collectors.groupingBy(v -> v, Collectors.counting()));
+        IntIntMap numberCounts2 = PrimitiveCollectors.counting(IntStream.of(numbers).parallel());
+        if (counts.size() != counts2.size() || groups.size() != groups2.size() || numberCounts.size() != numberCounts2.size()) {
+            throw new AssertionError("size mismatch");
+        }
+        counts.forEach((length, count) -> {
+            if (counts2.get(length, -1) != count || !groups.get(length).equals(groups2.get(length))) {
+                throw new AssertionError("length " + length);
+            }
+        });
+        numberCounts.forEach((value, count) -> {
+            if (numberCounts2.get(value, -1) != count) {
+                throw new AssertionError("value " + value);
+            }
+        });
+        System.out.println("结果与 JDK 收集器一致");
+    }
+
+    private static void compare(String name, int n, Supplier<Object> jdk, Supplier<Object> primitive) {
+        System.out.println(name);
+        run("  Collectors", n, jdk);
+        run("  PrimitiveCollectors", n, primitive);
+    }
+
+    private static void run(String name, int n, Supplier<Object> body) {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        long gcCount = 0;
+        long gcMillis = 0;
+        Object result = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = allocatedBytes();
+            long[] gc = gcStats();
+            long start = System.nanoTime();
+            result = body.get();
+            long elapsed = System.nanoTime() - start;
+            long[] gcAfter = gcStats();
+            if (elapsed < best) {
+                best = elapsed;
+                allocated = bytes < 0 ? -1 : allocatedBytes() - bytes;
+                gcCount = gcAfter[0] - gc[0];
+                gcMillis = gcAfter[1] - gc[1];
+            }
+        }
+        System.out.printf("%-22s %6.1f ns/个  分配 %6.1f B/个  GC %d 次 %d ms  结果：%s%n", name,
+                (double) best / n, allocated < 0 ? -1.0 : (double) allocated / n, gcCount, gcMillis, result);
+    }
+
+    /**
+     * 当前线程累计分配的字节数；并行流中其他线程的分配不在其内
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long[] gcStats() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+}
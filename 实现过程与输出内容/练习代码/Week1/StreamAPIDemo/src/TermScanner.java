@@ -0,0 +1,144 @@
+/**
+ * 把一行 UTF-8 字节切分为索引词项，并给出每个词项在行内的字节偏移
+ * 字符分类与 {@link CjkTokenizer} 相同：
+ * <ul>
+ *     <li>字母数字连续段为一个词，转为小写</li>
+ *     <li>中日韩文字连续段切为相邻两字的二元组（"现代化" 得到 "现代"、"代化"），只有一个字时保留单字</li>
+ *     <li>建索引时（runEnds）每个连续段的最后一个字也作为单字输出：一个字要么是某个二元组的首字，要么是连续段的末字，
+ *     查询单字时合并这两类词项的倒排即可找到它的每次出现</li>
+ * </ul>
+ * 直接在字节上解码，非法字节视为分隔符；索引和查询使用同一套切分规则，二者的词项和偏移完全一致
+ */
+class TermScanner {
+    /**
+     * 接收一个词项
+     * 中日韩二元组中两个字都在基本多文种平面时以 (高字 &lt;&lt; 16 | 低字) 的 int 给出，text 为 null，避免为每次出现创建字符串；
+     * 其余词项给出字符串，单个中日韩字的 code 为 {@link #SINGLE_CJK}，字母数字词的 code 为 0
+     */
+    interface TermSink {
+        void accept(int code, String text, int offset);
+    }
+
+    static final int SINGLE_CJK = -1;
+
+    private final boolean runEnds;
+    private final StringBuilder word = new StringBuilder();
+    /** 当前中日韩连续段中上一个字的码点和偏移 */
+    private int previousCjk = -1;
+    private int previousCjkOffset;
+    private boolean cjkRunHasPair;
+
+    /**
+     * @param runEnds 是否为两个字以上的中日韩连续段额外输出末字，建索引时为 true，切分查询时为 false
+     */
+    TermScanner(boolean runEnds) {
+        this.runEnds = runEnds;
+    }
+
+    /**
+     * 扫描 bytes[from, to)，偏移相对于 from
+     */
+    void scan(byte[] bytes, int from, int to, TermSink sink) {
+        int kind = CjkTokenizer.SEPARATOR;
+        int wordStart = 0;
+        int i = from;
+        while (i <= to) {
+            int cp;
+            int width;
+            int next;
+            if (i == to) {
+                cp = -1;
+                width = 1;
+                next = CjkTokenizer.SEPARATOR;
+            } else {
+                int b = bytes[i];
+                if (b >= 0) {
+                    cp = b;
+                    width = 1;
+                } else {
+                    width = (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 0;
+                    cp = decode(bytes, i, to, width);
+                    if (cp < 0) {
+                        width = 1;
+                    }
+                }
+                if (cp < 0) {
+                    next = CjkTokenizer.SEPARATOR;
+                } else if (cp >= 0x4E00 && cp <= 0x9FFF) {
+                    next = CjkTokenizer.CJK;
+                } else {
+                    next = CjkTokenizer.kindOf(cp);
+                    if (next == CjkTokenizer.CONTINUE) {
+                        next = kind;
+                    }
+                }
+            }
+            int offset = i - from;
+            if (next != kind) {
+                if (kind == CjkTokenizer.WORD) {
+                    sink.accept(0, word.toString(), wordStart);
+                    word.setLength(0);
+                } else if (kind == CjkTokenizer.CJK) {
+                    finishCjkRun(sink);
+                }
+                kind = next;
+                wordStart = offset;
+            }
+            if (kind == CjkTokenizer.WORD) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else if (kind == CjkTokenizer.CJK) {
+                if (previousCjk >= 0) {
+                    emitPair(previousCjk, cp, previousCjkOffset, sink);
+                    cjkRunHasPair = true;
+                }
+                previousCjk = cp;
+                previousCjkOffset = offset;
+            }
+            i += width;
+        }
+    }
+
+    private void finishCjkRun(TermSink sink) {
+        if (previousCjk >= 0 && (runEnds || !cjkRunHasPair)) {
+            sink.accept(SINGLE_CJK, new String(Character.toChars(previousCjk)), previousCjkOffset);
+        }
+        previousCjk = -1;
+        cjkRunHasPair = false;
+    }
+
+    private static void emitPair(int first, int second, int offset, TermSink sink) {
+        if (first < 0x10000 && second < 0x10000) {
+            sink.accept(first << 16 | second, null, offset);
+        } else {
+            sink.accept(0, new StringBuilder(4).appendCodePoint(first).appendCodePoint(second).toString(), offset);
+        }
+    }
+
+    /**
+     * 基本平面二元组的 int 编码还原为字符串
+     */
+    static String pairText(int code) {
+        return new String(new char[]{(char) (code >>> 16), (char) code});
+    }
+
+    /**
+     * 解码一个多字节序列，非法、截断、超长编码或代理区码点返回 -1
+     */
+    private static int decode(byte[] bytes, int i, int to, int width) {
+        if (width == 0 || i + width > to) {
+            return -1;
+        }
+        int cp = bytes[i] & (0x7F >> width);
+        for (int k = 1; k < width; k++) {
+            int b = bytes[i + k];
+            if ((b & 0xC0) != 0x80) {
+                return -1;
+            }
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        boolean valid = width == 2 ? cp >= 0x80
+                : width == 3 ? cp >= 0x800 && (cp < 0xD800 || cp > 0xDFFF)
+                : cp >= 0x10000 && cp <= 0x10FFFF;
+        return valid ? cp : -1;
+    }
+}
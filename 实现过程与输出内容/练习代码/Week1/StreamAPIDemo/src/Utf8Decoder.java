@@ -0,0 +1,78 @@
+/**
+ * 手写的 UTF-8 解码器，直接在字节数组和字符数组之间转换，避免 CharsetDecoder 在堆外缓冲区上的慢路径
+ * 非法或截断的字节序列替换为 U+FFFD；四字节序列解码为一对代理字符，不会被拆到两次调用中
+ */
+public class Utf8Decoder {
+    private static final char REPLACEMENT = '�';
+    
+    private int consumed;
+    
+    /**
+     * 解码 src[from, to) 到 dst[dstFrom, ...)，dst 剩余空间不少于 to - from
+     *
+     * @param endOfInput 为 false 时末尾不完整的字节序列留待下次解码，通过 {@link #consumed()} 得知实际消费的字节数
+     * @return 写入的字符数
+     */
+    public int decode(byte[] src, int from, int to, char[] dst, int dstFrom, boolean endOfInput) {
+        int i = from;
+        int j = dstFrom;
+        while (i < to) {
+            int b = src[i];
+            if (b >= 0) {
+                dst[j++] = (char) b;
+                i++;
+                continue;
+            }
+            int n = (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 0;
+            if (n == 0) {
+                dst[j++] = REPLACEMENT;
+                i++;
+                continue;
+            }
+            if (i + n > to && !endOfInput) {
+                break;
+            }
+            int cp = b & (0x7F >> n);
+            int k = 1;
+            while (k < n && i + k < to && (src[i + k] & 0xC0) == 0x80) {
+                cp = (cp << 6) | (src[i + k] & 0x3F);
+                k++;
+            }
+            if (k < n || !valid(cp, n)) {
+                dst[j++] = REPLACEMENT;
+                i += k;
+                continue;
+            }
+            if (n == 4) {
+                dst[j++] = Character.highSurrogate(cp);
+                dst[j++] = Character.lowSurrogate(cp);
+            } else {
+                dst[j++] = (char) cp;
+            }
+            i += n;
+        }
+        consumed = i - from;
+        return j - dstFrom;
+    }
+    
+    /**
+     * 上一次 decode 消费的字节数
+     */
+    public int consumed() {
+        return consumed;
+    }
+    
+    /**
+     * 拒绝超长编码和代理区码点
+     */
+    private static boolean valid(int cp, int n) {
+        switch (n) {
+            case 2:
+                return cp >= 0x80;
+            case 3:
+                return cp >= 0x800 && (cp < 0xD800 || cp > 0xDFFF);
+            default:
+                return cp >= 0x10000 && cp <= 0x10FFFF;
+        }
+    }
+}
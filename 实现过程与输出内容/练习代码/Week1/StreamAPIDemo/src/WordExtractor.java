@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 并行长词提取引擎
+ * 把文件内存映射后按换行符切成若干块（换行符是单字节，切分点不会落在 UTF-8 多字节字符或词的中间），
+ * 每块在 ForkJoin 线程池中独立解码（{@link Utf8Decoder}）、用 {@link CjkTokenizer} 分词并用 {@link WordSet} 去重，最后合并排序。
+ * 结果与 filter(word.length() > minLength).distinct().sorted() 语义一致
+ */
+public class WordExtractor {
+    /** 每块的目标大小 */
+    private static final long TARGET_CHUNK_SIZE = 32L << 20;
+    /** 单次映射的上限 */
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int minLength;
+
+    public WordExtractor() {
+        this(ForkJoinPool.commonPool(), 5);
+    }
+
+    /**
+     * @param pool      执行分块任务的线程池
+     * @param minLength 只保留长度大于该值的词
+     */
+    public WordExtractor(ForkJoinPool pool, int minLength) {
+        this.pool = pool;
+        this.minLength = minLength;
+    }
+
+    /**
+     * 提取去重并排序后的长词
+     */
+    public List<String> longWords(Path file) throws IOException {
+        List<String> words = scan(file).toList();
+        Collections.sort(words);
+        return words;
+    }
+
+    /**
+     * 提取去重后的长词，不排序
+     */
+    public Set<String> distinctLongWords(Path file) throws IOException {
+        return new HashSet<>(scan(file).toList());
+    }
+
+    private WordSet scan(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitPoints(channel, chunkCount(channel.size()));
+            try {
+                return pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 块不超过目标大小，且文件足够大时至少为并行度的 4 倍，方便工作窃取均衡负载
+     */
+    private int chunkCount(long size) {
+        long bySize = (size + TARGET_CHUNK_SIZE - 1) / TARGET_CHUNK_SIZE;
+        long byCores = Math.min((long) pool.getParallelism() * 4, size / (1 << 20) + 1);
+        return (int) Math.max(1, Math.max(bySize, byCores));
+    }
+
+    /**
+     * 计算分块边界，每个边界都紧跟在一个换行符之后
+     * 返回的数组首元素为 0、末元素为文件大小，中间的边界单调递增
+     */
+    static long[] splitPoints(FileChannel channel, int parts) throws IOException {
+        long size = channel.size();
+        List<Long> points = new ArrayList<>();
+        points.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long last = 0;
+        for (int i = 1; i < parts; i++) {
+            long target = Math.max(size * i / parts, last);
+            long boundary = nextLineStart(channel, target, probe);
+            if (boundary >= size) {
+                break;
+            }
+            if (boundary > last) {
+                points.add(boundary);
+                last = boundary;
+            }
+        }
+        points.add(size);
+        // 某一行超长导致块超过单次映射上限时，只能在字符边界处切开
+        List<Long> result = new ArrayList<>();
+        result.add(0L);
+        for (int i = 1; i < points.size(); i++) {
+            long from = result.get(result.size() - 1);
+            long to = points.get(i);
+            while (to - from > MAX_CHUNK_SIZE) {
+                from = charStart(channel, from + MAX_CHUNK_SIZE / 2, probe);
+                result.add(from);
+            }
+            result.add(to);
+        }
+        long[] bounds = new long[result.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = result.get(i);
+        }
+        return bounds;
+    }
+
+    /**
+     * position 之后（含）第一个换行符的下一个位置，没有换行符时返回文件大小
+     */
+    static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long pos = position;
+        while (true) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+    }
+
+    /**
+     * 向前找到第一个不是 UTF-8 后续字节（10xxxxxx）的位置
+     */
+    private static long charStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        probe.clear();
+        int n = channel.read(probe, position);
+        for (int i = 0; i < n; i++) {
+            if ((probe.get(i) & 0xC0) != 0x80) {
+                return position + i;
+            }
+        }
+        return position + Math.max(n, 0);
+    }
+
+    /**
+     * 解码并切分 [start, end) 范围内的字节
+     */
+    WordSet scanChunk(FileChannel channel, long start, long end) throws IOException {
+        WordSet words = new WordSet();
+        if (end <= start) {
+            return words;
+        }
+        MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        // 分批拷贝到堆内数组再解码，比直接在映射缓冲区上用 CharsetDecoder 快得多
+        byte[] bytes = new byte[DECODE_BUFFER_SIZE];
+        char[] chars = new char[DECODE_BUFFER_SIZE];
+        Utf8Decoder decoder = new Utf8Decoder();
+        CjkTokenizer tokenizer = new CjkTokenizer(minLength, (CjkTokenizer.TokenSink) words::add);
+        int carry = 0;
+        while (in.hasRemaining()) {
+            int n = Math.min(bytes.length - carry, in.remaining());
+            in.get(bytes, carry, n);
+            int length = carry + n;
+            int decoded = decoder.decode(bytes, 0, length, chars, 0, !in.hasRemaining());
+            tokenizer.feed(chars, 0, decoded);
+            carry = length - decoder.consumed();
+            System.arraycopy(bytes, decoder.consumed(), bytes, 0, carry);
+        }
+        tokenizer.finish();
+        return words;
+    }
+
+    @SuppressWarnings("serial")
+    private class ChunkTask extends RecursiveTask<WordSet> {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(FileChannel channel, long[] bounds, int lo, int hi) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected WordSet compute() {
+            if (hi - lo == 1) {
+                try {
+                    return scanChunk(channel, bounds[lo], bounds[hi]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(channel, bounds, lo, mid);
+            left.fork();
+            WordSet right = new ChunkTask(channel, bounds, mid, hi).compute();
+            WordSet leftWords = left.join();
+            // 把小集合并入大集合
+            if (leftWords.size() < right.size()) {
+                right.addAll(leftWords);
+                return right;
+            }
+            leftWords.addAll(right);
+            return leftWords;
+        }
+    }
+}
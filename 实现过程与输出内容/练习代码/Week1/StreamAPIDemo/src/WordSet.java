@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 开放寻址的字符串集合，可以直接用字符数组片段查重，只有新词才会创建字符串
+ * 非线程安全，并行时每个线程各用一个，最后合并
+ */
+public class WordSet {
+    private String[] table;
+    private int[] hashes;
+    private int size;
+    
+    public WordSet() {
+        this(1024);
+    }
+    
+    public WordSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        table = new String[capacity];
+        hashes = new int[capacity];
+    }
+    
+    /**
+     * @return 是新词时返回 true
+     */
+    public boolean add(char[] text, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + text[i];
+        }
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        String word;
+        while ((word = table[slot]) != null) {
+            if (hashes[slot] == hash && matches(word, text, offset, length)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, new String(text, offset, length), hash);
+        return true;
+    }
+    
+    public boolean add(String word) {
+        // 与 String.hashCode 的算法一致
+        int hash = word.hashCode();
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        String existing;
+        while ((existing = table[slot]) != null) {
+            if (hashes[slot] == hash && existing.equals(word)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, word, hash);
+        return true;
+    }
+    
+    public void addAll(WordSet other) {
+        for (String word : other.table) {
+            if (word != null) {
+                add(word);
+            }
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * 清空集合，保留已经分配的数组
+     */
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+    
+    public List<String> toList() {
+        List<String> words = new ArrayList<>(size);
+        for (String word : table) {
+            if (word != null) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+    
+    private void insert(int slot, String word, int hash) {
+        table[slot] = word;
+        hashes[slot] = hash;
+        if (++size * 2 > table.length) {
+            resize();
+        }
+    }
+    
+    private void resize() {
+        String[] oldTable = table;
+        int[] oldHashes = hashes;
+        table = new String[oldTable.length * 2];
+        hashes = new int[oldTable.length * 2];
+        int mask = table.length - 1;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                int slot = mix(oldHashes[i]) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = oldTable[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+    
+    private static boolean matches(String word, char[] text, int offset, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != text[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}